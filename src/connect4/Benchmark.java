@@ -0,0 +1,185 @@
+package connect4;
+
+/**
+ * Benchmark times the ComputerPlayer's search on a fixed suite of positions, so different search settings can be compared.
+ *
+ * <p>Each position is a string of the columns (1 to 7) played from an empty board, the user playing first, so it is always the
+ * computer's turn. None of the positions has a winning or blocking move, so aiMove always searches. The suite is searched with
+ * one thread and then with each of the thread counts given, for both parallel modes, printing the total time, positions visited,
+ * positions per second and speedup compared to one thread. The suite is searched once before timing anything so the JVM has
+ * compiled the search.
+ *
+ * <p>The drivers are compared on one thread as well: the aspiration window and MTD(f) drivers against the full window, both
+ * searching only the maximum depth and searching every depth from 1 like the other two drivers do. Late move reductions are
+ * compared against the full window too, with the schedule REDUCTIONS.
+ *
+ * <p>Usage: java connect4.Benchmark [depth] [threads ...], the default is a depth of 9 with 2, 4 and 8 threads.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class Benchmark {
+
+  /**
+   * SUITE contains the positions searched, each as the columns played to reach it.
+   */
+  public static final String[] SUITE = {"347464176146",
+                                        "6677646636",
+                                        "15521732653554",
+                                        "271434144165",
+                                        "246563",
+                                        "14744737662324",
+                                        "12312667",
+                                        "766633631757",
+                                        "632154",
+                                        "55655554",
+                                        "16541545",
+                                        "2461577547472663"};
+
+  /**
+   * REDUCTIONS stores the late move reduction schedule compared with the full search, no reduction for the first two columns, 1
+   * for the next three and 2 for the last two.
+   */
+  private static final int[] REDUCTIONS = {0, 0, 1, 1, 1, 2, 2};
+
+  /**
+   * main method to run the benchmark.
+   *
+   * @param args The depth to search to, followed by the thread counts to compare with one thread.
+   */
+  public static void main(String[] args) {
+
+    int depth = 9;
+    int[] threadCounts = {2, 4, 8};
+
+    if (args.length > 0) {
+
+      depth = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+
+      threadCounts = new int[args.length - 1];
+      for (int i = 1; i < args.length; i ++) {
+
+        threadCounts[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+
+    System.out.println("Searching " + SUITE.length + " positions to a depth of " + depth + ".");
+
+    /* The first run is thrown away, it is slower while the JVM compiles the search. */
+    run(depth, 1, ComputerPlayer.ROOT_SPLIT);
+    long[] single = run(depth, 1, ComputerPlayer.ROOT_SPLIT);
+    print("1 thread", single, single[0]);
+
+    print("1 thread, every depth", run(depth, ComputerPlayer.FULL_WINDOW, true), single[0]);
+    print("1 thread, aspiration", run(depth, ComputerPlayer.ASPIRATION, false), single[0]);
+    print("1 thread, MTD(f)", run(depth, ComputerPlayer.MTDF, false), single[0]);
+
+    ComputerPlayer reduced = new ComputerPlayer(depth);
+    reduced.setReductions(REDUCTIONS);
+    print("1 thread, reductions", run(reduced), single[0]);
+
+    for (int threads : threadCounts) {
+
+      print(threads + " threads, root split", run(depth, threads, ComputerPlayer.ROOT_SPLIT), single[0]);
+      print(threads + " threads, Lazy SMP", run(depth, threads, ComputerPlayer.LAZY_SMP), single[0]);
+    }
+  }
+
+  /**
+   * position plays the columns of a position from the suite on an empty board.
+   *
+   * @param moves The columns played, from 1 to 7.
+   * @return config The game configuration after the columns are played.
+   */
+  public static GameConfig position(String moves) {
+
+    GameConfig config = new GameConfig();
+    int player = 1;
+
+    for (int i = 0; i < moves.length(); i ++) {
+
+      config.makeMove(moves.charAt(i) - '1', player);
+      player = 3 - player;
+    }
+
+    return config;
+  }
+
+  /**
+   * run searches every position of the suite with one ComputerPlayer.
+   *
+   * @param depth The depth to search to.
+   * @param threads The number of threads the search uses.
+   * @param parallelMode How the search is split between threads (ROOT_SPLIT or LAZY_SMP).
+   * @return totals The total time in milliseconds and the total positions visited.
+   */
+  private static long[] run(int depth, int threads, int parallelMode) {
+
+    ComputerPlayer ai = new ComputerPlayer(depth);
+    ai.setThreads(threads);
+    ai.setParallelMode(parallelMode);
+    long[] totals = run(ai);
+
+    ai.setThreads(1);
+    return totals;
+  }
+
+  /**
+   * run searches every position of the suite on one thread with a ComputerPlayer using a driver.
+   *
+   * @param depth The depth to search to.
+   * @param driver How the window of each depth is chosen (FULL_WINDOW, ASPIRATION or MTDF).
+   * @param everyDepth Whether or not every depth from 1 is searched, with a node limit too high to reach.
+   * @return totals The total time in milliseconds and the total positions visited.
+   */
+  private static long[] run(int depth, int driver, boolean everyDepth) {
+
+    ComputerPlayer ai = new ComputerPlayer(depth);
+    ai.setDriver(driver);
+    if (everyDepth) {
+
+      ai.setNodeLimit(Long.MAX_VALUE);
+    }
+
+    return run(ai);
+  }
+
+  /**
+   * run searches every position of the suite with a ComputerPlayer that has already been set up.
+   *
+   * @param ai The ComputerPlayer to search with.
+   * @return totals The total time in milliseconds and the total positions visited.
+   */
+  private static long[] run(ComputerPlayer ai) {
+
+    long[] totals = new long[2];
+
+    /* Each position is searched on its own, not as the next move of the same game. */
+    for (String moves : SUITE) {
+
+      ai.newGame();
+      ai.aiMove(position(moves));
+      totals[0] += ai.getSearchTime();
+      totals[1] += ai.getNodeCount();
+    }
+
+    return totals;
+  }
+
+  /**
+   * print prints one line of results.
+   *
+   * @param name The search settings the results are for.
+   * @param totals The total time in milliseconds and the total positions visited.
+   * @param singleTime The total time in milliseconds with one thread.
+   */
+  private static void print(String name, long[] totals, long singleTime) {
+
+    long time = Math.max(totals[0], 1);
+    System.out.printf("%-26s %8d ms %12d nodes %10d nodes/s  speedup %.2f%n", name, totals[0], totals[1],
+        totals[1] * 1000 / time, (double) singleTime / time);
+  }
+
+}
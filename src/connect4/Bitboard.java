@@ -0,0 +1,742 @@
+package connect4;
+
+import java.util.Random;
+
+/**
+ * Bitboard is a compact representation of a Connect4 position that stores each player's tokens in a single long.
+ *
+ * <p>Every column uses 7 bits of a long, the bottom 6 bits for the playable spaces and a 7th empty "sentinel" bit
+ * on top so tokens in one column can never shift into the next one. Bit (col * 7 + height) is set when a token sits
+ * in column col at the given height above the bottom of the board. The union of both players' tokens doubles as the
+ * column height encoding, since adding the bottom bit of a column to it carries up to the lowest free space. This makes
+ * copying a position, playing a move and checking for four in a row a handful of instructions instead of a walk over
+ * all 42 spaces of the int[6][7] board used by GameConfig.
+ *
+ * <p>A Bitboard also keeps a 64-bit Zobrist key of its position, and of the position mirrored left to right, that are updated with
+ * a single xor when a token is played or taken back. The keys are the same in every JVM, so they can be saved with a position.
+ *
+ * <p>The board has 69 windows of four spaces in a row that a player can win in. For every window a Bitboard keeps how many
+ * tokens each player has in it, updating only the windows through a space when a token is played there or taken back. From
+ * the counts it keeps two running scores for evaluating a position without looking at its spaces: the cell score, the number of
+ * windows through each of the second player's spaces minus the same for the first player (the values of the old evaluation
+ * board), and the line score, which only counts windows one player can still win in and weighs them by how full they are. It
+ * also keeps how many open threes (three tokens and an empty space in a window) each player has, and how many windows each player
+ * can still win in, so a position neither player can win any more is found without searching it.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class Bitboard {
+
+  /**
+   * WIDTH is the number of columns on the Connect4 board.
+   */
+  public static final int WIDTH = 7;
+
+  /**
+   * HEIGHT is the number of rows on the Connect4 board.
+   */
+  public static final int HEIGHT = 6;
+
+  /**
+   * BOTTOM_MASK has the bottom bit of every column set.
+   */
+  public static final long BOTTOM_MASK = 0x0000_0408_1020_4081L;
+
+  /**
+   * BOARD_MASK has every playable bit of the board set (the sentinel bits are left out).
+   */
+  public static final long BOARD_MASK = BOTTOM_MASK * ((1L << HEIGHT) - 1);
+
+  /**
+   * ZOBRIST stores a random number for every player (index 0 for the first player) and every bit of the board.
+   *
+   * <p>The key of a position is all the numbers of its tokens xor-ed together. The numbers come from a fixed seed so the keys
+   * never change between runs.
+   */
+  private static final long[][] ZOBRIST = new long[2][WIDTH * (HEIGHT + 1)];
+
+  /**
+   * ZOBRIST_MIRROR stores the number of the space on the other side of the board for every player and every bit of the board.
+   */
+  private static final long[][] ZOBRIST_MIRROR = new long[2][WIDTH * (HEIGHT + 1)];
+
+  /**
+   * WINDOWS stores the bits of the four spaces of every window, 24 across, 21 up, and 12 along each diagonal.
+   */
+  private static final long[] WINDOWS;
+
+  /**
+   * CELL_WINDOWS stores the windows each bit of the board is in.
+   */
+  private static final int[][] CELL_WINDOWS = new int[WIDTH * (HEIGHT + 1)][];
+
+  /**
+   * LINE_WEIGHTS stores how much a window only one player has tokens in adds to the line score, by the number of tokens.
+   */
+  private static final int[] LINE_WEIGHTS = {0, 1, 4, 16, 0};
+
+  static {
+
+    Random random = new Random(0x436F6E6E65637434L);
+
+    for (int p = 0; p < 2; p ++) {
+      for (int bit = 0; bit < WIDTH * (HEIGHT + 1); bit ++) {
+
+        ZOBRIST[p][bit] = random.nextLong();
+      }
+    }
+
+    for (int p = 0; p < 2; p ++) {
+      for (int bit = 0; bit < WIDTH * (HEIGHT + 1); bit ++) {
+
+        int mirrorBit = (WIDTH - 1 - bit / (HEIGHT + 1)) * (HEIGHT + 1) + bit % (HEIGHT + 1);
+        ZOBRIST_MIRROR[p][bit] = ZOBRIST[p][mirrorBit];
+      }
+    }
+
+    /* Each window is its first space and a step to the next space: up, across, and both diagonals. */
+    long[] windows = new long[69];
+    int count = 0;
+    int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    for (int[] step : steps) {
+      for (int c = 0; c < WIDTH; c ++) {
+        for (int h = 0; h < HEIGHT; h ++) {
+
+          int lastCol = c + 3 * step[0];
+          int lastHeight = h + 3 * step[1];
+          if (lastCol < WIDTH && lastHeight >= 0 && lastHeight < HEIGHT) {
+
+            long window = 0L;
+            for (int i = 0; i < 4; i ++) {
+
+              window |= 1L << ((c + i * step[0]) * (HEIGHT + 1) + h + i * step[1]);
+            }
+            windows[count ++] = window;
+          }
+        }
+      }
+    }
+    WINDOWS = windows;
+
+    for (int bit = 0; bit < WIDTH * (HEIGHT + 1); bit ++) {
+
+      int in = 0;
+      for (long window : WINDOWS) {
+
+        if ((window >>> bit & 1) != 0) {
+
+          in ++;
+        }
+      }
+      CELL_WINDOWS[bit] = new int[in];
+      in = 0;
+      for (int w = 0; w < WINDOWS.length; w ++) {
+
+        if ((WINDOWS[w] >>> bit & 1) != 0) {
+
+          CELL_WINDOWS[bit][in ++] = w;
+        }
+      }
+    }
+  }
+
+  /**
+   * playerOne stores the tokens of the first player (the value 1 in GameConfig's board).
+   */
+  private long playerOne;
+
+  /**
+   * playerTwo stores the tokens of the second player or computer (the value 2 in GameConfig's board).
+   */
+  private long playerTwo;
+
+  /**
+   * zobristKey stores the Zobrist key of the position.
+   */
+  private long zobristKey;
+
+  /**
+   * mirrorKey stores the Zobrist key of the position mirrored left to right.
+   */
+  private long mirrorKey;
+
+  /**
+   * windowCounts stores how many tokens each player has in every window, the first player's count at twice the window's index
+   * and the second player's count after it.
+   */
+  private byte[] windowCounts = new byte[2 * WINDOWS.length];
+
+  /**
+   * cellScore stores the number of windows through each of the second player's tokens, minus the same for the first player.
+   */
+  private int cellScore;
+
+  /**
+   * lineScore stores the LINE_WEIGHTS of the windows only the second player has tokens in, minus the same for the first player.
+   */
+  private int lineScore;
+
+  /**
+   * openThrees stores how many windows each player (index 0 for the first player) has three tokens and an empty space in.
+   */
+  private int[] openThrees = new int[2];
+
+  /**
+   * liveWindows stores how many windows each player (index 0 for the first player) can still win in, the windows the other player
+   * has no tokens in.
+   */
+  private int[] liveWindows = {WINDOWS.length, WINDOWS.length};
+
+  /**
+   * Default constructor for Bitboard, sets up an empty board.
+   */
+  public Bitboard() {
+
+    playerOne = 0L;
+    playerTwo = 0L;
+    zobristKey = 0L;
+    mirrorKey = 0L;
+  }
+
+  /**
+   * Copy constructor for Bitboard.
+   *
+   * @param oldBoard The old position that is being copied into a new position.
+   */
+  public Bitboard(Bitboard oldBoard) {
+
+    playerOne = oldBoard.playerOne;
+    playerTwo = oldBoard.playerTwo;
+    zobristKey = oldBoard.zobristKey;
+    mirrorKey = oldBoard.mirrorKey;
+    windowCounts = oldBoard.windowCounts.clone();
+    cellScore = oldBoard.cellScore;
+    lineScore = oldBoard.lineScore;
+    openThrees = oldBoard.openThrees.clone();
+    liveWindows = oldBoard.liveWindows.clone();
+  }
+
+  /**
+   * Constructor for Bitboard that builds the position from a 2D board in the layout used by GameConfig.
+   *
+   * @param board The 2D array containing the state of a Connect4 game.
+   */
+  public Bitboard(int[][] board) {
+
+    setBoard(board);
+  }
+
+  /**
+   * bottomMask returns a mask with only the bottom bit of a column set.
+   *
+   * @param col The column of the board.
+   * @return The bit of the bottom space in the column.
+   */
+  public static long bottomMask(int col) {
+
+    return 1L << (col * (HEIGHT + 1));
+  }
+
+  /**
+   * topMask returns a mask with only the top playable bit of a column set.
+   *
+   * @param col The column of the board.
+   * @return The bit of the top space in the column.
+   */
+  public static long topMask(int col) {
+
+    return 1L << (HEIGHT - 1 + col * (HEIGHT + 1));
+  }
+
+  /**
+   * columnMask returns a mask with every playable bit of a column set.
+   *
+   * @param col The column of the board.
+   * @return The bits of all the spaces in the column.
+   */
+  public static long columnMask(int col) {
+
+    return ((1L << HEIGHT) - 1) << (col * (HEIGHT + 1));
+  }
+
+  /**
+   * cellMask returns the bit for a row and column of GameConfig's board, where row 0 is the top of the board.
+   *
+   * @param row The row of the board (0 top to 5 bottom).
+   * @param col The column of the board.
+   * @return The bit of the space.
+   */
+  public static long cellMask(int row, int col) {
+
+    return 1L << (col * (HEIGHT + 1) + (HEIGHT - 1 - row));
+  }
+
+  /**
+   * mirror flips a set of bits left to right, so column 0 swaps with column 6, 1 with 5 and 2 with 4.
+   *
+   * <p>Every column has its own bits, so the mirror of a position's key is the key of the mirrored position.
+   *
+   * @param bits The bits to flip, such as a key or the tokens of one player.
+   * @return The bits of the mirrored board.
+   */
+  public static long mirror(long bits) {
+
+    long columnBits = (1L << (HEIGHT + 1)) - 1;
+    long result = 0;
+    for (int c = 0; c < WIDTH; c ++) {
+
+      result |= ((bits >>> (c * (HEIGHT + 1))) & columnBits) << ((WIDTH - 1 - c) * (HEIGHT + 1));
+    }
+
+    return result;
+  }
+
+  /**
+   * hasFour checks if a set of tokens contains four in a row in any direction.
+   *
+   * <p>For each direction, the tokens are and-ed with themselves shifted by one space, which leaves the bits
+   * that start a pair. Doing the same again with a shift of two spaces leaves the bits that start four in a row.
+   *
+   * @param tokens The tokens of one player.
+   * @return true/false Whether or not the tokens contain four in a row.
+   */
+  public static boolean hasFour(long tokens) {
+
+    /* Horizontal. */
+    long m = tokens & (tokens >> (HEIGHT + 1));
+    if ((m & (m >> (2 * (HEIGHT + 1)))) != 0) {
+      return true;
+    }
+
+    /* Ascending diagonal. */
+    m = tokens & (tokens >> (HEIGHT + 2));
+    if ((m & (m >> (2 * (HEIGHT + 2)))) != 0) {
+      return true;
+    }
+
+    /* Descending diagonal. */
+    m = tokens & (tokens >> HEIGHT);
+    if ((m & (m >> (2 * HEIGHT))) != 0) {
+      return true;
+    }
+
+    /* Vertical. */
+    m = tokens & (tokens >> 1);
+    if ((m & (m >> 2)) != 0) {
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * getTokens returns the tokens of a player.
+   *
+   * @param player The player (1 or 2).
+   * @return The bits of all the spaces the player occupies.
+   */
+  public long getTokens(int player) {
+
+    if (player == 1) {
+
+      return playerOne;
+    } else {
+
+      return playerTwo;
+    }
+  }
+
+  /**
+   * getMask returns the tokens of both players, which is also the height encoding of every column.
+   *
+   * @return The bits of all occupied spaces.
+   */
+  public long getMask() {
+
+    return playerOne | playerTwo;
+  }
+
+  /**
+   * getKey returns a number that is different for every position that can be reached in a game.
+   *
+   * <p>The key is the first player's tokens added to the mask of all tokens. Adding a token's bit to the mask carries it to the top
+   * of its column, so every column of the key has a single extra bit above its tokens that marks the height, and the first player's
+   * tokens are kept below it.
+   *
+   * @return The key of the position.
+   */
+  public long getKey() {
+
+    return playerOne + (playerOne | playerTwo);
+  }
+
+  /**
+   * getZobristKey returns the Zobrist key of the position.
+   *
+   * <p>Unlike getKey, the Zobrist key is spread over all 64 bits and can collide (very rarely), but it is kept up to date
+   * one token at a time and has a matching key for the mirrored position.
+   *
+   * @return zobristKey The Zobrist key of the position.
+   */
+  public long getZobristKey() {
+
+    return zobristKey;
+  }
+
+  /**
+   * getMirrorKey returns the Zobrist key of the position mirrored left to right.
+   *
+   * @return mirrorKey The Zobrist key of the mirrored position.
+   */
+  public long getMirrorKey() {
+
+    return mirrorKey;
+  }
+
+  /**
+   * getCanonicalKey returns the same key for a position and its mirror image, the smaller of the two Zobrist keys.
+   *
+   * @return The canonical Zobrist key of the position.
+   */
+  public long getCanonicalKey() {
+
+    return Math.min(zobristKey, mirrorKey);
+  }
+
+  /**
+   * getMoveCount returns how many tokens have been played on the board.
+   *
+   * @return The number of occupied spaces.
+   */
+  public int getMoveCount() {
+
+    return Long.bitCount(playerOne | playerTwo);
+  }
+
+  /**
+   * canPlay checks if a column still has a free space.
+   *
+   * @param col The column being checked.
+   * @return true/false Whether or not a token can be played in the column.
+   */
+  public boolean canPlay(int col) {
+
+    return ((playerOne | playerTwo) & topMask(col)) == 0;
+  }
+
+  /**
+   * legalMoves returns a mask with the lowest free space of every column that is not full.
+   *
+   * @return The bits of the spaces where the next token of each column would land.
+   */
+  public long legalMoves() {
+
+    long mask = playerOne | playerTwo;
+    return (mask + BOTTOM_MASK) & BOARD_MASK;
+  }
+
+  /**
+   * makeMove drops a token for a player into a column.
+   *
+   * @param col The column the token is played in.
+   * @param player The player making the move (1 or 2).
+   * @return row The row of GameConfig's board the token landed in, or -1 if the column was full.
+   */
+  public int makeMove(int col, int player) {
+
+    long move = ((playerOne | playerTwo) + bottomMask(col)) & columnMask(col);
+
+    if (move == 0) {
+
+      return -1;
+    }
+
+    int bit = Long.numberOfTrailingZeros(move);
+
+    if (player == 1) {
+
+      playerOne |= move;
+    } else {
+
+      playerTwo |= move;
+    }
+
+    zobristKey ^= ZOBRIST[player == 1 ? 0 : 1][bit];
+    mirrorKey ^= ZOBRIST_MIRROR[player == 1 ? 0 : 1][bit];
+    countToken(bit, player == 1 ? 0 : 1, 1);
+
+    return HEIGHT - 1 - (bit - col * (HEIGHT + 1));
+  }
+
+  /**
+   * undoMove takes back the top token of a column, reversing the makeMove that played it.
+   *
+   * <p>Together with makeMove this lets a search walk the whole game tree on a single Bitboard
+   * without creating a new position for every move.
+   *
+   * @param col The column the last token was played in.
+   */
+  public void undoMove(int col) {
+
+    long top = Long.highestOneBit((playerOne | playerTwo) & columnMask(col));
+
+    if (top != 0) {
+
+      int p = (playerOne & top) != 0 ? 0 : 1;
+      int bit = Long.numberOfTrailingZeros(top);
+      zobristKey ^= ZOBRIST[p][bit];
+      mirrorKey ^= ZOBRIST_MIRROR[p][bit];
+      countToken(bit, p, -1);
+      playerOne &= ~top;
+      playerTwo &= ~top;
+    }
+  }
+
+  /**
+   * countToken updates the window counts and running scores for a token being played or taken back.
+   *
+   * <p>The windows through the space are the only ones that change, at most 16 of them. Each window's share of the line score
+   * and open threes is taken away before its count changes and added back after.
+   *
+   * @param bit The bit of the space.
+   * @param p The player of the token (0 for the first player, 1 for the second).
+   * @param change 1 if the token is being played, -1 if it is being taken back.
+   */
+  private void countToken(int bit, int p, int change) {
+
+    int[] windows = CELL_WINDOWS[bit];
+    int sign = p == 1 ? 1 : -1;
+    cellScore += sign * change * windows.length;
+
+    for (int w : windows) {
+
+      int own = 2 * w + p;
+      int other = 2 * w + 1 - p;
+      if (windowCounts[other] == 0) {
+
+        /* Only the player's own share of the window can change, the other player has no tokens in it. */
+        lineScore += sign * (LINE_WEIGHTS[windowCounts[own] + change] - LINE_WEIGHTS[windowCounts[own]]);
+        openThrees[p] += (windowCounts[own] + change == 3 ? 1 : 0) - (windowCounts[own] == 3 ? 1 : 0);
+      } else if (windowCounts[own] == 0 && change > 0) {
+
+        /* The first token of the player in the window stops the other player winning in it. */
+        lineScore += sign * LINE_WEIGHTS[windowCounts[other]];
+        openThrees[1 - p] -= windowCounts[other] == 3 ? 1 : 0;
+      } else if (windowCounts[own] == 1 && change < 0) {
+
+        /* Taking back the player's only token lets the other player win in the window again. */
+        lineScore -= sign * LINE_WEIGHTS[windowCounts[other]];
+        openThrees[1 - p] += windowCounts[other] == 3 ? 1 : 0;
+      }
+
+      /* The player's first token in a window stops the other player winning in it, taking it back lets them again. */
+      if (windowCounts[own] == 0 && change > 0) {
+
+        liveWindows[1 - p] --;
+      } else if (windowCounts[own] == 1 && change < 0) {
+
+        liveWindows[1 - p] ++;
+      }
+      windowCounts[own] += change;
+    }
+  }
+
+  /**
+   * getCellScore returns the number of windows through each of the second player's tokens, minus the same for the first player.
+   *
+   * <p>The number of windows through a space is its value on the evaluation board the ComputerPlayer has always used, 3 in the
+   * corners up to 13 in the middle.
+   *
+   * @return cellScore The cell score of the position.
+   */
+  public int getCellScore() {
+
+    return cellScore;
+  }
+
+  /**
+   * getLineScore returns the line score of the position, positive when the second player has more and fuller windows it can
+   * still win in than the first player.
+   *
+   * @return lineScore The line score of the position.
+   */
+  public int getLineScore() {
+
+    return lineScore;
+  }
+
+  /**
+   * getOpenThrees returns how many windows a player has three tokens and an empty space in.
+   *
+   * @param player The player (1 or 2).
+   * @return The number of open threes of the player.
+   */
+  public int getOpenThrees(int player) {
+
+    return openThrees[player - 1];
+  }
+
+  /**
+   * getLiveWindows returns how many windows a player can still win in, the windows the other player has no tokens in.
+   *
+   * @param player The player (1 or 2).
+   * @return The number of live windows of the player.
+   */
+  public int getLiveWindows(int player) {
+
+    return liveWindows[player - 1];
+  }
+
+  /**
+   * isDead checks if neither player can win any more, every window has tokens of both players in it, so the game can only end in
+   * a draw however it is played.
+   *
+   * @return Whether or not the position is a certain draw.
+   */
+  public boolean isDead() {
+
+    return liveWindows[0] == 0 && liveWindows[1] == 0;
+  }
+
+  /**
+   * getWindowCount returns how many tokens a player has in one of the 69 windows.
+   *
+   * @param window The index of the window (0 to 68).
+   * @param player The player (1 or 2).
+   * @return The number of the player's tokens in the window.
+   */
+  public int getWindowCount(int window, int player) {
+
+    return windowCounts[2 * window + player - 1];
+  }
+
+  /**
+   * getWindow returns the bits of the four spaces of one of the 69 windows.
+   *
+   * @param window The index of the window (0 to 68).
+   * @return The bits of the window.
+   */
+  public static long getWindow(int window) {
+
+    return WINDOWS[window];
+  }
+
+  /**
+   * isWin checks if a player has four in a row on the board.
+   *
+   * @param player The player being checked (1 or 2).
+   * @return true/false Whether or not the player has won.
+   */
+  public boolean isWin(int player) {
+
+    return hasFour(getTokens(player));
+  }
+
+  /**
+   * getCell returns the value of a space in the layout used by GameConfig's board.
+   *
+   * @param row The row of the board (0 top to 5 bottom).
+   * @param col The column of the board.
+   * @return 0 for a free space, 1 for the first player or 2 for the second player.
+   */
+  public int getCell(int row, int col) {
+
+    long cell = cellMask(row, col);
+
+    if ((playerOne & cell) != 0) {
+
+      return 1;
+    } else if ((playerTwo & cell) != 0) {
+
+      return 2;
+    } else {
+
+      return 0;
+    }
+  }
+
+  /**
+   * setBoard rebuilds the position from a 2D board in the layout used by GameConfig.
+   *
+   * @param board The 2D array containing the state of a Connect4 game.
+   */
+  public void setBoard(int[][] board) {
+
+    playerOne = 0L;
+    playerTwo = 0L;
+    zobristKey = 0L;
+    mirrorKey = 0L;
+    windowCounts = new byte[2 * WINDOWS.length];
+    cellScore = 0;
+    lineScore = 0;
+    openThrees = new int[2];
+    liveWindows = new int[] {WINDOWS.length, WINDOWS.length};
+
+    for (int r = 0; r < HEIGHT; r ++) {
+      for (int c = 0; c < WIDTH; c ++) {
+
+        int bit = Long.numberOfTrailingZeros(cellMask(r, c));
+
+        if (board[r][c] == 1) {
+
+          playerOne |= cellMask(r, c);
+          zobristKey ^= ZOBRIST[0][bit];
+          mirrorKey ^= ZOBRIST_MIRROR[0][bit];
+          countToken(bit, 0, 1);
+        } else if (board[r][c] == 2) {
+
+          playerTwo |= cellMask(r, c);
+          zobristKey ^= ZOBRIST[1][bit];
+          mirrorKey ^= ZOBRIST_MIRROR[1][bit];
+          countToken(bit, 1, 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * fillBoard writes the position into a 2D board in the layout used by GameConfig.
+   *
+   * @param board The 2D array that will be overwritten with the state of this position.
+   */
+  public void fillBoard(int[][] board) {
+
+    for (int r = 0; r < HEIGHT; r ++) {
+      for (int c = 0; c < WIDTH; c ++) {
+
+        board[r][c] = getCell(r, c);
+      }
+    }
+  }
+
+  /**
+   * equals compares two Bitboards by the tokens of both players.
+   *
+   * @param other The object being compared to this position.
+   * @return true/false Whether or not the other object is a Bitboard with the same tokens.
+   */
+  @Override
+  public boolean equals(Object other) {
+
+    if (!(other instanceof Bitboard)) {
+
+      return false;
+    }
+
+    Bitboard board = (Bitboard) other;
+    return playerOne == board.playerOne && playerTwo == board.playerTwo;
+  }
+
+  /**
+   * hashCode returns a hash of the position, taken from its Zobrist key.
+   *
+   * @return The hash of the position.
+   */
+  @Override
+  public int hashCode() {
+
+    return (int) (zobristKey ^ (zobristKey >>> 32));
+  }
+
+}
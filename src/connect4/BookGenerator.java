@@ -0,0 +1,315 @@
+package connect4;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BookGenerator writes an opening book file, read by OpeningBook, with the best column and score of every position up to a
+ * number of moves into the game.
+ *
+ * <p>Every position that can be reached in that many moves is found first, keeping only one of a position and its mirror image.
+ * Only the positions at the last move are solved with the Solver, on several threads sharing one transposition table. Every
+ * earlier position is then scored from the positions after each of its columns, from the last move back to the first, so the
+ * slow searches near the start of the game are never needed. The book is only as quick to generate as the last move is to solve,
+ * so a book going more moves into the game takes longer to generate but less time to solve the positions after it.
+ *
+ * <p>Usage: java connect4.BookGenerator [plies] [file] [threads] [table megabytes] [off-heap], the default is 8 moves written to
+ * OpeningBook.BOOK_FILE with one thread per processor and a 1024 megabyte table on the heap. Passing off-heap keeps the table
+ * outside of the heap, so a table of several gigabytes doesn't need a bigger heap.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class BookGenerator {
+
+  /**
+   * CENTER_ORDER stores the columns from the middle out, the order the best column is chosen in when several get the same score.
+   */
+  private static final int[] CENTER_ORDER = {3, 2, 4, 1, 5, 0, 6};
+
+  /**
+   * main method to generate a book.
+   *
+   * @param args The number of moves, the file, the number of threads, the table size and off-heap for an off-heap table.
+   * @throws IOException If the file can't be written.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    int plies = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    Path file = Paths.get(args.length > 1 ? args[1] : OpeningBook.BOOK_FILE);
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    int tableSize = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+    int storage = args.length > 4 && args[4].equals("off-heap") ? TranspositionTable.OFF_HEAP : TranspositionTable.ON_HEAP;
+
+    long start = System.currentTimeMillis();
+    int size = generate(new Bitboard(), plies, file, threads, tableSize, storage);
+    System.out.println("Wrote " + size + " positions to " + file + " in " + (System.currentTimeMillis() - start) / 1000 + "s.");
+  }
+
+  /**
+   * generate solves every position that can be reached from a starting position up to a number of moves into the game, and
+   * writes them to a book file.
+   *
+   * @param root The position to start from, with the first player to move after an even number of moves.
+   * @param plies The number of moves into the game (counted from an empty board) the book goes.
+   * @param file The file to write the book to.
+   * @param threads The number of threads solving positions.
+   * @param tableSize The size in megabytes of the transposition table shared by the threads.
+   * @return The number of positions written.
+   * @throws IOException If the file can't be written.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  public static int generate(Bitboard root, int plies, Path file, int threads, int tableSize) throws IOException, InterruptedException {
+
+    return generate(root, plies, file, threads, tableSize, TranspositionTable.ON_HEAP);
+  }
+
+  /**
+   * generate solves every position that can be reached from a starting position up to a number of moves into the game, and
+   * writes them to a book file, keeping the transposition table on or off the heap.
+   *
+   * @param root The position to start from, with the first player to move after an even number of moves.
+   * @param plies The number of moves into the game (counted from an empty board) the book goes.
+   * @param file The file to write the book to.
+   * @param threads The number of threads solving positions.
+   * @param tableSize The size in megabytes of the transposition table shared by the threads.
+   * @param storage Where the entries of the transposition table are kept (ON_HEAP or OFF_HEAP).
+   * @return The number of positions written.
+   * @throws IOException If the file can't be written.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  public static int generate(Bitboard root, int plies, Path file, int threads, int tableSize, int storage) throws IOException, InterruptedException {
+
+    int first = root.getMoveCount();
+    List<Map<Long, Bitboard>> levels = new ArrayList<>();
+    Map<Long, Bitboard> rootLevel = new HashMap<>();
+    rootLevel.put(canonicalKey(root), new Bitboard(root));
+    levels.add(rootLevel);
+
+    /* Finds every position one move at a time, games that have been won or filled the board are left out. */
+    for (int moves = first; moves < plies; moves ++) {
+
+      Map<Long, Bitboard> next = new HashMap<>();
+      int player = playerToMove(moves);
+      for (Bitboard position : levels.get(levels.size() - 1).values()) {
+
+        for (int c = 0; c < Bitboard.WIDTH; c ++) {
+
+          if (position.canPlay(c)) {
+
+            Bitboard child = new Bitboard(position);
+            child.makeMove(c, player);
+            if (!child.isWin(player) && child.getMoveCount() < Bitboard.WIDTH * Bitboard.HEIGHT) {
+
+              next.putIfAbsent(canonicalKey(child), child);
+            }
+          }
+        }
+      }
+      if (next.isEmpty()) {
+
+        break;
+      }
+      levels.add(next);
+    }
+
+    /* Solves the positions at the last move, then scores the earlier ones from them. */
+    Map<Long, byte[]> entries = new HashMap<>();
+    solveLevel(levels.get(levels.size() - 1), entries, threads, new TranspositionTable(tableSize, storage));
+    for (int i = levels.size() - 2; i >= 0; i --) {
+
+      for (Bitboard position : levels.get(i).values()) {
+
+        entries.put(canonicalKey(position), scoreFromChildren(position, entries));
+      }
+    }
+
+    write(entries, OpeningBook.MAGIC, OpeningBook.VERSION, plies, file);
+    return entries.size();
+  }
+
+  /**
+   * solveLevel solves positions on several threads, sharing one transposition table and one Solver.
+   *
+   * @param level The positions to solve, by canonical key.
+   * @param entries The entries of the book to add the best column and score of each position to.
+   * @param threads The number of threads solving positions.
+   * @param table The transposition table shared by the threads.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  private static void solveLevel(Map<Long, Bitboard> level, Map<Long, byte[]> entries, int threads, TranspositionTable table) throws InterruptedException {
+
+    Bitboard[] positions = level.values().toArray(new Bitboard[0]);
+    byte[][] results = new byte[positions.length][];
+    Solver solver = new Solver();
+    AtomicInteger nextIndex = new AtomicInteger();
+    Thread[] workers = new Thread[Math.max(threads, 1)];
+
+    for (int t = 0; t < workers.length; t ++) {
+
+      workers[t] = new Thread(() -> {
+
+        int i;
+        while ((i = nextIndex.getAndIncrement()) < positions.length) {
+
+          Bitboard position = positions[i];
+          SearchLimits limits = new SearchLimits(Bitboard.WIDTH * Bitboard.HEIGHT);
+          limits.setTable(table);
+          SearchResult result = solver.search(position, playerToMove(position.getMoveCount()), limits);
+          results[i] = entry(position, result.getColumn(), Solver.fromEngineScore(result.getScore()));
+        }
+      });
+      workers[t].start();
+    }
+
+    for (Thread worker : workers) {
+
+      worker.join();
+    }
+
+    for (int i = 0; i < positions.length; i ++) {
+
+      entries.put(canonicalKey(positions[i]), results[i]);
+    }
+  }
+
+  /**
+   * scoreFromChildren finds the best column and score of a position from the scores of the positions after each column.
+   *
+   * @param position The position to score.
+   * @param entries The entries of the book, which already has every position one move later that has not been won or filled the
+   * board.
+   * @return The entry of the position, its best column and score.
+   */
+  static byte[] scoreFromChildren(Bitboard position, Map<Long, byte[]> entries) {
+
+    int moves = position.getMoveCount();
+    int player = playerToMove(moves);
+    int bestCol = -1;
+    int bestScore = Integer.MIN_VALUE;
+
+    for (int c : CENTER_ORDER) {
+
+      if (position.canPlay(c)) {
+
+        Bitboard child = new Bitboard(position);
+        child.makeMove(c, player);
+        int score;
+        if (child.isWin(player)) {
+
+          score = (Bitboard.WIDTH * Bitboard.HEIGHT + 1 - moves) / 2;
+        } else if (child.getMoveCount() == Bitboard.WIDTH * Bitboard.HEIGHT) {
+
+          score = 0;
+        } else {
+
+          score = -entries.get(canonicalKey(child))[1];
+        }
+
+        if (score > bestScore) {
+
+          bestScore = score;
+          bestCol = c;
+        }
+      }
+    }
+
+    return entry(position, bestCol, bestScore);
+  }
+
+  /**
+   * entry packs the best column and score of a position, flipping the column if the position's mirror image has the smaller key.
+   *
+   * @param position The position.
+   * @param col The best column of the position.
+   * @param score The score of the position.
+   * @return The column (as seen from the canonical key) and the score.
+   */
+  static byte[] entry(Bitboard position, int col, int score) {
+
+    if (position.getKey() != canonicalKey(position)) {
+
+      col = Bitboard.WIDTH - 1 - col;
+    }
+
+    return new byte[] {(byte) col, (byte) score};
+  }
+
+  /**
+   * write writes the entries to a book file, sorted by key.
+   *
+   * <p>Tablebase files have the same layout with a different magic number, so TablebaseGenerator writes them with this as well.
+   *
+   * @param entries The entries of the book by canonical key.
+   * @param magic The magic number at the start of the file.
+   * @param version The version of the file layout.
+   * @param limit The third int of the header, the number of moves a book goes to.
+   * @param file The file to write to.
+   * @throws IOException If the file can't be written.
+   */
+  static void write(Map<Long, byte[]> entries, int magic, int version, int limit, Path file) throws IOException {
+
+    long[] keys = new long[entries.size()];
+    int i = 0;
+    for (long key : entries.keySet()) {
+
+      keys[i ++] = key;
+    }
+    Arrays.sort(keys);
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+
+      out.writeInt(magic);
+      out.writeInt(version);
+      out.writeInt(limit);
+      out.writeInt(keys.length);
+      for (long key : keys) {
+
+        out.writeLong(key);
+      }
+      for (long key : keys) {
+
+        out.writeByte(entries.get(key)[0]);
+      }
+      for (long key : keys) {
+
+        out.writeByte(entries.get(key)[1]);
+      }
+    }
+  }
+
+  /**
+   * canonicalKey returns the same key for a position and its mirror image, the smaller of the two.
+   *
+   * @param position The position.
+   * @return The smaller of the position's key and its mirror.
+   */
+  static long canonicalKey(Bitboard position) {
+
+    long key = position.getKey();
+    return Math.min(key, Bitboard.mirror(key));
+  }
+
+  /**
+   * playerToMove works out whose turn it is from the number of moves played, the first player moving first.
+   *
+   * @param moves The number of moves played.
+   * @return The player to move (1 or 2).
+   */
+  static int playerToMove(int moves) {
+
+    return moves % 2 == 0 ? 1 : 2;
+  }
+
+}
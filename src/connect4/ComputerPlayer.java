@@ -1,21 +1,44 @@
 package connect4;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
  * ComputerPlayer is used to create an instance of a Connect4 AI that chooses the best column to play given the
  * current game configuration and a maximum search depth for it's negamax algorithm.
  *
- * <p>ComputerPlayer relies most heavily on a recursive algorithm defined in the negamax method. It utlizes an
+ * <p>ComputerPlayer relies most heavily on the negamax search of a NegamaxEngine. It utlizes an
  * evaluate method to determine how best to move so that it can beat the user. The difficulty level of the
- * ComputerPlayer can be scaled using maxDepth values from 0 (easy) to 7 (difficult). The algorithm could go
- * beyond a maxDepth of 7, but larger numbers start to significantly slow the performance of the game.
+ * ComputerPlayer can be scaled using maxDepth values from 0 (easy) to 7 (difficult). The negamax method uses alpha-beta
+ * pruning to skip branches that can't change the best move, so it could go well beyond a maxDepth of 7, but every extra
+ * move searched still multiplies the amount of work.
+ *
+ * <p>The search deepens one move at a time up to maxDepth. A time limit or node limit can be set as well, the search then stops
+ * when the limit is reached and plays the best column from the deepest search that finished, so the difficulty can be set by how
+ * long the computer thinks instead of how deep.
+ *
+ * <p>The search itself is done by a SearchEngine that keeps nothing between searches, ComputerPlayer only stores the settings of
+ * one game (the depth, limits and transposition table) and the result of its last search. Several ComputerPlayers can share one
+ * engine, each searching on its own thread. The search settings (alpha-beta pruning, move ordering and threads) belong to the
+ * engine, so changing them on one ComputerPlayer changes them for every ComputerPlayer sharing its engine. A game can run aiMove
+ * on a thread of its own so the game keeps responding, and stop it from the game's thread with stopSearch, as long as only one
+ * aiMove runs at a time.
+ *
+ * <p>Above the depth settings is perfect play, where a Solver searches every position to the end of the game and the computer
+ * never loses a game it can draw or draws a game it can win. Solving is only quick once the board has filled up a little, so
+ * if the position is not solved within the time limit the computer plays the best column of a normal search instead.
+ *
+ * <p>At the start of the game the computer can play from an OpeningBook, which has the perfect column for every position up to
+ * a number of moves, written ahead of time by BookGenerator. Columns from the book are played straight away at every difficulty.
+ * In the same way, near the end of the game the computer can play from a Tablebase written by TablebaseGenerator.
  *
  * @author T02-1 - Matthew Cox
- * @version 1.2
+ * @version 1.20
  */
-public class ComputerPlayer extends GameConfig {
+public class ComputerPlayer {
 
   /**
    * maxDepth stores the depth that the negamax method searches to.
@@ -30,25 +53,177 @@ public class ComputerPlayer extends GameConfig {
   private int bestCol;
 
   /**
-   * evaluationBoard contains how many winning 4-in-a-row combinations there are from each space.
+   * WIN_SCORE is the score of a won position, larger than any score from evaluate.
+   */
+  public static final int WIN_SCORE = NegamaxEngine.WIN_SCORE;
+
+  /**
+   * ROOT_SPLIT is the parallel mode that searches each column at the root in its own task.
+   */
+  public static final int ROOT_SPLIT = NegamaxEngine.ROOT_SPLIT;
+
+  /**
+   * LAZY_SMP is the parallel mode where helper threads search the whole position and share the transposition table.
+   */
+  public static final int LAZY_SMP = NegamaxEngine.LAZY_SMP;
+
+  /**
+   * ON_HEAP is the table storage that keeps the transposition tables in arrays on the Java heap.
+   */
+  public static final int ON_HEAP = TranspositionTable.ON_HEAP;
+
+  /**
+   * OFF_HEAP is the table storage that keeps the transposition tables in direct buffers outside of the Java heap.
+   */
+  public static final int OFF_HEAP = TranspositionTable.OFF_HEAP;
+
+  /**
+   * FULL_WINDOW is the driver that searches every depth with the widest alpha-beta window.
+   */
+  public static final int FULL_WINDOW = NegamaxEngine.FULL_WINDOW;
+
+  /**
+   * ASPIRATION is the driver that searches each depth with a narrow window around the score of the depth before it.
+   */
+  public static final int ASPIRATION = NegamaxEngine.ASPIRATION;
+
+  /**
+   * MTDF is the driver that finds the score of each depth with a series of null window searches.
+   */
+  public static final int MTDF = NegamaxEngine.MTDF;
+
+  /**
+   * CELL_WEIGHTS is the evaluation that adds up how many windows of four go through each token.
+   */
+  public static final int CELL_WEIGHTS = NegamaxEngine.CELL_WEIGHTS;
+
+  /**
+   * LINE_COUNTS is the evaluation that only counts the windows of four a player can still win in.
+   */
+  public static final int LINE_COUNTS = NegamaxEngine.LINE_COUNTS;
+
+  /**
+   * PERFECT_TIME_LIMIT is how many milliseconds perfect play tries to solve a position for when no time limit is set.
+   */
+  public static final long PERFECT_TIME_LIMIT = 5000;
+
+  /**
+   * SOLVER_TABLE_SIZE is the size in megabytes of the transposition table used for perfect play.
+   */
+  private static final int SOLVER_TABLE_SIZE = 64;
+
+  /**
+   * CENTER_ORDER stores the columns from the middle out, the order the user's columns are pondered in after the expected one.
+   */
+  private static final int[] CENTER_ORDER = {3, 2, 4, 1, 5, 0, 6};
+
+  /**
+   * engine stores the NegamaxEngine that does the search.
+   */
+  private NegamaxEngine engine;
+
+  /**
+   * timeLimit stores how many milliseconds each call of aiMove can search for, 0 for no limit.
+   */
+  private long timeLimit;
+
+  /**
+   * nodeLimit stores how many positions each call of aiMove can visit, 0 for no limit.
+   */
+  private long nodeLimit;
+
+  /**
+   * tableSize stores the size in megabytes of the transposition table, 0 to search without one.
+   */
+  private int tableSize = 16;
+
+  /**
+   * tableStorage stores where the entries of the transposition tables are kept (ON_HEAP or OFF_HEAP).
+   */
+  private int tableStorage = ON_HEAP;
+
+  /**
+   * table stores the positions already searched during the current game so they don't have to be searched again.
+   *
+   * <p>The table is created the first time it is needed and emptied by newGame or a change of a setting its scores depend on.
+   * Its entries are true for a position however it was reached, and the best column kept with each one keeps the principal
+   * variation of the last search, so the search after the user's reply starts with the part of the tree it already searched.
+   */
+  private TranspositionTable table;
+
+  /**
+   * gameOrdering stores the killer moves and history scores of the last search of the current game, which the next search starts
+   * from.
+   */
+  private final MoveOrdering gameOrdering = new MoveOrdering();
+
+  /**
+   * lastMoveCount stores the number of moves played before the last search of the current game, or -1 if there has been none.
+   */
+  private int lastMoveCount = -1;
+
+  /**
+   * lastResult stores the result of the last search, or null if aiMove did not need to search.
+   */
+  private SearchResult lastResult;
+
+  /**
+   * searchLimits stores the limits of the search aiMove is running, or null if it is not searching, so stopSearch can stop it
+   * from another thread. A stop that comes before the search has its limits is caught by stopRequested.
+   */
+  private volatile SearchLimits searchLimits;
+
+  /**
+   * stopRequested stores whether or not stopSearch has been called since clearStop was last called, which stops the search
+   * straight away when it starts and stops pondering.
+   */
+  private volatile boolean stopRequested;
+
+  /**
+   * pondering stores whether or not the searches running are pondering the user's columns instead of choosing a move.
+   */
+  private boolean pondering;
+
+  /**
+   * perfectPlay stores whether or not the computer solves positions instead of searching to maxDepth.
+   */
+  private boolean perfectPlay;
+
+  /**
+   * solver stores the Solver used for perfect play.
+   */
+  private final Solver solver = new Solver();
+
+  /**
+   * solverTable stores the bounds found by the solver.
    *
-   * <p>This static board is used to evaluate the human or computer player's current "score" or
-   * how likely they are to win given the current configuration of the game board.
+   * <p>A bound from the solver is true however the position was reached, so the table is kept for the whole game instead of
+   * being emptied before every search.
+   */
+  private TranspositionTable solverTable;
+
+  /**
+   * tableFile stores the snapshot file the solver's table is loaded from when it is created and saved to by saveTables, or null
+   * to keep it for this run only.
+   */
+  private Path tableFile;
+
+  /**
+   * book stores the opening book the computer plays from at the start of the game, or null to always search.
+   */
+  private OpeningBook book;
+
+  /**
+   * tablebase stores the tablebase the computer plays from near the end of the game, or null to always search.
    */
-  private static int[][] evaluationBoard = {{3,4,5,7,5,4,3},
-                                            {4,6,8,10,8,6,4},
-                                            {5,8,11,13,11,8,5},
-                                            {5,8,11,13,11,8,5},
-                                            {4,6,8,10,8,6,4},
-                                            {3,4,5,7,5,4,3}};
+  private Tablebase tablebase;
 
   /**
    * Default constructor for the ComputerPlayer class.
    */
   public ComputerPlayer() {
 
-    setMaxDepth(3);
-    setBestCol(4);
+    this(3);
   }
 
   /**
@@ -58,6 +233,18 @@ public class ComputerPlayer extends GameConfig {
    */
   public ComputerPlayer(int maxDepth) {
 
+    this(maxDepth, new NegamaxEngine());
+  }
+
+  /**
+   * Constructor for the ComputerPlayer that takes the maximum depth and the engine to search with, so one engine can be shared.
+   *
+   * @param maxDepth The value the user chooses for the computer player difficulty.
+   * @param engine The NegamaxEngine that does the search.
+   */
+  public ComputerPlayer(int maxDepth, NegamaxEngine engine) {
+
+    this.engine = engine;
     setMaxDepth(maxDepth);
     setBestCol(4);
   }
@@ -82,15 +269,562 @@ public class ComputerPlayer extends GameConfig {
     return bestCol;
   }
 
+  /**
+   * getEngine retrieves the NegamaxEngine that does the search.
+   *
+   * @return engine The engine of this ComputerPlayer.
+   */
+  public NegamaxEngine getEngine() {
+
+    return engine;
+  }
+
+  /**
+   * getAlphaBeta retrieves whether or not the negamax method uses alpha-beta pruning.
+   *
+   * @return alphaBeta Whether or not pruning is used.
+   */
+  public boolean getAlphaBeta() {
+
+    return engine.getAlphaBeta();
+  }
+
+  /**
+   * setAlphaBeta sets whether or not the negamax method uses alpha-beta pruning.
+   *
+   * <p>The best move is the same either way, turning pruning off only makes the search visit every position.
+   *
+   * @param alphaBeta Whether or not pruning should be used.
+   */
+  public void setAlphaBeta(boolean alphaBeta) {
+
+    engine.setAlphaBeta(alphaBeta);
+  }
+
+  /**
+   * getNodeCount retrieves how many positions were visited by the search during the last call of aiMove.
+   *
+   * @return nodeCount The number of positions visited.
+   */
+  public long getNodeCount() {
+
+    return lastResult == null ? 0 : lastResult.getNodeCount();
+  }
+
+  /**
+   * getTimeLimit retrieves how many milliseconds each call of aiMove can search for.
+   *
+   * @return timeLimit The time limit in milliseconds, 0 if there is no limit.
+   */
+  public long getTimeLimit() {
+
+    return timeLimit;
+  }
+
+  /**
+   * setTimeLimit sets how many milliseconds each call of aiMove can search for.
+   *
+   * <p>The search still stops at maxDepth, so to let the time limit alone set the difficulty maxDepth should be set to 42.
+   * The first depth is always finished so there is always a column to play.
+   *
+   * @param timeLimit The time limit in milliseconds, 0 for no limit.
+   */
+  public void setTimeLimit(long timeLimit) {
+
+    if (timeLimit >= 0) {
+
+      this.timeLimit = timeLimit;
+    }
+  }
+
+  /**
+   * getNodeLimit retrieves how many positions each call of aiMove can visit.
+   *
+   * @return nodeLimit The node limit, 0 if there is no limit.
+   */
+  public long getNodeLimit() {
+
+    return nodeLimit;
+  }
+
+  /**
+   * setNodeLimit sets how many positions each call of aiMove can visit.
+   *
+   * <p>Unlike a time limit, a node limit makes the computer play the same way on a fast or slow machine.
+   *
+   * @param nodeLimit The node limit, 0 for no limit.
+   */
+  public void setNodeLimit(long nodeLimit) {
+
+    if (nodeLimit >= 0) {
+
+      this.nodeLimit = nodeLimit;
+    }
+  }
+
+  /**
+   * getSearchDepth retrieves the depth of the deepest search that finished during the last call of aiMove.
+   *
+   * @return searchDepth The depth searched to, 0 if aiMove did not need to search.
+   */
+  public int getSearchDepth() {
+
+    return lastResult == null ? 0 : lastResult.getDepth();
+  }
+
+  /**
+   * getThreads retrieves how many threads the search uses.
+   *
+   * @return threads The number of threads.
+   */
+  public int getThreads() {
+
+    return engine.getThreads();
+  }
+
+  /**
+   * setThreads sets how many threads the search uses.
+   *
+   * @param threads The number of threads, from 1 up to the number of processors or more.
+   */
+  public void setThreads(int threads) {
+
+    engine.setThreads(threads);
+  }
+
+  /**
+   * getParallelMode retrieves how the search is split between threads.
+   *
+   * @return parallelMode ROOT_SPLIT or LAZY_SMP.
+   */
+  public int getParallelMode() {
+
+    return engine.getParallelMode();
+  }
+
+  /**
+   * setParallelMode sets how the search is split between threads when it uses more than one.
+   *
+   * @param parallelMode ROOT_SPLIT or LAZY_SMP.
+   */
+  public void setParallelMode(int parallelMode) {
+
+    engine.setParallelMode(parallelMode);
+  }
+
+  /**
+   * getYoungBrothersWait retrieves whether or not columns below the root are split between the threads.
+   *
+   * @return youngBrothersWait Whether or not young brothers wait is used.
+   */
+  public boolean getYoungBrothersWait() {
+
+    return engine.getYoungBrothersWait();
+  }
+
+  /**
+   * setYoungBrothersWait sets whether or not columns below the root are split between the threads.
+   *
+   * @param youngBrothersWait Whether or not young brothers wait should be used.
+   */
+  public void setYoungBrothersWait(boolean youngBrothersWait) {
+
+    engine.setYoungBrothersWait(youngBrothersWait);
+  }
+
+  /**
+   * getThreatExtensions retrieves whether or not the search extends forced blocks and looks for forced wins at its end.
+   *
+   * @return threatExtensions Whether or not threat extensions are used.
+   */
+  public boolean getThreatExtensions() {
+
+    return engine.getThreatExtensions();
+  }
+
+  /**
+   * setThreatExtensions sets whether or not the search extends forced blocks and looks for forced wins at its end. The search's
+   * tables are started over if it changes, like setEvaluation.
+   *
+   * @param threatExtensions Whether or not threat extensions should be used.
+   */
+  public void setThreatExtensions(boolean threatExtensions) {
+
+    boolean old = engine.getThreatExtensions();
+    engine.setThreatExtensions(threatExtensions);
+    if (engine.getThreatExtensions() != old) {
+
+      newGame();
+    }
+  }
+
+  /**
+   * getReductions retrieves how many moves less deep each column of a position is searched, by its place in the move ordering.
+   *
+   * @return A copy of the reduction of each place, all 0 when late moves are not reduced.
+   */
+  public int[] getReductions() {
+
+    return engine.getReductions();
+  }
+
+  /**
+   * setReductions sets how many moves less deep each column of a position is searched, by its place in the move ordering, so
+   * the computer can search deeper in the same time. The search's tables are started over if it changes, like setEvaluation.
+   *
+   * @param reductions The reduction of each of the 7 places, none below 0.
+   */
+  public void setReductions(int[] reductions) {
+
+    int[] old = engine.getReductions();
+    engine.setReductions(reductions);
+    if (!Arrays.equals(old, engine.getReductions())) {
+
+      newGame();
+    }
+  }
+
+  /**
+   * getDriver retrieves how the window of each depth of the search is chosen.
+   *
+   * @return driver FULL_WINDOW, ASPIRATION or MTDF.
+   */
+  public int getDriver() {
+
+    return engine.getDriver();
+  }
+
+  /**
+   * setDriver sets how the window of each depth of the search is chosen. The search's tables are started over if it changes,
+   * like setEvaluation.
+   *
+   * @param driver FULL_WINDOW, ASPIRATION or MTDF.
+   */
+  public void setDriver(int driver) {
+
+    int old = engine.getDriver();
+    engine.setDriver(driver);
+    if (engine.getDriver() != old) {
+
+      newGame();
+    }
+  }
+
+  /**
+   * getDrawDetection retrieves whether or not positions neither player can win any more are scored as draws.
+   *
+   * @return drawDetection Whether or not draw detection is used.
+   */
+  public boolean getDrawDetection() {
+
+    return engine.getDrawDetection();
+  }
+
+  /**
+   * setDrawDetection sets whether or not positions neither player can win any more are scored as draws without searching them.
+   * The search's tables are started over if it changes, like setEvaluation.
+   *
+   * @param drawDetection Whether or not draw detection should be used.
+   */
+  public void setDrawDetection(boolean drawDetection) {
+
+    boolean old = engine.getDrawDetection();
+    engine.setDrawDetection(drawDetection);
+    if (engine.getDrawDetection() != old) {
+
+      newGame();
+    }
+  }
+
+  /**
+   * getEvaluation retrieves how positions are scored at the end of the search.
+   *
+   * @return evaluation CELL_WEIGHTS or LINE_COUNTS.
+   */
+  public int getEvaluation() {
+
+    return engine.getEvaluation();
+  }
+
+  /**
+   * setEvaluation sets how positions are scored at the end of the search.
+   *
+   * <p>The transposition table and the killer moves and history scores are kept for the whole game, so if the evaluation changes
+   * they are started over with newGame, since the scores in them were found with the old evaluation.
+   *
+   * @param evaluation CELL_WEIGHTS or LINE_COUNTS.
+   */
+  public void setEvaluation(int evaluation) {
+
+    int old = engine.getEvaluation();
+    engine.setEvaluation(evaluation);
+    if (engine.getEvaluation() != old) {
+
+      newGame();
+    }
+  }
+
+  /**
+   * getSearchTime retrieves how long the search took during the last call of aiMove.
+   *
+   * @return The time in milliseconds.
+   */
+  public long getSearchTime() {
+
+    return lastResult == null ? 0 : lastResult.getSearchTime();
+  }
+
+  /**
+   * getNodesPerSecond retrieves how many positions per second every thread together visited during the last call of aiMove.
+   *
+   * @return The number of positions visited per second, 0 if aiMove did not need to search.
+   */
+  public long getNodesPerSecond() {
+
+    return lastResult == null ? 0 : lastResult.getNodesPerSecond();
+  }
+
+  /**
+   * getLastResult retrieves the result of the search during the last call of aiMove.
+   *
+   * @return lastResult The result of the last search, or null if aiMove did not need to search.
+   */
+  public SearchResult getLastResult() {
+
+    return lastResult;
+  }
+
+  /**
+   * getTableSize retrieves the size of the transposition table in megabytes.
+   *
+   * @return tableSize The amount of memory the transposition table can use, 0 if there is no table.
+   */
+  public int getTableSize() {
+
+    return tableSize;
+  }
+
+  /**
+   * setTableSize sets the size of the transposition table in megabytes, so the memory used by each ComputerPlayer can be budgeted.
+   *
+   * @param tableSize The amount of memory the transposition table can use, 0 to search without a table.
+   */
+  public void setTableSize(int tableSize) {
+
+    if (tableSize >= 0 && tableSize != this.tableSize) {
+
+      this.tableSize = tableSize;
+      table = null;
+    }
+  }
+
+  /**
+   * getTableStorage retrieves where the entries of the transposition tables are kept.
+   *
+   * @return tableStorage ON_HEAP or OFF_HEAP.
+   */
+  public int getTableStorage() {
+
+    return tableStorage;
+  }
+
+  /**
+   * setTableStorage sets where the entries of the transposition tables are kept, so a large table can be kept off the heap
+   * without making the heap bigger. The tables are created again with the new storage the next time they are needed.
+   *
+   * @param tableStorage ON_HEAP or OFF_HEAP.
+   */
+  public void setTableStorage(int tableStorage) {
+
+    if ((tableStorage == ON_HEAP || tableStorage == OFF_HEAP) && tableStorage != this.tableStorage) {
+
+      this.tableStorage = tableStorage;
+      table = null;
+      solverTable = null;
+    }
+  }
+
+  /**
+   * newGame forgets everything the searches of the last game found: the transposition table, the killer moves and history scores
+   * and the principal variation kept in the table. The solver's table is kept, since its bounds are true in any game.
+   */
+  public void newGame() {
+
+    if (table != null) {
+
+      table.clear();
+    }
+    gameOrdering.clear();
+    lastMoveCount = -1;
+  }
+
+  /**
+   * stopSearch tells the search aiMove is running on another thread to stop, aiMove then returns the best column of the deepest
+   * search that finished straight away. Searches and pondering that haven't started yet are stopped as well, until clearStop is
+   * called.
+   */
+  public void stopSearch() {
+
+    stopRequested = true;
+    SearchLimits limits = searchLimits;
+    if (limits != null) {
+
+      limits.stop();
+    }
+  }
+
+  /**
+   * clearStop lets aiMove and ponder search again after stopSearch. A game calls it when it asks for a move, on the thread that
+   * searches and before checking the move is still wanted, so a stopSearch that comes after it is never lost.
+   */
+  public void clearStop() {
+
+    stopRequested = false;
+  }
+
+  /**
+   * getTableFile retrieves the snapshot file the solver's table is loaded from and saved to.
+   *
+   * @return tableFile The snapshot file, or null if there is none.
+   */
+  public Path getTableFile() {
+
+    return tableFile;
+  }
+
+  /**
+   * setTableFile sets the snapshot file the solver's table is loaded from when it is created and saved to by saveTables, so
+   * perfect play starts with every position solved in earlier runs.
+   *
+   * <p>Only the solver's table is kept between runs. Its bounds are true however a position was reached, while the scores in the
+   * search's table depend on the depth and evaluation, so they are only kept until newGame or a change of either.
+   *
+   * @param tableFile The snapshot file, or null to keep the table for this run only.
+   */
+  public void setTableFile(Path tableFile) {
+
+    this.tableFile = tableFile;
+  }
+
+  /**
+   * saveTables saves the solver's table to the snapshot file, if there is a snapshot file and the solver has been used.
+   *
+   * @throws IOException If the snapshot file can't be written.
+   */
+  public void saveTables() throws IOException {
+
+    if (tableFile != null && solverTable != null) {
+
+      solverTable.save(tableFile);
+    }
+  }
+
+  /**
+   * getTable retrieves the transposition table, creating it if it has not been created yet.
+   *
+   * @return table The transposition table, or null if the table size is 0.
+   */
+  public TranspositionTable getTable() {
+
+    if (table == null && tableSize > 0) {
+
+      table = new TranspositionTable(tableSize, tableStorage);
+    }
+
+    return table;
+  }
+
+  /**
+   * getMoveOrdering retrieves the MoveOrdering used by the search, so its heuristics can be turned on or off.
+   *
+   * @return ordering The MoveOrdering of the search.
+   */
+  public MoveOrdering getMoveOrdering() {
+
+    return engine.getMoveOrdering();
+  }
+
+  /**
+   * getPerfectPlay retrieves whether or not the computer solves positions instead of searching to maxDepth.
+   *
+   * @return perfectPlay Whether or not perfect play is used.
+   */
+  public boolean getPerfectPlay() {
+
+    return perfectPlay;
+  }
+
+  /**
+   * setPerfectPlay sets whether or not the computer solves positions instead of searching to maxDepth, the hardest difficulty.
+   *
+   * @param perfectPlay Whether or not perfect play should be used.
+   */
+  public void setPerfectPlay(boolean perfectPlay) {
+
+    this.perfectPlay = perfectPlay;
+  }
+
+  /**
+   * getOpeningBook retrieves the opening book the computer plays from at the start of the game.
+   *
+   * @return book The opening book, or null if there is none.
+   */
+  public OpeningBook getOpeningBook() {
+
+    return book;
+  }
+
+  /**
+   * setOpeningBook sets the opening book the computer plays from at the start of the game, such as OpeningBook.loadDefault().
+   *
+   * @param book The opening book, or null to always search.
+   */
+  public void setOpeningBook(OpeningBook book) {
+
+    this.book = book;
+  }
+
+  /**
+   * getTablebase retrieves the tablebase the computer plays from near the end of the game.
+   *
+   * @return tablebase The tablebase, or null if there is none.
+   */
+  public Tablebase getTablebase() {
+
+    return tablebase;
+  }
+
+  /**
+   * setTablebase sets the tablebase the computer plays from near the end of the game, such as Tablebase.loadDefault().
+   *
+   * @param tablebase The tablebase, or null to always search.
+   */
+  public void setTablebase(Tablebase tablebase) {
+
+    this.tablebase = tablebase;
+  }
+
+  /**
+   * getSolver retrieves the Solver used for perfect play.
+   *
+   * @return solver The Solver of this ComputerPlayer.
+   */
+  public Solver getSolver() {
+
+    return solver;
+  }
+
   /**
    * setMaxDepth sets the depth at which the negamax algorithm will begin at to look for the best move.
    *
-   * <p>Each time the negamax algorithm is called, it reduces the depth by 1 until it reaches 0 (the terminal node).
+   * <p>Each time the negamax algorithm is called, it reduces the depth by 1 until it reaches 0 (the terminal node). Choosing a
+   * depth turns perfect play off. The search's tables are started over if it changes, like setEvaluation.
    *
    * @param maxDepth The maximum amount of times the computer will recursively call the negamax algorithm.
    */
   public void setMaxDepth(int maxDepth) {
 
+    int old = this.maxDepth;
     if (maxDepth > 0) {
 
       this.maxDepth = maxDepth;
@@ -98,6 +832,11 @@ public class ComputerPlayer extends GameConfig {
 
       this.maxDepth = 1;
     }
+    perfectPlay = false;
+    if (this.maxDepth != old) {
+
+      newGame();
+    }
   }
 
   /**
@@ -116,7 +855,7 @@ public class ComputerPlayer extends GameConfig {
   /**
    * aiMove analyzes the current game configuration and determines the best possible column for the computer to play.
    *
-   * <p>aiMove mianly uses a combination of a quick search for the computer to win this move, a quick search
+   * <p>aiMove mianly uses a combination of a quick check with Threats for the computer to win this move, a quick check
    * for the computer to block a user's next move that would have won, and a recursive negamax algorithm that seraches many
    * possible game configurations after different moves to find the best possible column for the computer to play right now.
    *
@@ -126,66 +865,76 @@ public class ComputerPlayer extends GameConfig {
    */
   public int aiMove(GameConfig gameConfig) {
 
-    /* Counts the amount of times the user player has played.
-    Used to help avoid a bad opening from the computer player. */
-    int count = 0;
-    for (int r = 0; r < 6; r ++) {
-      for (int c = 0; c < 7; c ++) {
-        if (gameConfig.getBoard()[r][c] == 1) {
-          count ++;
-        }
+    lastResult = null;
+
+    /* Plays the book's column straight away while the game is still in the opening book. */
+    if (book != null) {
+
+      int bookCol = book.getColumn(gameConfig.getPosition(), 2);
+      if (bookCol >= 0 && !gameConfig.fullColumn(bookCol)) {
+
+        setBestCol(bookCol);
+        return getBestCol();
       }
     }
 
-    /*By the nature of the evaluation board, sometimes at the beginning of the game after playing the middle column, if the user
-    starts playing the bottom row to win, the computer values the second row from the bottom more than blocking a potential future winning play by
-    the user. This alleviates the issue by playing a move or two ahead of the user. */
-		if (count == 0 || count == 1) {
-        return 3;
-		} else {
-			if (gameConfig.getBoard()[5][3] == 1 && gameConfig.getBoard()[5][4] == 1 && gameConfig.getBoard()[5][5] == 0) {
-				return 5;
-			} else if (gameConfig.getBoard()[5][3] == 1 && gameConfig.getBoard()[5][2] == 1 && gameConfig.getBoard()[5][1] == 0) {
-				return 1;
-			} else if (gameConfig.getBoard()[5][3] == 1 && gameConfig.getBoard()[5][5] == 1 && gameConfig.getBoard()[5][4] == 0) {
-				return 4;
-			} else if (gameConfig.getBoard()[5][3] == 1 && gameConfig.getBoard()[5][1] == 1 && gameConfig.getBoard()[5][2] == 0) {
-				return 2;
-			}
-		}
+    /* Plays the tablebase's column straight away once few enough spaces are left. */
+    if (tablebase != null) {
+
+      int tablebaseCol = tablebase.getColumn(gameConfig.getPosition(), 2);
+      if (tablebaseCol >= 0 && !gameConfig.fullColumn(tablebaseCol)) {
+
+        setBestCol(tablebaseCol);
+        return getBestCol();
+      }
+    }
+
+    if (perfectPlay) {
+
+      return perfectMove(gameConfig);
+    }
+
+    /* The search is given its own copy of the position. */
+    Bitboard position = new Bitboard(gameConfig.getPosition());
+    long tokens = position.getTokens(2);
+    long mask = position.getMask();
 
     /* Skips the negamax algorithm and plays the computer's winning move.
     Helps speed up computation at high max depth settings. */
-    for (int c = 0; c < 7; c ++) {
-      GameConfig win = new GameConfig(gameConfig);
-      if (!fullColumn(win.getBoard(),c)) {
-				makeMove(win.getBoard(), c, 2);
-        win.checkForWinner();
-        if (win.getWinner() == 2) {
-          return c;
-        }
-			}
+    long wins = Threats.winningMoves(tokens, mask);
+    if (wins != 0) {
+
+      setBestCol(Threats.columnOf(wins));
+      return getBestCol();
     }
 
     /* Skips the negamax algorithm and blocks a user's winning move.
     Helps speed up computation at high max depth settings. */
-    for (int c = 0; c < 7; c ++) {
-      GameConfig block = new GameConfig(gameConfig);
-      if (!fullColumn(block.getBoard(),c)) {
-				makeMove(block.getBoard(), c, 1);
-        block.checkForWinner();
-        if (block.getWinner() == 1) {
-          return c;
-        }
-			}
+    long blocks = Threats.forcedBlocks(tokens, mask);
+    if (blocks != 0) {
+
+      setBestCol(Threats.columnOf(blocks));
+      return getBestCol();
     }
 
     /* Initial call for the computer player's root node/curent configuration of the board seen by the user. */
-    negamax(gameConfig, getMaxDepth(), 1);
+    SearchLimits limits = new SearchLimits(getMaxDepth());
+    limits.setTimeLimit(timeLimit);
+    limits.setNodeLimit(nodeLimit);
+    limits.setTable(getTable());
+    limits.setOrdering(keepOrdering(position));
+    searchLimits = limits;
+    if (stopRequested) {
+
+      limits.stop();
+    }
+    lastResult = engine.search(position, 2, limits);
+    searchLimits = null;
+    setBestCol(lastResult.getColumn());
 
     /* Fall back method if the computer is trying to play a full column.
     This can sometimes occur at the end of the game with a high max depth setting. */
-    while ((fullColumn(gameConfig.getBoard(), getBestCol()))) {
+    while (gameConfig.fullColumn(getBestCol())) {
       Random rand = new Random();
       int randCol = rand.nextInt(7);
       setBestCol(randCol);
@@ -195,171 +944,181 @@ public class ComputerPlayer extends GameConfig {
   }
 
   /**
-   * getChildren facilitates the negamax algorithms ability to search "children" of the
-   * root node (the current game configuration).
-   *
-   * <p>getChildren takes in a game configuration and the current player as arguments
-   * in order to generate an ArrayList of new game configurations with all possible moves
-   * in each column for the specified player.
+   * ponder searches on the user's time, while the user chooses their column, so the computer's next move is found quicker.
    *
-   * @param gameConfig The root or current node of the game board to be further explored by the negamax algorithm.
-   * @param player The current player that the moves will be made for to generate children.
-   * @return children The ArrayList of all new game board configuration that were able to be made from the player moving.
-   */
-  private ArrayList<GameConfig> getChildren(GameConfig gameConfig, int player) {
-
-    ArrayList<GameConfig> children = new ArrayList<GameConfig>();
-
-    for(int c = 0; c < 7; c ++) {
-
-			if (!fullColumn(gameConfig.getBoard(), c)) {
-
-        GameConfig child = new GameConfig(gameConfig);
-        makeMove(child.getBoard(), c, player);
-        child.setColPlayed(c);
-				children.add(child);
-			}
-		}
-
-		return children;
-	}
-
-  /**
-   * negamax is a recursive algorithm that searches for the best possible column choice for the computer player by
-   * relying on the fact that the board value for the computer player is the negation of the value for the user.
+   * <p>Each column the user could play is searched the way aiMove would search the position it leads to, starting with the
+   * column the computer's last search expected the user to play and going from the middle out after it. What the searches find
+   * is kept in the transposition tables and killer and history tables, so when aiMove is called after the user plays a column
+   * that was pondered, its search finds the answers in the tables and returns almost straight away. A column that wasn't
+   * pondered yet is searched as normal.
    *
-   * <p>negamax when called for a player attempts to find a move that maximizes the negation of the value resulting from the
-   * particular move. Essentially, a game tree is created from a root node (the first call of negamax), and it works its way down from
-   * there comparing each player's best move until a certain depth is reached. It then returns back up the tree, comparing different branches
-   * to the best one its found so far, then setting the best column during this comparison. Eventually it gets back to the root node and
-   * sets the best column for the computer to play in order to maximize its chances of winning. A more thorough explanation of the algorithm
-   * can be found at this wikipedia page (https://en.wikipedia.org/wiki/Negamax).
+   * <p>Pondering runs until every column has been searched or stopSearch is called, so a game runs it on a thread of its own and
+   * stops it as soon as the user plays, then calls clearStop and aiMove. Only one of aiMove and ponder can run at a time. The
+   * result of the last aiMove is kept.
    *
-   * @param gameConfig The current configuration of the game (the root node).
-   * @param depth The current depth the recursive algorithm is searching at. The intialized depth is the maxDepth.
-   * @param color The current player the algorithm is searching for. Initalized for the computer player (color = 1).
-   * @return bestScore The score used to compare children of a game configuration against one another.
+   * @param gameConfig The current configuration of the game, with the user to move.
    */
-  private int negamax(GameConfig gameConfig, int depth, int color) {
+  public void ponder(GameConfig gameConfig) {
 
-    int player;
-    int bestScore;
+    Bitboard position = gameConfig.getPosition();
+    long userWins = Threats.winningMoves(position.getTokens(1), position.getMask());
+    SearchResult result = lastResult;
+    int col = getBestCol();
+    pondering = true;
 
-    /* Sets the initial best score depending on what player it is searching for.
-    276 is the total value of the evaluationBoard. */
-    if (color == 1) {
+    try {
 
-      player = 2;
-      bestScore = 276;
-    } else {
+      for (int reply : expectedReplies(position)) {
 
-      player = 1;
-      bestScore = -276;
-    }
-
-    gameConfig.checkForWinner();
+        if (stopRequested) {
 
-    /* If the terminal node is reached, the algorithm returns the heuristic value of the node (ie. the evaluation).
-    This is modified by the color (current player) for proper use in comparing values among the terminal node branches. */
-    if (depth == 0) {
+          break;
+        }
 
-      return color * evaluate(gameConfig.getBoard());
-    } else if (gameConfig.getWinner() != 0) {
+        /* Columns that are full or win the game for the user have nothing for the computer to search. */
+        if (!position.canPlay(reply) || (userWins & Bitboard.columnMask(reply)) != 0) {
 
-      /* If the computer is the winner of this node, it should immediately be set as the best possible move.
-      Thus why it returns the maximum value of an integer. */
-      if (gameConfig.getWinner() == 2) {
+          continue;
+        }
+        GameConfig next = new GameConfig(gameConfig);
+        next.makeMove(reply, 1);
+        aiMove(next);
+      }
+    } finally {
 
-        return Integer.MAX_VALUE;
+      pondering = false;
+      lastResult = result;
+      setBestCol(col);
+    }
+  }
 
-      /* If the user is the winner of this node, it should immediately be set as the worst possible move.
-      Thus why it returns the minimum value of an integer. */
-      } else if (gameConfig.getWinner() == 1) {
+  /**
+   * expectedReplies orders the user's columns for pondering, the column the transposition table has as the user's best first and
+   * the rest from the middle out.
+   *
+   * @param position The position, with the user to move.
+   * @return replies Every column, the expected one first.
+   */
+  private int[] expectedReplies(Bitboard position) {
 
-        return Integer.MIN_VALUE;
+    int expected = -1;
+    if (table != null) {
 
-      /* If the game ends up being a draw in this node, the value returned shoudl be 0 so it can be avoided if there is
-      a better possible move elsewhere. */
-      } else {
+      long entry = table.probe(NegamaxEngine.tableKey(position, 1));
+      if (entry != 0) {
 
-        return 0;
+        expected = TranspositionTable.bestColOf(entry);
       }
     }
 
-    ArrayList<GameConfig> children = new ArrayList<GameConfig>(getChildren(gameConfig, player));
-
-    /* If the current player the algorithm is searching for is the computer,
-    the next negamax call will be the negation of the value for the user. */
-    if (player == 2) {
+    int[] replies = CENTER_ORDER.clone();
+    for (int i = 0; expected >= 0 && i < replies.length; i ++) {
 
-      for (GameConfig child : children) {
+      if (replies[i] == expected) {
 
-        int value = -negamax(child, depth-1, -color);
+        System.arraycopy(replies, 0, replies, 1, i);
+        replies[0] = expected;
+        break;
+      }
+    }
 
-        if (value < bestScore) {
+    return replies;
+  }
 
-          setBestCol(child.getColPlayed());
-          bestScore = value;
-        }
-      }
-    /* If the current player the algorithm is searching for is the user,
-    the next negamax call will be the for the computer. */
-    } else {
+  /**
+   * keepOrdering gets the killer moves and history scores of the last search ready for a search of a new position in the game,
+   * halving the history scores so the new search's count for more.
+   *
+   * <p>A position with no more moves than the last one searched can't be from the same game, so newGame is called first.
+   *
+   * @param position The position about to be searched.
+   * @return gameOrdering The killer moves and history scores the search starts from.
+   */
+  private MoveOrdering keepOrdering(Bitboard position) {
 
-      for (GameConfig child : children) {
+    /* Pondered positions are a move ahead of the game, the move the game asks for next is the one that ages the history. */
+    if (pondering) {
 
-        int value = negamax(child, depth-1, color);
+      return gameOrdering;
+    }
+    int moves = position.getMoveCount();
+    if (lastMoveCount >= 0 && moves <= lastMoveCount) {
 
-        if (value > bestScore) {
+      newGame();
+    } else if (lastMoveCount >= 0) {
 
-          setBestCol(child.getColPlayed());
-          bestScore = value;
-        }
-      }
+      gameOrdering.age();
     }
+    lastMoveCount = moves;
 
-    return bestScore;
+    return gameOrdering;
   }
 
   /**
-   * evaluate uses the static evaluationBoard to determine a score for the current board state.
+   * perfectMove solves the current game configuration and returns a column that gets its score, used by aiMove for perfect play.
    *
-   * <p>evaluate will return a score above 138 if the current configuration of the tokens favour the computer,
-   * and will return a score below 138 if the current configuration favours the user. This is used in the negamax
-   * algorithm to determine if a certain node/child of the game configuration is better than another, allowing the
-   * computer to pick the column that led to the node/child.
+   * <p>If the position is not solved within the time limit (PERFECT_TIME_LIMIT if none is set), it is searched as deep as it can
+   * be in the time the solver left instead, so the whole move keeps to one time limit. A node limit is shared the same way.
    *
-   * @param board The current game configuration board the negamax algorithm is analyzing.
-   * @return score The value of the board for the called for, a combination of the midScore and calculated sum.
+   * @param gameConfig The current configuration of the game.
+   * @return bestCol The column for the computer to play.
    */
-  private int evaluate(int[][] board) {
+  private int perfectMove(GameConfig gameConfig) {
 
-    /* midscore is 138 since the total score of an empty board is 276. */
-    int midScore = 138;
-    int sum = 0;
+    Bitboard position = new Bitboard(gameConfig.getPosition());
+    long limit = timeLimit > 0 ? timeLimit : PERFECT_TIME_LIMIT;
 
-    /* Loops through the entire evaluationBoard. */
-    for (int r = 0; r < 6; r ++) {
-      for (int c = 0; c < 7; c ++) {
+    if (solverTable == null) {
 
-        /* Compares computer positions in the board being analyzed to that of the evaluationBoard.
-        Adds to the sum the evaluationBoard value if the computer occupies that space. */
-        if (board[r][c] == 2) {
+      solverTable = new TranspositionTable(SOLVER_TABLE_SIZE, tableStorage);
 
-          sum += evaluationBoard[r][c];
+      /* A snapshot that can't be read is ignored, the table starts empty instead. */
+      if (tableFile != null && Files.isReadable(tableFile)) {
 
-        /* Compares user positions in the board being analyzed to that of the evaluationBoard.
-        Subtracts from the sum the evaluationBoard value if the user occupies that space. */
-        } else if (board[r][c] == 1) {
+        try {
 
-          sum -= evaluationBoard[r][c];
+          solverTable.load(tableFile);
+        } catch (IOException e) {
+
+          solverTable.clear();
         }
       }
     }
+    SearchLimits limits = new SearchLimits(42);
+    limits.setTimeLimit(limit);
+    limits.setNodeLimit(nodeLimit);
+    limits.setTable(solverTable);
+    searchLimits = limits;
+    if (stopRequested) {
+
+      limits.stop();
+    }
+    lastResult = solver.search(position, 2, limits);
+
+    /* The solver ran out of time or was stopped, so the position is searched the normal way with no depth limit, which only
+    finishes its first depth if it was stopped. The search gets what is left of the limits, at least enough for its first
+    depth, which is never stopped by a limit. */
+    if (lastResult.getColumn() < 0) {
+
+      limits.setTimeLimit(Math.max(limit - lastResult.getSearchTime(), 1));
+      if (nodeLimit > 0) {
+
+        limits.setNodeLimit(Math.max(nodeLimit - lastResult.getNodeCount(), 1));
+      }
+      limits.setTable(getTable());
+      limits.setOrdering(keepOrdering(position));
+      lastResult = engine.search(position, 2, limits);
+    }
+    searchLimits = null;
+    setBestCol(lastResult.getColumn());
 
-    int score = midScore + sum;
+    while (gameConfig.fullColumn(getBestCol())) {
+      Random rand = new Random();
+      int randCol = rand.nextInt(7);
+      setBestCol(randCol);
+    }
 
-    return score;
+    return getBestCol();
   }
 
-}
\ No newline at end of file
+}
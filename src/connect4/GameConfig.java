@@ -6,8 +6,9 @@ import java.util.Arrays;
 /**
  * GameConfig contains the main logic for the Connect4 game and handles updating the board and displaying it to the user.
  *
- * <p>GameConfig creates a 2D array to hold values for freespaces, the first player, and the second player. It has a number of methods
- * to handle user and computer moves, the previously played column, who the winner is, and printing the board to the console.
+ * <p>GameConfig stores the position in a Bitboard and presents it as a 2D array of values for freespaces, the first player, and the
+ * second player. It has a number of methods to handle user and computer moves, the previously played column, who the winner is,
+ * and printing the board to the console.
  *
  * @author T02-1 - Tony Wong, Matthew Cox
  * @version 1.1
@@ -15,10 +16,28 @@ import java.util.Arrays;
 public class GameConfig {
 
   /**
-   * board stores the positions of the Connect4 players tokens in a 2D integer array.
+   * BOARD_SET is the checkedMoveCount of a board that was set, a value no move count can be one more than, so the whole board is
+   * checked for a winner next time.
+   */
+  private static final int BOARD_SET = Integer.MIN_VALUE;
+
+  /**
+   * position stores the Connect4 players tokens as a Bitboard, this is the real state of the game.
+   */
+  private Bitboard position;
+
+  /**
+   * board is a 2D integer array view of position that is only filled in when it is asked for with getBoard.
+   *
+   * <p>Copying a GameConfig only copies the position, so the view is created and filled the first time it is needed.
    */
   private int[][] board;
 
+  /**
+   * boardStale is true when board has not been filled in from position yet.
+   */
+  private boolean boardStale;
+
   /**
    * winner stores the value of the game's winner.
    *
@@ -37,6 +56,23 @@ public class GameConfig {
    */
   private int rowPlayed;
 
+  /**
+   * moveCount stores how many tokens have been played on the board, used to detect a draw without searching for empty spaces.
+   */
+  private int moveCount;
+
+  /**
+   * checkedMoveCount stores the moveCount the winner was last checked at, or BOARD_SET if the board was set since the last check.
+   *
+   * <p>When the winner was checked right before the last move, only the connections through the last move need to be checked.
+   */
+  private int checkedMoveCount;
+
+  /**
+   * validationMode makes checkForWinner always search the whole board, the way it did before the incremental check was added.
+   */
+  private boolean validationMode;
+
   /**
    * winCol is an ArrayList that stores all the winning connection's column positions (that are paired with winRow) to highlight
    * the winning connections in the GUI version of the game.
@@ -57,14 +93,11 @@ public class GameConfig {
     setWinner(0);
     setColPlayed(0);
     setRowPlayed(0);
-    board = new int[6][7];
-
-    for (int r = 0; r < 6; r ++) {
-      for (int c = 0; c < 7; c ++) {
-
-        board[r][c] = 0;
-      }
-    }
+    position = new Bitboard();
+    boardStale = true;
+    moveCount = 0;
+    checkedMoveCount = 0;
+    validationMode = false;
   }
 
   /**
@@ -76,23 +109,66 @@ public class GameConfig {
 
     setWinner(oldConfig.getWinner());
     setColPlayed(oldConfig.getColPlayed());
-    board = new int[6][7];
+    setRowPlayed(oldConfig.getRowPlayed());
+    position = new Bitboard(oldConfig.position);
+    boardStale = true;
+    moveCount = oldConfig.moveCount;
+    checkedMoveCount = oldConfig.checkedMoveCount;
+    validationMode = oldConfig.validationMode;
+  }
 
-    for (int r = 0; r < 6; r ++) {
-      for (int c = 0; c < 7; c ++) {
+  /**
+   * getPosition retrieves the Bitboard that stores the current position of the game.
+   *
+   * @return position The Bitboard of the current game configuration.
+   */
+  public Bitboard getPosition() {
 
-        board[r][c] = oldConfig.getBoard()[r][c];
-      }
-    }
+    return position;
+  }
+
+  /**
+   * getPositionKey retrieves the 64-bit Zobrist key of the current position, updated with every move made.
+   *
+   * <p>Positions with the same tokens have the same key no matter the order the moves were made in, so the key can be used to
+   * index positions in caches, opening books or saved games.
+   *
+   * @return The Zobrist key of the current position.
+   */
+  public long getPositionKey() {
+
+    return position.getZobristKey();
+  }
+
+  /**
+   * getCanonicalKey retrieves a key that is the same for the current position and its mirror image.
+   *
+   * @return The canonical Zobrist key of the current position.
+   */
+  public long getCanonicalKey() {
+
+    return position.getCanonicalKey();
   }
 
   /**
    * getBoard retrieves the current board stored in a GameConfig object.
    *
+   * <p>The returned array is a view of the position that is filled in the first time it is asked for.
+   *
    * @return board The state of the Connect4 game after a number of moves have occured.
    */
   public int[][] getBoard() {
 
+    if (boardStale) {
+
+      if (board == null) {
+
+        board = new int[6][7];
+      }
+      position.fillBoard(board);
+      boardStale = false;
+    }
+
     return board;
   }
 
@@ -103,12 +179,22 @@ public class GameConfig {
    */
   public void setBoard(int[][] board) {
 
+    if (this.board == null) {
+
+      this.board = new int[6][7];
+    }
+
     for (int r = 0; r < 6; r ++) {
       for (int c = 0; c < 7; c ++) {
 
         this.board[r][c] = board[r][c];
       }
     }
+
+    position.setBoard(this.board);
+    boardStale = false;
+    moveCount = position.getMoveCount();
+    checkedMoveCount = BOARD_SET;
   }
 
   /**
@@ -177,6 +263,39 @@ public class GameConfig {
     }
   }
 
+  /**
+   * getMoveCount retrieves how many tokens have been played on the board.
+   *
+   * @return moveCount The number of moves that have been made.
+   */
+  public int getMoveCount() {
+
+    return moveCount;
+  }
+
+  /**
+   * getValidationMode retrieves whether or not checkForWinner always searches the whole board.
+   *
+   * @return validationMode Whether or not the full board search is being used.
+   */
+  public boolean getValidationMode() {
+
+    return validationMode;
+  }
+
+  /**
+   * setValidationMode sets whether or not checkForWinner always searches the whole board.
+   *
+   * <p>The full board search is much slower, but it does not rely on the position or the last move at all,
+   * so it can be used to validate the faster checks.
+   *
+   * @param validationMode Whether or not the full board search should be used.
+   */
+  public void setValidationMode(boolean validationMode) {
+
+    this.validationMode = validationMode;
+  }
+
   /**
    * getWinner retrieves the current game state (0 ongoing, 1 player one win, 2 player two win, -1 draw).
    *
@@ -209,6 +328,12 @@ public class GameConfig {
    */
   public boolean fullColumn(int[][] board, int col) {
 
+    /* The board view of this GameConfig always matches the position, so the position can answer directly. */
+    if (board == this.board && !boardStale) {
+
+      return fullColumn(col);
+    }
+
     if (board[0][col] != 0) {
 
       return true;
@@ -218,11 +343,48 @@ public class GameConfig {
     }
   }
 
+  /**
+   * fullColumn determines if a column of this GameConfig's position is full or not.
+   *
+   * @param col The column being checked.
+   * @return true/false Whether or not the column is indeed full.
+   */
+  public boolean fullColumn(int col) {
+
+    return !position.canPlay(col);
+  }
+
+  /**
+   * makeMove updates the position to reflect a user or computer's desired move in constant time.
+   *
+   * <p>makeMove does nothing if the desired column is full, otherwise the token is placed in the
+   * appropriate row and the board view is updated if it has already been filled in.
+   *
+   * @param col The column that a user or the computer wants to play in.
+   * @param player The current player trying to make the move in the game.
+   */
+  public void makeMove(int col, int player) {
+
+    int row = position.makeMove(col, player);
+
+    if (row != -1) {
+
+      if (!boardStale) {
+
+        board[row][col] = player;
+      }
+      setColPlayed(col);
+      setRowPlayed(row);
+      moveCount ++;
+    }
+  }
+
   /**
    * makeMove updates the board to reflect a user or computer's desired move.
    *
    * <p>makeMove checks to see whether or not the desired column is full before
-   * placing the token in the appropriate row.
+   * placing the token in the appropriate row. If the board is this GameConfig's own board
+   * the move is made directly on the position.
    *
    * @param board The 2D array containing the state of a Connect4 game.
    * @param col The column that a user or the computer wants to play in.
@@ -230,6 +392,12 @@ public class GameConfig {
    */
   public void makeMove(int[][] board, int col, int player) {
 
+    if (board == this.board && !boardStale) {
+
+      makeMove(col, player);
+      return;
+    }
+
     if (!fullColumn(board, col)) {
 
       for (int r = 1; r < 6; r ++) {
@@ -258,6 +426,8 @@ public class GameConfig {
    */
   public void draw() {
 
+    int[][] board = getBoard();
+
     /* Easy viewing of each column and its associated number. */
     System.out.println("\n| 1 | 2 | 3 | 4 | 5 | 6 | 7 |");
     System.out.println();
@@ -294,11 +464,158 @@ public class GameConfig {
    * checkForWinner takes in the current game configuration as an argument and sets the winner
    * variable to 1 for the first player, 2 for the second player, 0 for an ongoing game,
    * or -1 for a draw.
+   *
+   * <p>If the winner was checked right before the last move was made, only the (at most 13) connections through the last
+   * move are checked, since no other connection could have changed. Otherwise the position is checked for four in a row with
+   * the Bitboard, and the board is only searched for the winning connection's positions when there actually is a winner.
+   * In validation mode the whole board is always searched.
    */
   public void checkForWinner() {
 
-    /* Variable to track if the winner was set yet. */
-    boolean winnerSet = false;
+    if (validationMode) {
+
+      checkWholeBoard();
+    } else if (checkedMoveCount == moveCount) {
+
+      /* The winner is already up to date with the current position. */
+      return;
+    } else if (checkedMoveCount == moveCount - 1) {
+
+      checkLastMove();
+    } else if (position.isWin(1) || position.isWin(2)) {
+
+      findWinningConnections();
+    } else if (moveCount < 42) {
+
+      /* Sets the winner to 0 (ongoing) if the board still has empty spaces. */
+      setWinner(0);
+    } else {
+
+      /* Sets the winner to -1 (draw) if the board is full and there is still no winner. */
+      setWinner(-1);
+    }
+
+    checkedMoveCount = moveCount;
+  }
+
+  /**
+   * checkLastMove checks only the connections through the last move for a winner, using the move count to detect a draw.
+   */
+  private void checkLastMove() {
+
+    /* A game that was already won stays won, only the player who just moved can have made a new connection. */
+    if (getWinner() == 1 || getWinner() == 2) {
+
+      return;
+    }
+
+    int player = position.getCell(getRowPlayed(), getColPlayed());
+
+    /* Checks the horizontal, vertical, ascending diagonal and descending diagonal connections through the last move. */
+    boolean won = checkLine(player, 0, 1);
+    won = checkLine(player, 1, 0) || won;
+    won = checkLine(player, -1, 1) || won;
+    won = checkLine(player, 1, 1) || won;
+
+    if (won) {
+
+      setWinner(player);
+    } else if (moveCount < 42) {
+
+      setWinner(0);
+    } else {
+
+      setWinner(-1);
+    }
+  }
+
+  /**
+   * checkLine counts the player's tokens in a line through the last move, storing the positions of every winning connection
+   * in that line in winRow and winCol.
+   *
+   * @param player The player who made the last move.
+   * @param rowStep The row direction of the line.
+   * @param colStep The column direction of the line.
+   * @return true/false Whether or not there is a winning connection in the line.
+   */
+  private boolean checkLine(int player, int rowStep, int colStep) {
+
+    /* Counts the player's tokens before and after the last move, a connection can't reach more than 3 spaces away. */
+    int before = 0;
+    while (before < 3 && samePlayer(player, getRowPlayed() - (before + 1) * rowStep, getColPlayed() - (before + 1) * colStep)) {
+      before ++;
+    }
+
+    int after = 0;
+    while (after < 3 && samePlayer(player, getRowPlayed() + (after + 1) * rowStep, getColPlayed() + (after + 1) * colStep)) {
+      after ++;
+    }
+
+    if (before + after + 1 < 4) {
+
+      return false;
+    }
+
+    /* Stores every winning connection of 4 through the last move. */
+    for (int start = -before; start + 3 <= after; start ++) {
+
+      int r = getRowPlayed() + start * rowStep;
+      int c = getColPlayed() + start * colStep;
+      winRow.addAll(Arrays.asList(r, r + rowStep, r + 2 * rowStep, r + 3 * rowStep));
+      winCol.addAll(Arrays.asList(c, c + colStep, c + 2 * colStep, c + 3 * colStep));
+    }
+
+    return true;
+  }
+
+  /**
+   * samePlayer checks if a space is on the board and has a token from the player.
+   *
+   * @param player The player being checked.
+   * @param row The row of the space.
+   * @param col The column of the space.
+   * @return true/false Whether or not the space belongs to the player.
+   */
+  private boolean samePlayer(int player, int row, int col) {
+
+    return row >= 0 && row < 6 && col >= 0 && col < 7 && position.getCell(row, col) == player;
+  }
+
+  /**
+   * checkWholeBoard searches every connection and every space of the board for a winner or a draw.
+   */
+  private void checkWholeBoard() {
+
+    int connections = winRow.size();
+    findWinningConnections();
+
+    if (winRow.size() == connections) {
+
+      /* Sets the winner to 0 (ongoing) if the board still has empty spaces, otherwise to -1 (draw). */
+      setWinner(-1);
+      int[][] board = getBoard();
+
+      for (int r = 0; r < 6; r ++) {
+        for (int c = 0; c < 7; c ++) {
+
+          if (board[r][c] == 0) {
+
+            setWinner(0);
+          }
+        }
+      }
+    }
+
+    checkedMoveCount = moveCount;
+  }
+
+  /**
+   * findWinningConnections searches every horizontal, vertical and diagonal connection of the board, setting the winner
+   * and storing the positions of each winning connection in winRow and winCol.
+   */
+  private void findWinningConnections() {
+
+    int[][] board = getBoard();
 
     /* Checks for a winner in a horizontal row. */
     for (int r = 0; r < 6; r ++) {
@@ -312,7 +629,6 @@ public class GameConfig {
           setWinner(board[r][c]);
           winRow.addAll(Arrays.asList(r, r, r, r));
           winCol.addAll(Arrays.asList(c, c+1, c+2, c+3));
-          winnerSet = true;
         }
       }
     }
@@ -330,7 +646,6 @@ public class GameConfig {
           setWinner(board[r][c]);
           winRow.addAll(Arrays.asList(r, r+1, r+2, r+3));
           winCol.addAll(Arrays.asList(c, c, c, c));
-          winnerSet = true;
         }
       }
     }
@@ -348,7 +663,6 @@ public class GameConfig {
           setWinner(board[r][c]);
           winRow.addAll(Arrays.asList(r, r-1, r-2, r-3));
           winCol.addAll(Arrays.asList(c, c+1, c+2, c+3));
-          winnerSet = true;
         }
       }
     }
@@ -365,38 +679,9 @@ public class GameConfig {
           setWinner(board[r][c]);
           winRow.addAll(Arrays.asList(r, r-1, r-2, r-3));
           winCol.addAll(Arrays.asList(c, c-1, c-2, c-3));
-          winnerSet = true;
         }
       }
     }
-
-    /* Sets the winner to 0 (ongoing) if the board still has empty spaces. */
-    if (winnerSet == false) {
-      for (int r = 0; r < 6; r ++) {
-        for (int c = 0; c < 7; c ++) {
-
-          if (board[r][c] == 0) {
-
-            setWinner(board[r][c]);
-            winnerSet = true;
-          }
-        }
-      }
-    }
-
-    /* Sets the winner to -1 (draw) if the board is full and there is still no winner. */
-    if (winnerSet == false) {
-      if (board[0][0] != 0 &&
-      board[0][1] != 0 &&
-      board[0][2] != 0 &&
-      board[0][3] != 0 &&
-      board[0][4] != 0 &&
-      board[0][5] != 0 &&
-      board[0][6] != 0) {
-
-        setWinner(-1);
-      }
-    }
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,324 @@
+package connect4;
+
+import java.util.Arrays;
+
+/**
+ * MoveOrdering decides the order the ComputerPlayer's search tries the columns of a position in.
+ *
+ * <p>Alpha-beta pruning skips the most positions when the best move is searched first, so the columns that are most likely to be
+ * best are put at the front. Each of the heuristics can be turned on or off:
+ * <ul>
+ * <li>center first, columns closer to the middle of the board are part of more connections and are usually better.</li>
+ * <li>table move, the best column the transposition table remembers for the position.</li>
+ * <li>killer moves, the last two columns that caused a cutoff at the same ply somewhere else in the tree.</li>
+ * <li>history, how often (weighted by depth) a player's token in each space has caused a cutoff.</li>
+ * </ul>
+ * The table move goes first, then killer moves, then columns by their history score, with center first breaking ties.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class MoveOrdering {
+
+  /**
+   * MAX_PLY is the number of plies killer moves are kept for, more than the 42 moves a game can last.
+   */
+  public static final int MAX_PLY = 64;
+
+  /**
+   * CENTER_RANK stores how close each column is to the middle of the board, the highest rank for the middle column.
+   */
+  private static final int[] CENTER_RANK = {1, 3, 5, 6, 4, 2, 0};
+
+  /**
+   * centerFirst stores whether or not columns closer to the middle are tried first.
+   */
+  private boolean centerFirst = true;
+
+  /**
+   * tableMove stores whether or not the best column from the transposition table is tried first.
+   */
+  private boolean tableMove = true;
+
+  /**
+   * killers stores whether or not killer moves are tried early.
+   */
+  private boolean killers = true;
+
+  /**
+   * history stores whether or not columns are ordered by their history score.
+   */
+  private boolean history = true;
+
+  /**
+   * killerMoves stores the last two columns that caused a cutoff at each ply, -1 if there is none.
+   */
+  private int[][] killerMoves = new int[MAX_PLY][2];
+
+  /**
+   * historyScores stores the history score of a token in each space for each player (index 0 for the first player).
+   */
+  private int[][] historyScores = new int[2][Bitboard.WIDTH * (Bitboard.HEIGHT + 1)];
+
+  /**
+   * moveScores stores the score of each move being ordered at each ply, so ordering never needs a new array.
+   */
+  private int[][] moveScores = new int[MAX_PLY][Bitboard.WIDTH];
+
+  /**
+   * Default constructor for MoveOrdering, all heuristics are turned on.
+   */
+  public MoveOrdering() {
+
+    clear();
+  }
+
+  /**
+   * Copy constructor for MoveOrdering, the new MoveOrdering uses the same heuristics and starts with the same killer moves and
+   * history scores.
+   *
+   * <p>Each thread of a parallel search orders its moves with its own copy.
+   *
+   * @param ordering The MoveOrdering to copy.
+   */
+  public MoveOrdering(MoveOrdering ordering) {
+
+    setCenterFirst(ordering.getCenterFirst());
+    setTableMove(ordering.getTableMove());
+    setKillers(ordering.getKillers());
+    setHistory(ordering.getHistory());
+    copyTables(ordering);
+  }
+
+  /**
+   * copyTables copies the killer moves and history scores of another MoveOrdering, keeping this one's heuristics.
+   *
+   * @param ordering The MoveOrdering to copy the killer moves and history scores of.
+   */
+  public void copyTables(MoveOrdering ordering) {
+
+    for (int ply = 0; ply < MAX_PLY; ply ++) {
+
+      killerMoves[ply][0] = ordering.killerMoves[ply][0];
+      killerMoves[ply][1] = ordering.killerMoves[ply][1];
+    }
+
+    historyScores[0] = ordering.historyScores[0].clone();
+    historyScores[1] = ordering.historyScores[1].clone();
+  }
+
+  /**
+   * age halves every history score after moves have been played, so the next search's cutoffs count for more than older ones.
+   * The killer moves are kept at the ply they were found at, they are only a guess at the move searched first and moving them
+   * toward the root by the moves played made the searches of a game visit more positions.
+   */
+  public void age() {
+
+    for (int[] scores : historyScores) {
+
+      for (int i = 0; i < scores.length; i ++) {
+
+        scores[i] >>= 1;
+      }
+    }
+  }
+
+  /**
+   * getCenterFirst retrieves whether or not columns closer to the middle are tried first.
+   *
+   * @return centerFirst Whether or not the center first heuristic is used.
+   */
+  public boolean getCenterFirst() {
+
+    return centerFirst;
+  }
+
+  /**
+   * setCenterFirst sets whether or not columns closer to the middle are tried first, if not columns go left to right.
+   *
+   * @param centerFirst Whether or not the center first heuristic should be used.
+   */
+  public void setCenterFirst(boolean centerFirst) {
+
+    this.centerFirst = centerFirst;
+  }
+
+  /**
+   * getTableMove retrieves whether or not the best column from the transposition table is tried first.
+   *
+   * @return tableMove Whether or not the table move heuristic is used.
+   */
+  public boolean getTableMove() {
+
+    return tableMove;
+  }
+
+  /**
+   * setTableMove sets whether or not the best column from the transposition table is tried first.
+   *
+   * @param tableMove Whether or not the table move heuristic should be used.
+   */
+  public void setTableMove(boolean tableMove) {
+
+    this.tableMove = tableMove;
+  }
+
+  /**
+   * getKillers retrieves whether or not killer moves are tried early.
+   *
+   * @return killers Whether or not the killer move heuristic is used.
+   */
+  public boolean getKillers() {
+
+    return killers;
+  }
+
+  /**
+   * setKillers sets whether or not killer moves are tried early.
+   *
+   * @param killers Whether or not the killer move heuristic should be used.
+   */
+  public void setKillers(boolean killers) {
+
+    this.killers = killers;
+  }
+
+  /**
+   * getHistory retrieves whether or not columns are ordered by their history score.
+   *
+   * @return history Whether or not the history heuristic is used.
+   */
+  public boolean getHistory() {
+
+    return history;
+  }
+
+  /**
+   * setHistory sets whether or not columns are ordered by their history score.
+   *
+   * @param history Whether or not the history heuristic should be used.
+   */
+  public void setHistory(boolean history) {
+
+    this.history = history;
+  }
+
+  /**
+   * clear forgets every killer move and history score.
+   */
+  public void clear() {
+
+    for (int ply = 0; ply < MAX_PLY; ply ++) {
+
+      killerMoves[ply][0] = -1;
+      killerMoves[ply][1] = -1;
+    }
+
+    Arrays.fill(historyScores[0], 0);
+    Arrays.fill(historyScores[1], 0);
+  }
+
+  /**
+   * orderMoves fills an array with the columns that can be played in a position, in the order they should be searched.
+   *
+   * @param position The position the moves are for.
+   * @param ply How many moves from the root of the search the position is.
+   * @param player The player to move (1 or 2).
+   * @param tableCol The best column from the transposition table, or -1 if there is none.
+   * @param moves The array the columns are written to, it needs room for 7 columns.
+   * @return count The number of columns written to the array.
+   */
+  public int orderMoves(Bitboard position, int ply, int player, int tableCol, int[] moves) {
+
+    int[] scores = moveScores[Math.min(ply, MAX_PLY - 1)];
+    long legal = position.legalMoves();
+    int count = 0;
+
+    for (int c = 0; c < Bitboard.WIDTH; c ++) {
+
+      long move = legal & Bitboard.columnMask(c);
+
+      if (move != 0) {
+
+        int score = 0;
+
+        if (centerFirst) {
+
+          score += CENTER_RANK[c];
+        }
+
+        if (history) {
+
+          score += historyScores[player - 1][Long.numberOfTrailingZeros(move)] << 3;
+        }
+
+        if (killers && ply < MAX_PLY) {
+
+          if (killerMoves[ply][0] == c) {
+
+            score += 1 << 28;
+          } else if (killerMoves[ply][1] == c) {
+
+            score += 1 << 27;
+          }
+        }
+
+        if (tableMove && tableCol == c) {
+
+          score += 1 << 29;
+        }
+
+        /* Insertion sort from the highest score to the lowest, a column keeps its place on a tie. */
+        int i = count;
+        while (i > 0 && scores[i - 1] < score) {
+
+          moves[i] = moves[i - 1];
+          scores[i] = scores[i - 1];
+          i --;
+        }
+        moves[i] = c;
+        scores[i] = score;
+        count ++;
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * cutoff records a column that caused a beta cutoff, making it a killer move for the ply and raising its history score.
+   *
+   * @param position The position the column was played in, before the move was made.
+   * @param ply How many moves from the root of the search the position is.
+   * @param player The player who played the column (1 or 2).
+   * @param col The column that caused the cutoff.
+   * @param depth The depth left to search in the position, deeper cutoffs count for more.
+   */
+  public void cutoff(Bitboard position, int ply, int player, int col, int depth) {
+
+    if (ply < MAX_PLY && killerMoves[ply][0] != col) {
+
+      killerMoves[ply][1] = killerMoves[ply][0];
+      killerMoves[ply][0] = col;
+    }
+
+    long move = position.legalMoves() & Bitboard.columnMask(col);
+
+    if (move != 0) {
+
+      int[] scores = historyScores[player - 1];
+      int bit = Long.numberOfTrailingZeros(move);
+      scores[bit] += depth * depth;
+
+      /* Halves every score of the player once one gets too large, so the scores never overflow. */
+      if (scores[bit] > (1 << 20)) {
+
+        for (int i = 0; i < scores.length; i ++) {
+
+          scores[i] >>= 1;
+        }
+      }
+    }
+  }
+
+}
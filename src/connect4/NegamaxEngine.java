@@ -0,0 +1,1529 @@
+package connect4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NegamaxEngine is a SearchEngine that chooses a column with a negamax search using alpha-beta pruning, a transposition table and
+ * move ordering.
+ *
+ * <p>The engine itself only stores settings: whether alpha-beta pruning is used, which move ordering heuristics are used, how many
+ * threads search and how the search is split between them. Everything that changes during a search is created by that search,
+ * so one engine can run any number of searches at the same time. The settings should be chosen before the engine is shared and
+ * not changed while a search is running.
+ *
+ * <p>The search deepens one move at a time up to the maximum depth when there is a time or node limit, playing the best column
+ * from the deepest search that finished. With more than one thread, either each column at the root is searched in its own task on
+ * a ForkJoinPool (optionally splitting deeper positions with young brothers wait), or helper threads search the whole position at
+ * the same time and share the transposition table (Lazy SMP).
+ *
+ * <p>Threats are checked before the moves of a position are searched. A player who can win straight away is scored as winning
+ * without searching, and with two moves or more left to search the moves that let the other player win straight away are left
+ * out, since none of them can score better than losing next move. Neither changes the score of a position. With threat
+ * extensions turned on, forced blocks are also searched deeper and the end of the search looks for wins forced by threats. With
+ * draw detection turned on, a position neither player can win any more is scored as a draw straight away.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class NegamaxEngine implements SearchEngine {
+
+  /**
+   * WIN_SCORE is the score of a won position, larger than any score from evaluate.
+   *
+   * <p>A win found with more depth left to search (a quicker win) scores higher, WIN_SCORE plus the depth left.
+   * These scores are far enough from the limits of an int that negating them can never overflow.
+   */
+  public static final int WIN_SCORE = 100000;
+
+  /**
+   * INFINITY is larger than any score the negamax method can return, used as the starting alpha-beta window.
+   */
+  private static final int INFINITY = 1000000;
+
+  /**
+   * ROOT_SPLIT is the parallel mode that searches each column at the root in its own task.
+   */
+  public static final int ROOT_SPLIT = 0;
+
+  /**
+   * LAZY_SMP is the parallel mode where helper threads search the whole position and share the transposition table.
+   */
+  public static final int LAZY_SMP = 1;
+
+  /**
+   * FULL_WINDOW is the driver that searches every depth with the widest alpha-beta window.
+   */
+  public static final int FULL_WINDOW = 0;
+
+  /**
+   * ASPIRATION is the driver that searches each depth with a narrow window around the score of the depth before it, searching
+   * again with a wider window if the score falls outside of it.
+   */
+  public static final int ASPIRATION = 1;
+
+  /**
+   * MTDF is the driver that finds the score of each depth with a series of null window searches, starting from the score of the
+   * depth before it (MTD(f)).
+   */
+  public static final int MTDF = 2;
+
+  /**
+   * ASPIRATION_WINDOW is how far either side of the last depth's score the first aspiration window reaches.
+   */
+  private static final int ASPIRATION_WINDOW = 32;
+
+  /**
+   * CELL_WEIGHTS is the evaluation that adds up how many windows of four go through each token, the Bitboard's cell score.
+   */
+  public static final int CELL_WEIGHTS = 0;
+
+  /**
+   * LINE_COUNTS is the evaluation that only counts the windows of four a player can still win in, weighted by how many of the
+   * player's tokens are in them, the Bitboard's line score.
+   */
+  public static final int LINE_COUNTS = 1;
+
+  /**
+   * CHECK_INTERVAL is how many positions are visited between checks of the clock, one less than a power of two.
+   */
+  private static final int CHECK_INTERVAL = 1023;
+
+  /**
+   * SPLIT_DEPTH is the least depth left to search that a position below the root is split between the threads at, shallower
+   * positions are searched too quickly for splitting to be worth it.
+   */
+  private static final int SPLIT_DEPTH = 6;
+
+  /**
+   * alphaBeta stores whether or not the negamax method prunes branches that can't change the best move.
+   */
+  private boolean alphaBeta = true;
+
+  /**
+   * ordering stores which move ordering heuristics are used, every search orders its moves with its own copy.
+   */
+  private MoveOrdering ordering = new MoveOrdering();
+
+  /**
+   * threads stores how many threads each search uses, 1 to search without the ForkJoinPool.
+   */
+  private int threads = 1;
+
+  /**
+   * parallelMode stores how a search is split between threads when it uses more than one (ROOT_SPLIT or LAZY_SMP).
+   */
+  private int parallelMode = ROOT_SPLIT;
+
+  /**
+   * youngBrothersWait stores whether or not columns below the root are split between the threads too.
+   */
+  private boolean youngBrothersWait;
+
+  /**
+   * THREAT_PLIES is the most moves the threat search at the end of the search looks ahead for a forced win.
+   */
+  private static final int THREAT_PLIES = 9;
+
+  /**
+   * threatExtensions stores whether or not forced blocks are searched one move deeper and the end of the search looks for wins
+   * forced by threats.
+   */
+  private boolean threatExtensions;
+
+  /**
+   * REDUCTION_DEPTH is the least depth left to search that a late move can be searched less deep at, so a reduced move is
+   * always searched at least one move deep.
+   */
+  private static final int REDUCTION_DEPTH = 3;
+
+  /**
+   * reductions stores how many moves less deep each column of a position is searched, by its place in the move ordering.
+   */
+  private int[] reductions = new int[Bitboard.WIDTH];
+
+  /**
+   * driver stores how the window of each depth of the search is chosen (FULL_WINDOW, ASPIRATION or MTDF).
+   */
+  private int driver = FULL_WINDOW;
+
+  /**
+   * drawDetection stores whether or not positions neither player can win any more are scored as draws without searching them.
+   */
+  private boolean drawDetection;
+
+  /**
+   * evaluation stores how positions are scored at the end of the search (CELL_WEIGHTS or LINE_COUNTS).
+   */
+  private int evaluation = CELL_WEIGHTS;
+
+  /**
+   * pool stores the ForkJoinPool the parallel searches run on, created the first time it is needed.
+   */
+  private ForkJoinPool pool;
+
+  /**
+   * getAlphaBeta retrieves whether or not the negamax method uses alpha-beta pruning.
+   *
+   * @return alphaBeta Whether or not pruning is used.
+   */
+  public boolean getAlphaBeta() {
+
+    return alphaBeta;
+  }
+
+  /**
+   * setAlphaBeta sets whether or not the negamax method uses alpha-beta pruning.
+   *
+   * <p>The best move is the same either way, turning pruning off only makes the search visit every position.
+   *
+   * @param alphaBeta Whether or not pruning should be used.
+   */
+  public void setAlphaBeta(boolean alphaBeta) {
+
+    this.alphaBeta = alphaBeta;
+  }
+
+  /**
+   * getMoveOrdering retrieves the MoveOrdering whose heuristics every search uses, so they can be turned on or off.
+   *
+   * @return ordering The MoveOrdering the searches copy.
+   */
+  public MoveOrdering getMoveOrdering() {
+
+    return ordering;
+  }
+
+  /**
+   * getThreads retrieves how many threads each search uses.
+   *
+   * @return threads The number of threads.
+   */
+  public int getThreads() {
+
+    return threads;
+  }
+
+  /**
+   * setThreads sets how many threads each search uses.
+   *
+   * @param threads The number of threads, from 1 up to the number of processors or more.
+   */
+  public synchronized void setThreads(int threads) {
+
+    if (threads > 0 && threads != this.threads) {
+
+      this.threads = threads;
+      if (pool != null) {
+
+        pool.shutdown();
+        pool = null;
+      }
+    }
+  }
+
+  /**
+   * getParallelMode retrieves how a search is split between threads.
+   *
+   * @return parallelMode ROOT_SPLIT or LAZY_SMP.
+   */
+  public int getParallelMode() {
+
+    return parallelMode;
+  }
+
+  /**
+   * setParallelMode sets how a search is split between threads when it uses more than one.
+   *
+   * <p>ROOT_SPLIT always chooses the same column as one thread. LAZY_SMP is simpler and keeps every thread busy, but the helper
+   * threads' deeper scores in the transposition table can change the column chosen, usually for a better one.
+   *
+   * @param parallelMode ROOT_SPLIT or LAZY_SMP.
+   */
+  public void setParallelMode(int parallelMode) {
+
+    if (parallelMode == ROOT_SPLIT || parallelMode == LAZY_SMP) {
+
+      this.parallelMode = parallelMode;
+    }
+  }
+
+  /**
+   * getYoungBrothersWait retrieves whether or not columns below the root are split between the threads.
+   *
+   * @return youngBrothersWait Whether or not young brothers wait is used.
+   */
+  public boolean getYoungBrothersWait() {
+
+    return youngBrothersWait;
+  }
+
+  /**
+   * setYoungBrothersWait sets whether or not columns below the root are split between the threads, if not only the columns at the
+   * root are searched at the same time.
+   *
+   * <p>The columns searched at the same time can't use each other's scores to prune, so splitting searches more positions in total
+   * and is only faster with enough processors to spare. It is only used with ROOT_SPLIT, and is off by default.
+   *
+   * @param youngBrothersWait Whether or not young brothers wait should be used.
+   */
+  public void setYoungBrothersWait(boolean youngBrothersWait) {
+
+    this.youngBrothersWait = youngBrothersWait;
+  }
+
+  /**
+   * getThreatExtensions retrieves whether or not the search extends forced blocks and looks for forced wins at its end.
+   *
+   * @return threatExtensions Whether or not threat extensions are used.
+   */
+  public boolean getThreatExtensions() {
+
+    return threatExtensions;
+  }
+
+  /**
+   * setThreatExtensions sets whether or not the search extends forced blocks and looks for forced wins at its end.
+   *
+   * <p>A forced block only has one move to search, so it is searched without using up any of the depth, up to twice the depth of
+   * the search. At the end of the search, instead of only evaluating the position, the threat search of Threats.forcedWin looks a
+   * few moves further for a win made of threats that have to be blocked, and for a double threat against the player to move. The
+   * search then sees double threats and odd and even threat sequences just past its depth, for a few more positions visited.
+   *
+   * @param threatExtensions Whether or not threat extensions should be used.
+   */
+  public void setThreatExtensions(boolean threatExtensions) {
+
+    this.threatExtensions = threatExtensions;
+  }
+
+  /**
+   * getReductions retrieves how many moves less deep each column of a position is searched, by its place in the move ordering.
+   *
+   * @return A copy of the reduction of each place, all 0 when late moves are not reduced.
+   */
+  public int[] getReductions() {
+
+    return reductions.clone();
+  }
+
+  /**
+   * setReductions sets how many moves less deep each column of a position is searched, by its place in the move ordering.
+   *
+   * <p>Columns ordered late are rarely the best, so they can be searched less deep with a null window to check they don't beat the
+   * best column so far. One that does is searched again at the full depth with the full window. Moves that make a new threat are
+   * never reduced, nor are positions where the player has to block or with less than REDUCTION_DEPTH left to search, and a
+   * reduced move is always searched at least one move deep. The columns young brothers wait splits between the threads are
+   * reduced the same way. A schedule with a reduction bigger than 0 for one of the first columns is allowed but makes the search
+   * miss a lot more.
+   *
+   * @param reductions The reduction of each of the 7 places, none below 0.
+   */
+  public void setReductions(int[] reductions) {
+
+    if (reductions != null && reductions.length == Bitboard.WIDTH) {
+
+      for (int reduction : reductions) {
+
+        if (reduction < 0) {
+
+          return;
+        }
+      }
+      this.reductions = reductions.clone();
+    }
+  }
+
+  /**
+   * getDriver retrieves how the window of each depth of the search is chosen.
+   *
+   * @return driver FULL_WINDOW, ASPIRATION or MTDF.
+   */
+  public int getDriver() {
+
+    return driver;
+  }
+
+  /**
+   * setDriver sets how the window of each depth of the search is chosen.
+   *
+   * <p>FULL_WINDOW only searches the maximum depth, unless there is a time or node limit. ASPIRATION and MTDF always search
+   * every depth from 1, since each depth starts from the score of the one before. ASPIRATION searches with a window of
+   * ASPIRATION_WINDOW either side of it, and searches again with a window twice as wide on the side the score fell out of.
+   * MTDF only ever searches with a null window, each search telling whether the score is above or below a guess, and moves the
+   * guess until the score is found. Its searches revisit the same positions many times, so it relies on the transposition table.
+   * Searches on more than one thread always use FULL_WINDOW.
+   *
+   * @param driver FULL_WINDOW, ASPIRATION or MTDF.
+   */
+  public void setDriver(int driver) {
+
+    if (driver == FULL_WINDOW || driver == ASPIRATION || driver == MTDF) {
+
+      this.driver = driver;
+    }
+  }
+
+  /**
+   * getDrawDetection retrieves whether or not positions neither player can win any more are scored as draws.
+   *
+   * @return drawDetection Whether or not draw detection is used.
+   */
+  public boolean getDrawDetection() {
+
+    return drawDetection;
+  }
+
+  /**
+   * setDrawDetection sets whether or not positions neither player can win any more are scored as draws without searching them.
+   *
+   * <p>Once every window of four has tokens of both players in it, the game has to end in a draw however the rest of it is
+   * played. The Bitboard keeps count of the windows each player can still win in, so checking costs nothing. Without draw
+   * detection these positions are searched to the depth and evaluated like any other.
+   *
+   * @param drawDetection Whether or not draw detection should be used.
+   */
+  public void setDrawDetection(boolean drawDetection) {
+
+    this.drawDetection = drawDetection;
+  }
+
+  /**
+   * getEvaluation retrieves how positions are scored at the end of the search.
+   *
+   * @return evaluation CELL_WEIGHTS or LINE_COUNTS.
+   */
+  public int getEvaluation() {
+
+    return evaluation;
+  }
+
+  /**
+   * setEvaluation sets how positions are scored at the end of the search.
+   *
+   * <p>CELL_WEIGHTS still counts a token towards windows the other player has already blocked. LINE_COUNTS leaves those windows
+   * out and weighs the rest 1, 4 and 16 for one, two and three tokens, so it sees threats building up and plays stronger. Both are
+   * kept up to date by the Bitboard as moves are made, so neither costs more than the other.
+   *
+   * @param evaluation CELL_WEIGHTS or LINE_COUNTS.
+   */
+  public void setEvaluation(int evaluation) {
+
+    if (evaluation == CELL_WEIGHTS || evaluation == LINE_COUNTS) {
+
+      this.evaluation = evaluation;
+    }
+  }
+
+  /**
+   * getPool retrieves the ForkJoinPool the parallel searches run on, creating it if it has not been created yet.
+   *
+   * @return pool The ForkJoinPool with one worker for each thread.
+   */
+  private synchronized ForkJoinPool getPool() {
+
+    if (pool == null) {
+
+      pool = new ForkJoinPool(threads);
+    }
+
+    return pool;
+  }
+
+  /**
+   * tableKey finds the key a position is stored under in the transposition table, the position's key with the player to move in
+   * the lowest bit.
+   *
+   * @param position The position.
+   * @param player The player to move (1 or 2).
+   * @return The key of the position in the table.
+   */
+  public static long tableKey(Bitboard position, int player) {
+
+    return (position.getKey() << 1) | (player - 1);
+  }
+
+  /**
+   * search finds the best column for a player to play in a position.
+   *
+   * <p>The search runs on the calling thread (and the ForkJoinPool if it uses more than one thread), so searches called from
+   * different threads run at the same time without waiting for each other.
+   *
+   * @param position The position to search, it is not changed by the search.
+   * @param player The player to move (1 or 2).
+   * @param limits How far and how long the search can go, and the transposition table it can use.
+   * @return result The best column found and what it took to find it.
+   */
+  @Override
+  public SearchResult search(Bitboard position, int player, SearchLimits limits) {
+
+    return new SearchRun(new Bitboard(position), player, limits).iterativeDeepening();
+  }
+
+  /**
+   * SearchRun stores everything one call of search shares between its threads.
+   */
+  private class SearchRun {
+
+    /**
+     * position stores the engine's own copy of the position being searched.
+     */
+    private final Bitboard position;
+
+    /**
+     * player stores the player to move at the root.
+     */
+    private final int player;
+
+    /**
+     * limits stores how far and how long the search can go.
+     */
+    private final SearchLimits limits;
+
+    /**
+     * table stores the transposition table the search uses, or null if there is none.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * runThreads stores how many threads the search uses, read once so the setting can't change part way through.
+     */
+    private final int runThreads;
+
+    /**
+     * runParallelMode stores how the search is split between threads, read once for the same reason.
+     */
+    private final int runParallelMode;
+
+    /**
+     * runYoungBrothersWait stores whether or not columns below the root are split between the threads, read once for the same
+     * reason.
+     */
+    private final boolean runYoungBrothersWait;
+
+    /**
+     * runEvaluation stores how positions are scored at the end of the search, read once for the same reason.
+     */
+    private final int runEvaluation;
+
+    /**
+     * runThreatExtensions stores whether or not threat extensions are used, read once for the same reason.
+     */
+    private final boolean runThreatExtensions;
+
+    /**
+     * runDrawDetection stores whether or not draw detection is used, read once for the same reason.
+     */
+    private final boolean runDrawDetection;
+
+    /**
+     * runReductions stores how many moves less deep each column is searched by its place, copied once for the same reason.
+     */
+    private final int[] runReductions;
+
+    /**
+     * runDriver stores how the window of each depth is chosen, read once for the same reason.
+     */
+    private final int runDriver;
+
+    /**
+     * iterationDepth stores the depth of the iteration being searched, which extensions can't take the search past twice of.
+     */
+    private volatile int iterationDepth;
+
+    /**
+     * deadline stores the System.nanoTime the search has to stop at, if there is a time limit.
+     */
+    private long deadline;
+
+    /**
+     * stopped stores whether or not the search ran out of time or nodes and has to return without a score.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * sharedNodes stores how many positions every thread of the search has visited so far.
+     */
+    private final AtomicLong sharedNodes = new AtomicLong();
+
+    /**
+     * searchDepth stores the depth of the deepest search that finished.
+     */
+    private volatile int searchDepth;
+
+    /**
+     * bestCol stores the best column of the deepest search that finished.
+     */
+    private int bestCol = -1;
+
+    /**
+     * main stores the state of the search on the calling thread.
+     */
+    private final Search main;
+
+    /**
+     * helpers stores the state of each helper thread of the Lazy SMP search.
+     */
+    private Search[] helpers;
+
+    /**
+     * Constructor for SearchRun that takes the position, the player to move and the limits of the search.
+     *
+     * @param position The engine's own copy of the position.
+     * @param player The player to move.
+     * @param limits How far and how long the search can go.
+     */
+    private SearchRun(Bitboard position, int player, SearchLimits limits) {
+
+      this.position = position;
+      this.player = player;
+      this.limits = limits;
+      this.table = limits.getTable();
+      this.runThreads = threads;
+      this.runParallelMode = parallelMode;
+      this.runYoungBrothersWait = youngBrothersWait;
+      this.runEvaluation = evaluation;
+      this.runThreatExtensions = threatExtensions;
+      this.runDrawDetection = drawDetection;
+      this.runDriver = threads > 1 ? FULL_WINDOW : driver;
+      this.runReductions = reductions.clone();
+      this.main = new Search(this, new MoveOrdering(ordering));
+      if (limits.getOrdering() != null) {
+
+        main.searchOrdering.copyTables(limits.getOrdering());
+      }
+    }
+
+    /**
+     * iterativeDeepening searches the position to a depth of 1, then 2, then 3 and so on up to the maximum depth, keeping the best
+     * column after each depth that finishes.
+     *
+     * <p>Each depth fills the transposition table and the killer and history tables, so the next depth searches the best moves
+     * first and costs little more than searching to that depth alone. When the time or node limit is reached the unfinished depth
+     * is thrown away and the best column from the last finished depth is kept, and the same goes for a search told to stop through
+     * its SearchLimits. Searching stops early once a win or loss is found, since a deeper search can't change which column wins or
+     * loses the quickest.
+     *
+     * <p>Without a time or node limit the shallower depths are skipped with the FULL_WINDOW driver, since the search always reaches
+     * the maximum depth and they would only add positions to search. The other drivers need the score of every depth.
+     *
+     * @return result The best column found and what it took to find it.
+     */
+    private SearchResult iterativeDeepening() {
+
+      long start = System.nanoTime();
+      int lastDepth = Math.min(limits.getMaxDepth(), 42 - position.getMoveCount());
+      int bestScore = 0;
+      if (limits.getTimeLimit() > 0) {
+
+        deadline = start + limits.getTimeLimit() * 1000000L;
+      }
+
+      int firstDepth = lastDepth;
+      if (limits.getTimeLimit() > 0 || limits.getNodeLimit() > 0 || runDriver != FULL_WINDOW) {
+
+        firstDepth = 1;
+      }
+
+      /* Each helper thread of the Lazy SMP search keeps its killer moves and history scores from one depth to the next. */
+      if (runThreads > 1 && runParallelMode == LAZY_SMP) {
+
+        helpers = new Search[runThreads - 1];
+        for (int i = 0; i < helpers.length; i ++) {
+
+          helpers[i] = new Search(this, new MoveOrdering(main.searchOrdering));
+        }
+      }
+
+      for (int depth = firstDepth; depth <= lastDepth; depth ++) {
+
+        int score;
+        int col;
+        iterationDepth = depth;
+        if (runThreads > 1 && runParallelMode == LAZY_SMP) {
+
+          score = searchLazySmp(depth, lastDepth);
+          col = main.rootMove;
+        } else if (runThreads > 1) {
+
+          score = searchRootParallel(depth);
+          col = main.rootMove;
+        } else if (runDriver == MTDF && depth > firstDepth) {
+
+          score = searchMtdf(depth, bestScore);
+          col = main.rootMove;
+        } else if (runDriver == ASPIRATION && depth > firstDepth) {
+
+          score = searchAspiration(depth, bestScore);
+          col = main.rootMove;
+        } else {
+
+          score = main.searchRoot(position, depth, -INFINITY, INFINITY);
+          col = main.rootMove;
+        }
+
+        /* The unfinished depth is thrown away. */
+        if (stopped) {
+
+          break;
+        }
+
+        bestCol = col;
+        bestScore = score;
+        searchDepth = depth;
+
+        if (score > WIN_SCORE / 2 || score < -WIN_SCORE / 2) {
+
+          break;
+        }
+      }
+
+      /* Told to stop before any depth finished, which can only happen when the shallower depths were skipped, so a depth of 1 is
+      searched to have a column to play. */
+      if (searchDepth == 0 && stopped) {
+
+        stopped = false;
+        iterationDepth = 1;
+        bestScore = main.searchRoot(position, 1, -INFINITY, INFINITY);
+        bestCol = main.rootMove;
+        searchDepth = 1;
+      }
+
+      main.flushNodes();
+      if (limits.getOrdering() != null) {
+
+        limits.getOrdering().copyTables(main.searchOrdering);
+      }
+      return new SearchResult(bestCol, bestScore, searchDepth, sharedNodes.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * searchAspiration searches the position with a window around the score of the last depth, widening the window on the side
+     * the score falls out of until the score is inside it.
+     *
+     * @param depth The maximum depth to search to.
+     * @param guess The score of the last depth.
+     * @return score The score of the best column, or 0 if the search ran out of time or nodes.
+     */
+    private int searchAspiration(int depth, int guess) {
+
+      int window = ASPIRATION_WINDOW;
+      int alpha = guess - window;
+      int beta = guess + window;
+
+      while (true) {
+
+        int score = main.searchRoot(position, depth, alpha, beta);
+        if (stopped) {
+
+          return 0;
+        }
+
+        /* A score outside of the window is only a bound, so the window is widened past it and the depth searched again. A win or
+        loss opens the window all the way on that side. */
+        if (score <= alpha) {
+
+          window *= 2;
+          alpha = score < -WIN_SCORE / 2 ? -INFINITY : score - window;
+        } else if (score >= beta) {
+
+          window *= 2;
+          beta = score > WIN_SCORE / 2 ? INFINITY : score + window;
+        } else {
+
+          return score;
+        }
+      }
+    }
+
+    /**
+     * searchMtdf finds the score of the position with null window searches, starting from the score of the last depth.
+     *
+     * <p>Each search with the window (b - 1, b) finds either that the score is at least b, raising the lower bound, or that it is
+     * less than b, lowering the upper bound. The next search is at the score just returned, and the score is found once the
+     * bounds meet. The best column is the one from the last search that raised the lower bound, which is the column that gets the
+     * score.
+     *
+     * @param depth The maximum depth to search to.
+     * @param guess The score of the last depth.
+     * @return score The score of the best column, or 0 if the search ran out of time or nodes.
+     */
+    private int searchMtdf(int depth, int guess) {
+
+      int lower = -INFINITY;
+      int upper = INFINITY;
+      int score = guess;
+      int move = -1;
+
+      while (lower < upper) {
+
+        int b = score == lower ? score + 1 : score;
+        score = main.searchRoot(position, depth, b - 1, b);
+        if (stopped) {
+
+          return 0;
+        }
+
+        if (score < b) {
+
+          upper = score;
+        } else {
+
+          lower = score;
+          move = main.rootMove;
+        }
+      }
+
+      main.rootMove = move;
+      return score;
+    }
+
+    /**
+     * searchLazySmp searches the position on the calling thread while helper threads on the ForkJoinPool search the same position.
+     *
+     * <p>Every other helper searches one move deeper than the calling thread, so the helpers don't all search the same positions in
+     * the same order. Every thread stores what it finds in the shared transposition table, which the others probe. The helpers are
+     * stopped as soon as the calling thread finishes, and the calling thread's best column is the one kept.
+     *
+     * @param depth The maximum depth to search to.
+     * @param lastDepth The deepest the position can be searched, so helpers never search past the end of the game.
+     * @return score The score of the best column, or 0 if the search ran out of time or nodes.
+     */
+    private int searchLazySmp(int depth, int lastDepth) {
+
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int i = 0; i < helpers.length; i ++) {
+
+        Search helper = helpers[i];
+        Bitboard helperPosition = new Bitboard(position);
+        int helperDepth = Math.min(depth + (i & 1), lastDepth);
+        helper.cancelled = false;
+        tasks.add(getPool().submit(() -> helper.searchRoot(helperPosition, helperDepth, -INFINITY, INFINITY)));
+      }
+
+      int score = main.searchRoot(position, depth, -INFINITY, INFINITY);
+
+      for (Search helper : helpers) {
+
+        helper.cancelled = true;
+      }
+      for (int i = 0; i < tasks.size(); i ++) {
+
+        tasks.get(i).join();
+        helpers[i].flushNodes();
+      }
+
+      return score;
+    }
+
+    /**
+     * searchRootParallel searches every column the player can play at the same time, each column in its own task on the
+     * ForkJoinPool, and sets the main Search's rootMove to the one with the highest score.
+     *
+     * <p>Each column is searched with a window one lower than the best score any finished column has reached so far, so a column
+     * that can't beat the best is pruned the same as in the sequential search. Any column that ties or beats the best one gets its
+     * exact score, so keeping the leftmost column with the highest score gives the same column as the sequential search.
+     *
+     * @param depth The maximum depth to search to.
+     * @return bestScore The score of the best column, or 0 if the search ran out of time or nodes.
+     */
+    private int searchRootParallel(int depth) {
+
+      main.countNode();
+      int[] moves = new int[7];
+      int count = main.searchOrdering.orderMoves(position, 0, player, -1, moves);
+      AtomicInteger rootBest = new AtomicInteger(-INFINITY);
+      List<SearchTask> tasks = new ArrayList<>();
+
+      for (int i = 0; i < count; i ++) {
+
+        tasks.add(new SearchTask(this, position, moves[i], player, depth-1, 0, 0, 1, 0, 0, rootBest, main.searchOrdering));
+      }
+
+      getPool().invoke(new RecursiveAction() {
+
+        @Override
+        protected void compute() {
+
+          invokeAll(tasks);
+        }
+      });
+
+      if (stopped) {
+
+        return 0;
+      }
+
+      int bestScore = -INFINITY;
+      int bestMove = -1;
+      for (SearchTask task : tasks) {
+
+        int value = task.getRawResult();
+        if (value > bestScore || (value == bestScore && task.col < bestMove)) {
+
+          bestMove = task.col;
+          bestScore = value;
+        }
+      }
+
+      main.rootMove = bestMove;
+      return bestScore;
+    }
+  }
+
+  /**
+   * Search stores everything one thread changes while it searches, so several Searches can run at the same time.
+   *
+   * <p>Each Search has its own MoveOrdering and list of moves at each ply, and counts the positions it visits before adding them
+   * to the total for the whole search. Every Search of a SearchRun shares its transposition table.
+   */
+  private class Search {
+
+    /**
+     * run stores the search this Search is part of.
+     */
+    private final SearchRun run;
+
+    /**
+     * nodes stores how many positions this Search visited that have not been added to the total yet.
+     */
+    private long nodes;
+
+    /**
+     * searchOrdering decides the order this Search tries the columns of each position in.
+     */
+    private final MoveOrdering searchOrdering;
+
+    /**
+     * moveLists stores the ordered columns of the position being searched at each ply, so searching never needs a new array.
+     */
+    private final int[][] moveLists = new int[MoveOrdering.MAX_PLY][7];
+
+    /**
+     * rootMove stores the best column found by the last call of searchRoot.
+     */
+    private int rootMove = -1;
+
+    /**
+     * cancelled stores whether or not this Search has been told to stop, used to stop the Lazy SMP helper threads.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor for Search that takes the search it is part of and the MoveOrdering it uses.
+     *
+     * @param run The search this Search is part of.
+     * @param searchOrdering The MoveOrdering this Search uses.
+     */
+    private Search(SearchRun run, MoveOrdering searchOrdering) {
+
+      this.run = run;
+      this.searchOrdering = searchOrdering;
+    }
+
+    /**
+     * countNode counts one more position visited, adding the count to the total every few positions so other threads can see it.
+     */
+    private void countNode() {
+
+      nodes ++;
+      if ((nodes & CHECK_INTERVAL) == 0) {
+
+        flushNodes();
+      }
+    }
+
+    /**
+     * flushNodes adds the positions this Search visited to the total for the whole search.
+     */
+    private void flushNodes() {
+
+      run.sharedNodes.addAndGet(nodes);
+      nodes = 0;
+    }
+
+    /**
+     * outOfBudget checks whether or not the search has reached its time or node limit or been told to stop, the clock and the
+     * stop request are only read every few positions since they are slower than searching one.
+     *
+     * <p>The first depth is never stopped by a limit, so there is always a finished search to play a column from.
+     *
+     * @return stopped Whether or not the search has to stop.
+     */
+    private boolean outOfBudget() {
+
+      if (cancelled) {
+
+        return true;
+      }
+
+      if (run.searchDepth > 0 && !run.stopped) {
+
+        long nodeLimit = run.limits.getNodeLimit();
+        if (nodeLimit > 0 && run.sharedNodes.get() + nodes >= nodeLimit) {
+
+          run.stopped = true;
+        } else if (run.limits.getTimeLimit() > 0 && (nodes & CHECK_INTERVAL) == 0 && System.nanoTime() - run.deadline >= 0) {
+
+          run.stopped = true;
+        }
+      }
+
+      /* A stop request ends any depth but a depth of 1, which the run searches instead if no deeper depth finished. */
+      if ((nodes & CHECK_INTERVAL) == 0 && !run.stopped && run.iterationDepth > 1 && run.limits.isStopped()) {
+
+        run.stopped = true;
+      }
+
+      return run.stopped;
+    }
+
+    /**
+     * isStopped checks whether or not the search ran out of time or nodes, or this Search was cancelled.
+     *
+     * @return Whether or not the search has to return without a score.
+     */
+    private boolean isStopped() {
+
+      return run.stopped || cancelled;
+    }
+
+    /**
+     * searchRoot calls negamax for every column the player to move can play and sets rootMove to the one with the highest score.
+     *
+     * <p>When two columns have the same score the one further left is kept, so the best column is the same with or without
+     * alpha-beta pruning and no matter the order the columns are searched in. A column that is pruned returns a score no higher
+     * than the best one found before it, so columns left of the best one are searched with a window one lower to find an equal
+     * score.
+     *
+     * <p>Like negamax, the score is exact when it is between alpha and beta and otherwise only a bound. When it is beta or more
+     * rootMove is the column that reached it, and when it is alpha or less rootMove can't be used.
+     *
+     * @param position The current position of the game (the root node), it is the same after the call as before it.
+     * @param depth The maximum depth to search to.
+     * @param alpha The lowest score the search needs to tell apart, -INFINITY for the full window.
+     * @param beta The highest score the search needs to tell apart, INFINITY for the full window.
+     * @return bestScore The score of the best column, or 0 if the search ran out of time or nodes.
+     */
+    private int searchRoot(Bitboard position, int depth, int alpha, int beta) {
+
+      countNode();
+      int player = run.player;
+      int bestScore = -INFINITY;
+      int bestMove = -1;
+      int[] moves = moveLists[0];
+      int count = searchOrdering.orderMoves(position, 0, player, -1, moves);
+
+      for (int i = 0; i < count; i ++) {
+
+        int c = moves[i];
+        int low = Math.max(alpha, bestScore);
+        if (bestMove != -1 && c < bestMove) {
+
+          low = Math.max(alpha, bestScore - 1);
+        }
+
+        position.makeMove(c, player);
+        int value = -negamax(position, depth-1, 1, -beta, -low, 3 - player);
+        position.undoMove(c);
+
+        if (isStopped()) {
+
+          return 0;
+        }
+
+        if (value > bestScore || (value == bestScore && c < bestMove)) {
+
+          bestMove = c;
+          bestScore = value;
+        }
+
+        /* The score is already known to be at least beta, which is all a search with this window needs to know. */
+        if (bestScore >= beta) {
+
+          break;
+        }
+      }
+
+      rootMove = bestMove;
+      return bestScore;
+    }
+
+    /**
+     * negamax is a recursive algorithm that searches for the best possible column choice for the computer player by
+     * relying on the fact that the board value for the computer player is the negation of the value for the user.
+     *
+     * <p>negamax when called for a player attempts to find a move that maximizes the negation of the value resulting from the
+     * particular move for the other player. Essentially, a game tree is created from a root node (the first call of negamax), and it
+     * works its way down from there, the players taking turns, until a certain depth is reached. It then returns back up the tree,
+     * comparing different branches to the best one its found so far. A more thorough explanation of the algorithm can be found at this
+     * wikipedia page (https://en.wikipedia.org/wiki/Negamax).
+     *
+     * <p>negamax uses fail-soft alpha-beta pruning. alpha is the score the player to move is already guaranteed elsewhere in the tree
+     * and beta is the score the other player is guaranteed, so as soon as a move scores beta or more the other player will never allow
+     * this position and the remaining moves don't need to be searched. The returned score is exact when it is between alpha and beta,
+     * otherwise it is only a bound on the real score.
+     *
+     * <p>Every child is searched by making its move on the one position and taking it back with undoMove afterwards,
+     * so no new game configurations are created while searching.
+     *
+     * <p>With young brothers wait turned on, once the first column of a position deep enough from the leaves has been searched
+     * the rest of its columns are searched at the same time in their own tasks.
+     *
+     * <p>When the search runs out of time or nodes every call returns 0 straight away without storing anything in the
+     * transposition table, and the score is thrown away by iterativeDeepening.
+     *
+     * @param position The current position of the game, it is the same after the call as before it.
+     * @param depth The current depth the recursive algorithm is searching at. The intialized depth is the maxDepth.
+     * @param ply How many moves from the root of the search the position is.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta The score the other player is already guaranteed, negated.
+     * @param player The player to move in the position (1 for the user, 2 for the computer).
+     * @return bestScore The score of the position for the player to move.
+     */
+    private int negamax(Bitboard position, int depth, int ply, int alpha, int beta, int player) {
+
+      countNode();
+      if (outOfBudget()) {
+
+        return 0;
+      }
+      int opponent = 3 - player;
+
+      /* If the last move won the game, it is the worst possible position for the player to move.
+      Losing later is better than losing now, so the depth left is added to the score. */
+      if (position.isWin(opponent)) {
+
+        return -(WIN_SCORE + depth);
+      }
+
+      /* If the game ends up being a draw in this node, the value returned should be 0 so it can be avoided if there is
+      a better possible move elsewhere. */
+      if (position.getMoveCount() == 42) {
+
+        return 0;
+      }
+
+      /* With draw detection, a position neither player can win any more is scored as the draw it has to end in. */
+      if (run.runDrawDetection && position.isDead()) {
+
+        return 0;
+      }
+
+      /* If the terminal node is reached, the algorithm returns the heuristic value of the node (ie. the evaluation)
+      for the player to move. */
+      if (depth == 0) {
+
+        if (run.runThreatExtensions) {
+
+          /* A win forced by threats is scored like a win that many moves past the end of the search, and a position with no
+          move that doesn't lose like losing two moves past it. */
+          long tokens = position.getTokens(player);
+          long mask = position.getMask();
+          int winPlies = Threats.forcedWin(tokens, mask, THREAT_PLIES);
+          if (winPlies > 0) {
+
+            return WIN_SCORE - winPlies;
+          }
+          if (Threats.nonLosingMoves(tokens, mask) == 0) {
+
+            return -(WIN_SCORE - 2);
+          }
+        }
+
+        int score = evaluate(position, run.runEvaluation);
+        return player == 2 ? score : -score;
+      }
+
+      /* If the player to move can win straight away, it scores the same as the win would one move deeper. */
+      if (Threats.canWinNow(position, player)) {
+
+        return WIN_SCORE + depth - 1;
+      }
+
+      /* A move that lets the other player win straight away scores the quickest possible loss, so with two moves or more left to
+      search only the non-losing moves are searched. If there are none, the other player wins next move whatever is played. */
+      long nonLosing = 0;
+      int extension = 0;
+      if (run.runThreatExtensions && ply < 2 * run.iterationDepth
+          && Threats.forcedBlocks(position.getTokens(player), position.getMask()) != 0) {
+
+        /* The player has to block, so the block is searched without using up any depth. */
+        extension = 1;
+      }
+      if (depth >= 2) {
+
+        nonLosing = Threats.nonLosingMoves(position.getTokens(player), position.getMask());
+        if (nonLosing == 0) {
+
+          return -(WIN_SCORE + depth - 2);
+        }
+      }
+
+      /* If this position was already searched at least this deep, its score can be used without searching it again.
+      A score that is only a bound can still be used when it is outside of the alpha-beta window. */
+      TranspositionTable table = run.table;
+      long key = tableKey(position, player);
+      int tableCol = -1;
+      if (table != null) {
+
+        long entry = table.probe(key);
+        if (entry != 0) {
+
+          tableCol = TranspositionTable.bestColOf(entry);
+        }
+        if (entry != 0 && TranspositionTable.depthOf(entry) >= depth) {
+
+          int score = fromTable(TranspositionTable.scoreOf(entry), depth);
+          int bound = TranspositionTable.boundOf(entry);
+
+          if (bound == TranspositionTable.EXACT
+              || (bound == TranspositionTable.LOWER && score >= beta)
+              || (bound == TranspositionTable.UPPER && score <= alpha)) {
+
+            return score;
+          }
+        }
+      }
+
+      int bestScore = -INFINITY;
+      int bestMove = -1;
+      int[] moves = moveLists[ply];
+      int count = searchOrdering.orderMoves(position, ply, player, tableCol, moves);
+      if (nonLosing != 0) {
+
+        int kept = 0;
+        for (int i = 0; i < count; i ++) {
+
+          if ((nonLosing & Bitboard.columnMask(moves[i])) != 0) {
+
+            moves[kept ++] = moves[i];
+          }
+        }
+        count = kept;
+      }
+
+      /* Late moves are only reduced deep enough from the leaves, and never when the player has to block. */
+      boolean reduce = alphaBeta && depth >= REDUCTION_DEPTH && extension == 0;
+      long threats = reduce ? Threats.winningSpaces(position.getTokens(player), position.getMask()) : 0;
+
+      for (int i = 0; i < count; i ++) {
+
+        int c = moves[i];
+
+        /* The first column has been searched, so the rest are split between the threads. Lazy SMP threads each search the whole
+        tree on their own, so only a root split search splits below the root. */
+        if (i == 1 && run.runYoungBrothersWait && run.runThreads > 1 && run.runParallelMode == ROOT_SPLIT && depth >= SPLIT_DEPTH
+            && alphaBeta) {
+
+          List<SearchTask> tasks = new ArrayList<>();
+          for (int j = i; j < count; j ++) {
+
+            int reduction = reduce && run.runReductions[j] > 0 ? Math.min(run.runReductions[j], depth - 2) : 0;
+            tasks.add(new SearchTask(run, position, moves[j], player, depth-1+extension, reduction, threats, ply+1, -beta,
+                -Math.max(alpha, bestScore), null, searchOrdering));
+          }
+          ForkJoinTask.invokeAll(tasks);
+
+          if (isStopped()) {
+
+            return 0;
+          }
+
+          for (SearchTask task : tasks) {
+
+            if (task.getRawResult() > bestScore) {
+
+              bestScore = task.getRawResult();
+              bestMove = task.col;
+            }
+          }
+          if (bestScore >= beta) {
+
+            searchOrdering.cutoff(position, ply, player, bestMove, depth);
+          }
+          break;
+        }
+
+        int reduction = 0;
+        if (reduce && run.runReductions[i] > 0) {
+
+          reduction = Math.min(run.runReductions[i], depth - 2);
+        }
+
+        position.makeMove(c, player);
+        int low = Math.max(alpha, bestScore);
+        int value;
+
+        /* A late move that makes no new threat is searched less deep with a null window, and again in full if it beats the best
+        column so far. */
+        if (reduction > 0 && (Threats.winningSpaces(position.getTokens(player), position.getMask()) & ~threats) == 0) {
+
+          value = -negamax(position, depth-1-reduction, ply+1, -low-1, -low, opponent);
+          if (value > low && !isStopped()) {
+
+            value = -negamax(position, depth-1+extension, ply+1, -beta, -low, opponent);
+          }
+        } else {
+
+          value = -negamax(position, depth-1+extension, ply+1, -beta, -low, opponent);
+        }
+        position.undoMove(c);
+
+        if (isStopped()) {
+
+          return 0;
+        }
+
+        if (value > bestScore) {
+
+          bestScore = value;
+          bestMove = c;
+
+          /* The other player already has a better option than this position, so it won't be played. */
+          if (alphaBeta && bestScore >= beta) {
+
+            searchOrdering.cutoff(position, ply, player, c, depth);
+            break;
+          }
+        }
+      }
+
+      if (table != null) {
+
+        int bound = TranspositionTable.EXACT;
+        if (bestScore <= alpha) {
+
+          bound = TranspositionTable.UPPER;
+        } else if (bestScore >= beta) {
+
+          bound = TranspositionTable.LOWER;
+        }
+        table.store(key, toTable(bestScore, depth), bound, depth, bestMove);
+      }
+
+      return bestScore;
+    }
+
+  }
+
+  /**
+   * SearchTask searches one column of a position on the ForkJoinPool, with its own copy of the position and its own Search.
+   *
+   * <p>The result of the task is the score of the column for the player who plays it.
+   */
+  private class SearchTask extends RecursiveTask<Integer> {
+
+    /**
+     * serialVersionUID is the version of the task's serialized form, which RecursiveTask requires though tasks are never serialized.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * run stores the search this task is part of.
+     */
+    private final SearchRun run;
+
+    /**
+     * col stores the column this task searches.
+     */
+    private final int col;
+
+    /**
+     * child stores a copy of the position with the column played in it.
+     */
+    private final Bitboard child;
+
+    /**
+     * player stores the player who plays the column.
+     */
+    private final int player;
+
+    /**
+     * depth stores the depth left to search after the column is played.
+     */
+    private final int depth;
+
+    /**
+     * reduction stores how many moves less deep the column is searched first if it makes no new threat, 0 for none.
+     */
+    private final int reduction;
+
+    /**
+     * threats stores the spaces the player who plays the column already wins in, to tell whether the column makes a new threat.
+     */
+    private final long threats;
+
+    /**
+     * ply stores how many moves from the root of the search the position after the column is played is.
+     */
+    private final int ply;
+
+    /**
+     * alpha stores the score the player to move after the column is already guaranteed.
+     */
+    private final int alpha;
+
+    /**
+     * beta stores the score the player who plays the column is already guaranteed, negated.
+     */
+    private final int beta;
+
+    /**
+     * rootBest stores the best score of any column at the root so far, or null if the task is not a column at the root.
+     */
+    private final AtomicInteger rootBest;
+
+    /**
+     * parentOrdering stores the MoveOrdering of the Search that created the task, copied so the task starts with its killer moves
+     * and history scores.
+     */
+    private final MoveOrdering parentOrdering;
+
+    /**
+     * Constructor for SearchTask that copies the position and plays the column in the copy.
+     *
+     * @param run The search the task is part of.
+     * @param position The position the column is played in.
+     * @param col The column to search.
+     * @param player The player who plays the column.
+     * @param depth The depth left to search after the column is played.
+     * @param reduction How many moves less deep the column is searched first if it makes no new threat, 0 for none.
+     * @param threats The spaces the player who plays the column already wins in.
+     * @param ply How many moves from the root of the search the position after the column is played is.
+     * @param alpha The score the player to move after the column is already guaranteed.
+     * @param beta The score the player who plays the column is already guaranteed, negated.
+     * @param rootBest The best score of any column at the root so far, or null if the column is not at the root.
+     * @param parentOrdering The MoveOrdering of the Search that created the task.
+     */
+    private SearchTask(SearchRun run, Bitboard position, int col, int player, int depth, int reduction, long threats, int ply,
+        int alpha, int beta, AtomicInteger rootBest, MoveOrdering parentOrdering) {
+
+      this.run = run;
+      this.col = col;
+      this.child = new Bitboard(position);
+      this.child.makeMove(col, player);
+      this.player = player;
+      this.depth = depth;
+      this.reduction = reduction;
+      this.threats = threats;
+      this.ply = ply;
+      this.alpha = alpha;
+      this.beta = beta;
+      this.rootBest = rootBest;
+      this.parentOrdering = parentOrdering;
+    }
+
+    /**
+     * compute searches the column and returns its score for the player who plays it.
+     *
+     * <p>A column at the root takes its window from the best score of the columns that have already finished. A column below the
+     * root is reduced the same way negamax reduces a late move, searched less deep with a null window and again in full if it
+     * beats the window.
+     *
+     * @return value The score of the column.
+     */
+    @Override
+    protected Integer compute() {
+
+      Search taskSearch = new Search(run, new MoveOrdering(parentOrdering));
+      int value;
+
+      if (rootBest != null) {
+
+        value = -taskSearch.negamax(child, depth, ply, -INFINITY, -(rootBest.get() - 1), 3 - player);
+        if (!run.stopped) {
+
+          rootBest.accumulateAndGet(value, Math::max);
+        }
+      } else if (reduction > 0 && (Threats.winningSpaces(child.getTokens(player), child.getMask()) & ~threats) == 0) {
+
+        value = -taskSearch.negamax(child, depth - reduction, ply, beta - 1, beta, 3 - player);
+        if (value > -beta && !run.stopped) {
+
+          value = -taskSearch.negamax(child, depth, ply, alpha, beta, 3 - player);
+        }
+      } else {
+
+        value = -taskSearch.negamax(child, depth, ply, alpha, beta, 3 - player);
+      }
+
+      taskSearch.flushNodes();
+      return value;
+    }
+  }
+
+  /**
+   * toTable converts a score to the form stored in the transposition table.
+   *
+   * <p>A win or loss scores WIN_SCORE plus the depth left when the game ended, which depends on the depth the position was
+   * searched from. Subtracting the depth of the position stores how many moves away the end of the game is instead.
+   *
+   * @param score The score of the position.
+   * @param depth The depth the position was searched from.
+   * @return The score to store in the table.
+   */
+  private static int toTable(int score, int depth) {
+
+    if (score > WIN_SCORE / 2) {
+
+      return score - depth;
+    } else if (score < -WIN_SCORE / 2) {
+
+      return score + depth;
+    } else {
+
+      return score;
+    }
+  }
+
+  /**
+   * fromTable converts a score stored in the transposition table back to a score for a position searched from a depth.
+   *
+   * @param score The score stored in the table.
+   * @param depth The depth the position is being searched from.
+   * @return The score of the position.
+   */
+  private static int fromTable(int score, int depth) {
+
+    if (score > WIN_SCORE / 2) {
+
+      return score + depth;
+    } else if (score < -WIN_SCORE / 2) {
+
+      return score - depth;
+    } else {
+
+      return score;
+    }
+  }
+
+  /**
+   * evaluate determines a score for the current board state from the running scores the Bitboard keeps.
+   *
+   * <p>evaluate will return a score above 0 if the current configuration of the tokens favour the computer,
+   * and will return a score below 0 if the current configuration favours the user. This is used in the negamax
+   * algorithm to determine if a certain node/child of the game configuration is better than another, allowing the
+   * computer to pick the column that led to the node/child.
+   *
+   * @param position The current game configuration position the negamax algorithm is analyzing.
+   * @param evaluation How the position is scored (CELL_WEIGHTS or LINE_COUNTS).
+   * @return score The value of the board for the computer.
+   */
+  private static int evaluate(Bitboard position, int evaluation) {
+
+    if (evaluation == LINE_COUNTS) {
+
+      return position.getLineScore();
+    }
+
+    return position.getCellScore();
+  }
+
+}
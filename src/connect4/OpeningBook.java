@@ -0,0 +1,244 @@
+package connect4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OpeningBook looks up the best column and score of early positions in a book file written by BookGenerator.
+ *
+ * <p>The file is memory mapped instead of read, so opening a book is instant however large it is, and only the parts of the file
+ * that are looked at are ever loaded. A position and its mirror image are stored once, under the smaller of their keys, so a
+ * lookup tries both keys and flips the column if the mirror image was found.
+ *
+ * <p>The file starts with a header of 4 ints: the magic number, the version, the number of moves the book goes to and the
+ * number of positions. After the header come the keys of the positions (getKey, or its mirror) as longs in increasing order,
+ * then one byte per position for the best column and one byte per position for the score from the Solver, in the same order as
+ * the keys.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class OpeningBook {
+
+  /**
+   * BOOK_FILE is the name of the book file looked for in the working directory by loadDefault.
+   */
+  public static final String BOOK_FILE = "connect4.book";
+
+  /**
+   * MAGIC is the first int of every book file, the characters "C4OB".
+   */
+  public static final int MAGIC = 0x43344F42;
+
+  /**
+   * VERSION is the version of the file layout, changed whenever the layout changes.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * HEADER_BYTES is the size of the header at the start of the file.
+   */
+  public static final int HEADER_BYTES = 16;
+
+  /**
+   * defaultBook stores the book loaded by loadDefault, so the file is only mapped once.
+   */
+  private static OpeningBook defaultBook;
+
+  /**
+   * defaultLoaded stores whether or not loadDefault has already looked for the book file.
+   */
+  private static boolean defaultLoaded;
+
+  /**
+   * buffer stores the mapped contents of the book file.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * plies stores how many moves into the game the book goes.
+   */
+  private final int plies;
+
+  /**
+   * size stores how many positions are in the book.
+   */
+  private final int size;
+
+  /**
+   * Constructor for OpeningBook that maps a book file.
+   *
+   * @param file The path of the book file.
+   * @throws IOException If the file can't be read or is not a book file of this version.
+   */
+  public OpeningBook(Path file) throws IOException {
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+
+        throw new IOException(file + " is not an opening book.");
+      }
+      if (mapped.getInt(4) != VERSION) {
+
+        throw new IOException(file + " is version " + mapped.getInt(4) + " of the opening book, not version " + VERSION + ".");
+      }
+
+      plies = mapped.getInt(8);
+      size = mapped.getInt(12);
+      if (mapped.capacity() != HEADER_BYTES + (long) size * 10) {
+
+        throw new IOException(file + " is not the right length for " + size + " positions.");
+      }
+      buffer = mapped;
+    }
+  }
+
+  /**
+   * loadDefault maps BOOK_FILE from the working directory the first time it is called.
+   *
+   * @return The book, or null if there is no book file or it can't be read.
+   */
+  public static synchronized OpeningBook loadDefault() {
+
+    if (!defaultLoaded) {
+
+      defaultLoaded = true;
+      Path file = Paths.get(BOOK_FILE);
+      if (Files.isReadable(file)) {
+
+        try {
+
+          defaultBook = new OpeningBook(file);
+        } catch (IOException e) {
+
+          defaultBook = null;
+        }
+      }
+    }
+
+    return defaultBook;
+  }
+
+  /**
+   * getPlies retrieves how many moves into the game the book goes.
+   *
+   * @return plies The number of moves.
+   */
+  public int getPlies() {
+
+    return plies;
+  }
+
+  /**
+   * getSize retrieves how many positions are in the book.
+   *
+   * @return size The number of positions.
+   */
+  public int getSize() {
+
+    return size;
+  }
+
+  /**
+   * getColumn looks up the best column of a position.
+   *
+   * @param position The position to look up.
+   * @param player The player to move (1 or 2).
+   * @return The best column, or -1 if the position is not in the book.
+   */
+  public int getColumn(Bitboard position, int player) {
+
+    long key = position.getKey();
+    int index = find(position, player);
+    if (index < 0) {
+
+      return -1;
+    }
+
+    int col = buffer.get(HEADER_BYTES + size * 8 + index);
+    if (getKeyAt(index) != key) {
+
+      /* The mirror image was found, so its column is flipped back. */
+      col = Bitboard.WIDTH - 1 - col;
+    }
+
+    return col;
+  }
+
+  /**
+   * getScore looks up the score of a position for the player to move, on the Solver's scale.
+   *
+   * @param position The position to look up.
+   * @param player The player to move (1 or 2).
+   * @return The score from Solver.MIN_SCORE to Solver.MAX_SCORE, or Integer.MIN_VALUE if the position is not in the book.
+   */
+  public int getScore(Bitboard position, int player) {
+
+    int index = find(position, player);
+    if (index < 0) {
+
+      return Integer.MIN_VALUE;
+    }
+
+    return buffer.get(HEADER_BYTES + size * 9 + index);
+  }
+
+  /**
+   * find looks for a position or its mirror image in the book with a binary search.
+   *
+   * @param position The position to look for.
+   * @param player The player to move, the book only has positions where the first player moved first.
+   * @return index The index of the position, or -1 if it is not in the book.
+   */
+  private int find(Bitboard position, int player) {
+
+    int moves = position.getMoveCount();
+    if (moves > plies || player != (moves % 2 == 0 ? 1 : 2)) {
+
+      return -1;
+    }
+
+    long key = position.getKey();
+    long target = Math.min(key, Bitboard.mirror(key));
+    int low = 0;
+    int high = size - 1;
+
+    while (low <= high) {
+
+      int mid = (low + high) >>> 1;
+      long midKey = getKeyAt(mid);
+      if (midKey < target) {
+
+        low = mid + 1;
+      } else if (midKey > target) {
+
+        high = mid - 1;
+      } else {
+
+        return mid;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * getKeyAt reads the key stored at an index.
+   *
+   * @param index The index of the position.
+   * @return The key stored at the index.
+   */
+  private long getKeyAt(int index) {
+
+    return buffer.getLong(HEADER_BYTES + index * 8);
+  }
+
+}
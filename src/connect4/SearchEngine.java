@@ -0,0 +1,25 @@
+package connect4;
+
+/**
+ * SearchEngine is anything that can search a position and choose a column to play.
+ *
+ * <p>A SearchEngine keeps nothing from one search to the next, everything a search needs comes in with the position and its
+ * SearchLimits and everything it finds goes out in the SearchResult. One SearchEngine can be shared by every game in the program
+ * and called from many threads at the same time.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public interface SearchEngine {
+
+  /**
+   * search finds the best column for a player to play in a position.
+   *
+   * @param position The position to search, it is not changed by the search.
+   * @param player The player to move (1 or 2).
+   * @param limits How far and how long the search can go, and the transposition table it can use.
+   * @return result The best column found and what it took to find it.
+   */
+  SearchResult search(Bitboard position, int player, SearchLimits limits);
+
+}
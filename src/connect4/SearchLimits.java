@@ -0,0 +1,184 @@
+package connect4;
+
+/**
+ * SearchLimits stores how far and how long a SearchEngine can search, and the transposition table and move ordering it can use.
+ *
+ * <p>The search always stops at the maximum depth. A time limit or node limit can be set as well, the search then deepens one
+ * move at a time and stops when the limit is reached. The transposition table belongs to the caller, so it decides whether the
+ * table is emptied before each search, kept for a whole game or shared between games. The same goes for the killer moves and
+ * history scores of a MoveOrdering, which the search starts from and leaves its own in. The SearchLimits of a search should not
+ * be changed while the search is running, except to stop it from another thread, which ends the search like reaching a limit.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class SearchLimits {
+
+  /**
+   * maxDepth stores the deepest the search goes, in moves.
+   */
+  private int maxDepth;
+
+  /**
+   * timeLimit stores how many milliseconds the search can take, 0 for no limit.
+   */
+  private long timeLimit;
+
+  /**
+   * nodeLimit stores how many positions the search can visit, 0 for no limit.
+   */
+  private long nodeLimit;
+
+  /**
+   * table stores the transposition table the search uses, or null to search without one.
+   */
+  private TranspositionTable table;
+
+  /**
+   * ordering stores the killer moves and history scores the search starts from and leaves its own in, or null to start from the
+   * engine's.
+   */
+  private MoveOrdering ordering;
+
+  /**
+   * stopped stores whether or not the search has been told to stop, set from another thread while the search runs.
+   */
+  private volatile boolean stopped;
+
+  /**
+   * Constructor for SearchLimits that takes the maximum depth, with no time or node limit and no transposition table.
+   *
+   * @param maxDepth The deepest the search goes, in moves.
+   */
+  public SearchLimits(int maxDepth) {
+
+    setMaxDepth(maxDepth);
+  }
+
+  /**
+   * getMaxDepth retrieves the deepest the search goes.
+   *
+   * @return maxDepth The maximum depth in moves.
+   */
+  public int getMaxDepth() {
+
+    return maxDepth;
+  }
+
+  /**
+   * setMaxDepth sets the deepest the search goes, at least 1.
+   *
+   * @param maxDepth The maximum depth in moves.
+   */
+  public void setMaxDepth(int maxDepth) {
+
+    this.maxDepth = Math.max(maxDepth, 1);
+  }
+
+  /**
+   * getTimeLimit retrieves how many milliseconds the search can take.
+   *
+   * @return timeLimit The time limit in milliseconds, 0 if there is no limit.
+   */
+  public long getTimeLimit() {
+
+    return timeLimit;
+  }
+
+  /**
+   * setTimeLimit sets how many milliseconds the search can take.
+   *
+   * @param timeLimit The time limit in milliseconds, 0 for no limit.
+   */
+  public void setTimeLimit(long timeLimit) {
+
+    if (timeLimit >= 0) {
+
+      this.timeLimit = timeLimit;
+    }
+  }
+
+  /**
+   * getNodeLimit retrieves how many positions the search can visit.
+   *
+   * @return nodeLimit The node limit, 0 if there is no limit.
+   */
+  public long getNodeLimit() {
+
+    return nodeLimit;
+  }
+
+  /**
+   * setNodeLimit sets how many positions the search can visit.
+   *
+   * @param nodeLimit The node limit, 0 for no limit.
+   */
+  public void setNodeLimit(long nodeLimit) {
+
+    if (nodeLimit >= 0) {
+
+      this.nodeLimit = nodeLimit;
+    }
+  }
+
+  /**
+   * getTable retrieves the transposition table the search uses.
+   *
+   * @return table The transposition table, or null if there is none.
+   */
+  public TranspositionTable getTable() {
+
+    return table;
+  }
+
+  /**
+   * setTable sets the transposition table the search uses, it is not emptied by the search.
+   *
+   * @param table The transposition table, or null to search without one.
+   */
+  public void setTable(TranspositionTable table) {
+
+    this.table = table;
+  }
+
+  /**
+   * getOrdering retrieves the MoveOrdering whose killer moves and history scores the search starts from.
+   *
+   * @return ordering The MoveOrdering, or null if there is none.
+   */
+  public MoveOrdering getOrdering() {
+
+    return ordering;
+  }
+
+  /**
+   * setOrdering sets the MoveOrdering whose killer moves and history scores the search starts from. Its killer moves and history
+   * scores are replaced by the ones the search ends with, its heuristics are not used.
+   *
+   * @param ordering The MoveOrdering, or null to start from the engine's.
+   */
+  public void setOrdering(MoveOrdering ordering) {
+
+    this.ordering = ordering;
+  }
+
+  /**
+   * stop tells a running search to stop as soon as it next checks its limits, it returns the best column of the deepest search
+   * that finished like it does when the time limit is reached. A search started with these limits afterwards stops straight away.
+   */
+  public void stop() {
+
+    stopped = true;
+  }
+
+  /**
+   * isStopped retrieves whether or not the search has been told to stop.
+   *
+   * @return stopped Whether or not stop has been called.
+   */
+  public boolean isStopped() {
+
+    return stopped;
+  }
+
+}
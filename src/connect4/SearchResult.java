@@ -0,0 +1,121 @@
+package connect4;
+
+/**
+ * SearchResult stores what a SearchEngine found: the best column, its score, and how deep and how long the search went.
+ *
+ * <p>A SearchResult can't be changed once it is created, so it can be handed between threads freely.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class SearchResult {
+
+  /**
+   * column stores the best column found, or -1 if there is no column to play.
+   */
+  private final int column;
+
+  /**
+   * score stores the score of the best column for the player who searched.
+   */
+  private final int score;
+
+  /**
+   * depth stores the depth of the deepest search that finished.
+   */
+  private final int depth;
+
+  /**
+   * nodeCount stores how many positions every thread of the search visited.
+   */
+  private final long nodeCount;
+
+  /**
+   * searchTime stores how many nanoseconds the search took.
+   */
+  private final long searchTime;
+
+  /**
+   * Constructor for SearchResult that takes every part of the result.
+   *
+   * @param column The best column found, or -1 if there is no column to play.
+   * @param score The score of the best column.
+   * @param depth The depth of the deepest search that finished.
+   * @param nodeCount How many positions the search visited.
+   * @param searchTime How many nanoseconds the search took.
+   */
+  public SearchResult(int column, int score, int depth, long nodeCount, long searchTime) {
+
+    this.column = column;
+    this.score = score;
+    this.depth = depth;
+    this.nodeCount = nodeCount;
+    this.searchTime = searchTime;
+  }
+
+  /**
+   * getColumn retrieves the best column found.
+   *
+   * @return column The best column, or -1 if there is no column to play.
+   */
+  public int getColumn() {
+
+    return column;
+  }
+
+  /**
+   * getScore retrieves the score of the best column, above NegamaxEngine.WIN_SCORE for a win and below its negation for a loss.
+   *
+   * @return score The score of the best column.
+   */
+  public int getScore() {
+
+    return score;
+  }
+
+  /**
+   * getDepth retrieves the depth of the deepest search that finished.
+   *
+   * @return depth The depth searched to.
+   */
+  public int getDepth() {
+
+    return depth;
+  }
+
+  /**
+   * getNodeCount retrieves how many positions every thread of the search visited.
+   *
+   * @return nodeCount The number of positions visited.
+   */
+  public long getNodeCount() {
+
+    return nodeCount;
+  }
+
+  /**
+   * getSearchTime retrieves how long the search took.
+   *
+   * @return The time in milliseconds.
+   */
+  public long getSearchTime() {
+
+    return searchTime / 1000000;
+  }
+
+  /**
+   * getNodesPerSecond retrieves how many positions per second every thread of the search together visited.
+   *
+   * @return The number of positions visited per second, 0 if the search took no time.
+   */
+  public long getNodesPerSecond() {
+
+    if (searchTime == 0) {
+
+      return 0;
+    }
+
+    return nodeCount * 1000000000L / searchTime;
+  }
+
+}
@@ -0,0 +1,496 @@
+package connect4;
+
+/**
+ * Solver is a SearchEngine that plays perfectly, it searches every position to the end of the game instead of stopping at a depth
+ * and guessing with an evaluation.
+ *
+ * <p>The score of a position for the player to move is 0 for a draw, and otherwise depends on how many of the player's own tokens
+ * are left when the game is won or lost. A win with the player's last token (the 21st) scores 1, and winning sooner scores more, up
+ * to 18 for a win with the 4th token. A loss scores the negative of the opponent's winning score. Since a quicker win always scores
+ * more, the best column wins as quickly as possible or loses as slowly as possible.
+ *
+ * <p>The exact score is found by bisection: each search only asks whether the score is above a value, with a window of width one
+ * (a null window), which is much faster than a search with a wide window. The answer halves the range the score can be in, and the
+ * searches repeat until one value is left. Null window searches fail quickly and store a bound in the transposition table for every
+ * position they visit, so each search is faster than the last.
+ *
+ * <p>Within each search:
+ * <ul>
+ * <li>a position where the player to move can win straight away is scored without searching.</li>
+ * <li>if the opponent threatens to win, the player has to block, and two threats at once are a loss.</li>
+ * <li>a column is never played below a space the opponent wins in, since the opponent would play there next.</li>
+ * <li>columns that make more new threats of four are searched first, then columns nearer the middle.</li>
+ * <li>the bounds already known from the number of moves left, and from the transposition table, narrow the window.</li>
+ * <li>a player with no window of four left that the other player has no tokens in can't win, so their score is at most a draw,
+ * and a position neither player can win in any more is a draw without searching it.</li>
+ * </ul>
+ *
+ * <p>The result of search is scored like the NegamaxEngine's, NegamaxEngine.WIN_SCORE plus the score for a win and minus
+ * NegamaxEngine.WIN_SCORE plus the score for a loss, so the two engines can be used interchangeably. solve returns the score
+ * itself. If the search reaches its time or node limit before the position is solved, the result has no column (-1).
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class Solver implements SearchEngine {
+
+  /**
+   * MIN_SCORE is the lowest score a position can have, losing to the opponent's 4th token.
+   */
+  public static final int MIN_SCORE = -(Bitboard.WIDTH * Bitboard.HEIGHT) / 2 + 3;
+
+  /**
+   * MAX_SCORE is the highest score a position can have, winning with the player's 4th token.
+   */
+  public static final int MAX_SCORE = (Bitboard.WIDTH * Bitboard.HEIGHT + 1) / 2 - 3;
+
+  /**
+   * CHECK_INTERVAL is how many positions are visited between checks of the clock, one less than a power of two.
+   */
+  private static final int CHECK_INTERVAL = 4095;
+
+  /**
+   * CENTER_ORDER stores the columns from the middle out, the order columns with the same number of threats are searched in.
+   */
+  private static final int[] CENTER_ORDER = {3, 2, 4, 1, 5, 0, 6};
+
+  /**
+   * search solves a position and finds a column that gets its score.
+   *
+   * <p>Only the time and node limits, the stop request and the transposition table are used from the limits, the maximum depth is
+   * ignored since the solver always searches to the end of the game. The table keeps bounds that are true no matter how the
+   * position was reached, so it never needs to be emptied.
+   *
+   * @param position The position to solve, it is not changed by the search.
+   * @param player The player to move (1 or 2).
+   * @param limits The time and node limits and the transposition table of the search.
+   * @return result The best column and its score, or a column of -1 if the limits were reached first.
+   */
+  @Override
+  public SearchResult search(Bitboard position, int player, SearchLimits limits) {
+
+    long start = System.nanoTime();
+    Solve run = new Solve(limits, start);
+    long current = position.getTokens(player);
+    long mask = position.getMask();
+    int moves = position.getMoveCount();
+    int bestCol = -1;
+    int score = 0;
+
+    if (moves < Bitboard.WIDTH * Bitboard.HEIGHT) {
+
+      score = run.solve(current, mask, moves);
+      if (!run.stopped) {
+
+        bestCol = run.bestColumn(current, mask, moves, score);
+      }
+    }
+
+    if (run.stopped) {
+
+      bestCol = -1;
+    }
+
+    return new SearchResult(bestCol, toEngineScore(score), 42 - moves, run.nodes, System.nanoTime() - start);
+  }
+
+  /**
+   * solve finds the exact score of a position for the player to move, with no time or node limit.
+   *
+   * @param position The position to solve, it is not changed.
+   * @param player The player to move (1 or 2).
+   * @param table The transposition table to use, or null to solve without one.
+   * @return score The score of the position, from MIN_SCORE to MAX_SCORE.
+   */
+  public int solve(Bitboard position, int player, TranspositionTable table) {
+
+    SearchLimits limits = new SearchLimits(42);
+    limits.setTable(table);
+
+    return new Solve(limits, System.nanoTime()).solve(position.getTokens(player), position.getMask(), position.getMoveCount());
+  }
+
+  /**
+   * toEngineScore converts a score from the solver to the scale used by the NegamaxEngine.
+   *
+   * @param score The score from the solver.
+   * @return The score on the NegamaxEngine's scale.
+   */
+  public static int toEngineScore(int score) {
+
+    if (score > 0) {
+
+      return NegamaxEngine.WIN_SCORE + score;
+    } else if (score < 0) {
+
+      return -(NegamaxEngine.WIN_SCORE - score);
+    } else {
+
+      return 0;
+    }
+  }
+
+  /**
+   * fromEngineScore converts a score on the NegamaxEngine's scale, such as the score of a result from search, back to the
+   * solver's own scale.
+   *
+   * @param score The score on the NegamaxEngine's scale.
+   * @return The score from MIN_SCORE to MAX_SCORE.
+   */
+  public static int fromEngineScore(int score) {
+
+    if (score > 0) {
+
+      return score - NegamaxEngine.WIN_SCORE;
+    } else if (score < 0) {
+
+      return score + NegamaxEngine.WIN_SCORE;
+    } else {
+
+      return 0;
+    }
+  }
+
+  /**
+   * movesToEnd works out how many more moves (by both players) the game lasts with perfect play, from a score and the number of
+   * moves already played.
+   *
+   * @param score The score of the position for the player to move, not 0.
+   * @param moves The number of moves already played.
+   * @return The number of moves until the winning token is played.
+   */
+  public static int movesToEnd(int score, int moves) {
+
+    if (score > 0) {
+
+      /* The player to move wins with their (22 - score)th token, and has played moves / 2 tokens so far. */
+      return 2 * (22 - score - moves / 2) - 1;
+    } else {
+
+      /* The opponent wins with their (22 + score)th token, and has played (moves + 1) / 2 tokens so far. */
+      return 2 * (22 + score - (moves + 1) / 2);
+    }
+  }
+
+  /**
+   * Solve stores everything one call of search or solve changes, so one Solver can solve positions on many threads at once.
+   */
+  private static class Solve {
+
+    /**
+     * limits stores the time and node limits of the search.
+     */
+    private final SearchLimits limits;
+
+    /**
+     * table stores the transposition table of the search, or null if there is none.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * deadline stores the System.nanoTime the search has to stop at, if there is a time limit.
+     */
+    private final long deadline;
+
+    /**
+     * nodes stores how many positions the search has visited.
+     */
+    private long nodes;
+
+    /**
+     * stopped stores whether or not the search reached its time or node limit.
+     */
+    private boolean stopped;
+
+    /**
+     * moveLists stores the moves of the position being searched at each number of moves played, as the bit of the new token.
+     */
+    private final long[][] moveLists = new long[Bitboard.WIDTH * Bitboard.HEIGHT + 1][Bitboard.WIDTH];
+
+    /**
+     * moveScores stores how many threats each move in moveLists makes.
+     */
+    private final int[][] moveScores = new int[Bitboard.WIDTH * Bitboard.HEIGHT + 1][Bitboard.WIDTH];
+
+    /**
+     * Constructor for Solve that takes the limits of the search and the time it started.
+     *
+     * @param limits The time and node limits and the transposition table of the search.
+     * @param start The System.nanoTime the search started at.
+     */
+    private Solve(SearchLimits limits, long start) {
+
+      this.limits = limits;
+      this.table = limits.getTable();
+      this.deadline = start + limits.getTimeLimit() * 1000000L;
+    }
+
+    /**
+     * solve finds the exact score of a position by bisection with null window searches.
+     *
+     * <p>The value tested first is moved towards 0, since most positions near the start of the game are close to a draw and
+     * searches near 0 are the quickest.
+     *
+     * @param current The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param moves The number of moves already played.
+     * @return score The score of the position, or 0 if the search was stopped.
+     */
+    private int solve(long current, long mask, int moves) {
+
+      if (Threats.winningMoves(current, mask) != 0) {
+
+        return (43 - moves) / 2;
+      }
+
+      int min = -(42 - moves) / 2;
+      int max = (43 - moves) / 2;
+
+      while (min < max && !stopped) {
+
+        int med = min + (max - min) / 2;
+        if (med <= 0 && min / 2 < med) {
+
+          med = min / 2;
+        } else if (med >= 0 && max / 2 > med) {
+
+          med = max / 2;
+        }
+
+        int result = negamax(current, mask, moves, med, med + 1);
+        if (result <= med) {
+
+          max = result;
+        } else {
+
+          min = result;
+        }
+      }
+
+      return min;
+    }
+
+    /**
+     * bestColumn finds a column that gets the score of the position, trying columns nearer the middle first.
+     *
+     * @param current The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param moves The number of moves already played.
+     * @param score The score of the position.
+     * @return col A column that gets the score, or -1 if the search was stopped.
+     */
+    private int bestColumn(long current, long mask, int moves, int score) {
+
+      long playable = Threats.playable(mask);
+
+      /* A winning move is always the quickest win. */
+      long wins = Threats.winningMoves(current, mask);
+      for (int c : CENTER_ORDER) {
+
+        if ((wins & Bitboard.columnMask(c)) != 0) {
+
+          return c;
+        }
+      }
+
+      /* negamax needs the opponent to have no win straight away, so only blocks and columns not under a space the opponent wins
+         in are tried. If every column loses straight away, any column gets the score. */
+      long next = Threats.nonLosingMoves(current, mask);
+      if (next == 0) {
+
+        for (int c : CENTER_ORDER) {
+
+          if ((playable & Bitboard.columnMask(c)) != 0) {
+
+            return c;
+          }
+        }
+      }
+
+      for (int c : CENTER_ORDER) {
+
+        long move = next & Bitboard.columnMask(c);
+        if (move != 0) {
+
+          /* The column gets the score if the opponent's score after it is no more than the negative of it. */
+          int result = -negamax(current ^ mask, mask | move, moves + 1, -score, -score + 1);
+          if (stopped) {
+
+            return -1;
+          }
+          if (result >= score) {
+
+            return c;
+          }
+        }
+      }
+
+      return -1;
+    }
+
+    /**
+     * negamax searches a position to the end of the game with fail-soft alpha-beta pruning, and returns its score for the player
+     * to move.
+     *
+     * <p>The player to move can't win straight away, solve and the moves searched before this make sure of that.
+     *
+     * @param current The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param moves The number of moves already played.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta The score the other player is already guaranteed, negated.
+     * @return score The score of the position, exact if it is between alpha and beta and otherwise a bound.
+     */
+    private int negamax(long current, long mask, int moves, int alpha, int beta) {
+
+      nodes ++;
+      if ((nodes & CHECK_INTERVAL) == 0) {
+
+        checkLimits();
+      }
+      if (stopped) {
+
+        return alpha;
+      }
+
+      long opponent = current ^ mask;
+
+      /* A threat of the opponent's has to be blocked, and a column is never played under a space the opponent wins in, since
+      the opponent would play there next. With no moves left, the opponent wins next move. */
+      long next = Threats.nonLosingMoves(current, mask);
+      if (next == 0) {
+
+        return -(42 - moves) / 2;
+      }
+
+      /* With two moves left and no way to win, the game is a draw. */
+      if (moves >= 40) {
+
+        return 0;
+      }
+
+      /* The opponent can't win with their next token, so the player can't lose sooner than the token after. An opponent with no
+      window left that the player has no tokens in can't win at all, so the player can't do worse than a draw. */
+      int min = -(40 - moves) / 2;
+      if (!Bitboard.hasFour(Bitboard.BOARD_MASK & ~current)) {
+
+        min = 0;
+      }
+      if (alpha < min) {
+
+        alpha = min;
+        if (alpha >= beta) {
+
+          return alpha;
+        }
+      }
+
+      /* The player can't win with this token, so the best possible score is winning with the next one, or a draw for a player
+      with no window left to win in. */
+      int max = (41 - moves) / 2;
+      if (!Bitboard.hasFour(Bitboard.BOARD_MASK & ~opponent)) {
+
+        max = 0;
+      }
+      long key = current + mask;
+      if (table != null) {
+
+        long entry = table.probe(key);
+        if (entry != 0) {
+
+          int bound = TranspositionTable.scoreOf(entry);
+          if (TranspositionTable.boundOf(entry) == TranspositionTable.LOWER) {
+
+            if (alpha < bound) {
+
+              alpha = bound;
+              if (alpha >= beta) {
+
+                return alpha;
+              }
+            }
+          } else if (bound < max) {
+
+            max = bound;
+          }
+        }
+      }
+      if (beta > max) {
+
+        beta = max;
+        if (alpha >= beta) {
+
+          return beta;
+        }
+      }
+
+      /* Orders the moves by the number of spaces the player would win in after them, then from the middle out. */
+      long[] moveList = moveLists[moves];
+      int[] scores = moveScores[moves];
+      int count = 0;
+      for (int i = CENTER_ORDER.length - 1; i >= 0; i --) {
+
+        long move = next & Bitboard.columnMask(CENTER_ORDER[i]);
+        if (move != 0) {
+
+          int score = Long.bitCount(Threats.winningSpaces(current | move, mask));
+          int j = count ++;
+          while (j > 0 && scores[j - 1] > score) {
+
+            moveList[j] = moveList[j - 1];
+            scores[j] = scores[j - 1];
+            j --;
+          }
+          moveList[j] = move;
+          scores[j] = score;
+        }
+      }
+
+      for (int i = count - 1; i >= 0; i --) {
+
+        int score = -negamax(opponent, mask | moveList[i], moves + 1, -beta, -alpha);
+        if (stopped) {
+
+          return alpha;
+        }
+
+        if (score >= beta) {
+
+          if (table != null) {
+
+            table.store(key, score, TranspositionTable.LOWER, 42 - moves, -1);
+          }
+          return score;
+        }
+        if (score > alpha) {
+
+          alpha = score;
+        }
+      }
+
+      if (table != null) {
+
+        table.store(key, alpha, TranspositionTable.UPPER, 42 - moves, -1);
+      }
+      return alpha;
+    }
+
+    /**
+     * checkLimits stops the search if it has reached its time or node limit, or has been told to stop.
+     */
+    private void checkLimits() {
+
+      if (limits.getNodeLimit() > 0 && nodes >= limits.getNodeLimit()) {
+
+        stopped = true;
+      } else if (limits.getTimeLimit() > 0 && System.nanoTime() - deadline >= 0) {
+
+        stopped = true;
+      } else if (limits.isStopped()) {
+
+        stopped = true;
+      }
+    }
+  }
+
+}
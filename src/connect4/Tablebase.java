@@ -0,0 +1,240 @@
+package connect4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tablebase looks up the best column and score of positions near the end of the game in a file written by TablebaseGenerator.
+ *
+ * <p>Every position in the file has at most maxEmpty empty spaces. The file has the same layout as an OpeningBook file, with its
+ * own magic number and the largest number of empty spaces in place of the number of moves, and is memory mapped and searched the
+ * same way. A position that is not in the file (one that was never reached from the positions the tablebase was generated
+ * from) has to be searched.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class Tablebase {
+
+  /**
+   * TABLEBASE_FILE is the name of the tablebase file looked for in the working directory by loadDefault.
+   */
+  public static final String TABLEBASE_FILE = "connect4.tablebase";
+
+  /**
+   * MAGIC is the first int of every tablebase file, the characters "C4TB".
+   */
+  public static final int MAGIC = 0x43345442;
+
+  /**
+   * VERSION is the version of the file layout, changed whenever the layout changes.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * HEADER_BYTES is the size of the header at the start of the file.
+   */
+  public static final int HEADER_BYTES = 16;
+
+  /**
+   * defaultTablebase stores the tablebase loaded by loadDefault, so the file is only mapped once.
+   */
+  private static Tablebase defaultTablebase;
+
+  /**
+   * defaultLoaded stores whether or not loadDefault has already looked for the tablebase file.
+   */
+  private static boolean defaultLoaded;
+
+  /**
+   * buffer stores the mapped contents of the tablebase file.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * maxEmpty stores the most empty spaces a position in the tablebase has.
+   */
+  private final int maxEmpty;
+
+  /**
+   * size stores how many positions are in the tablebase.
+   */
+  private final int size;
+
+  /**
+   * Constructor for Tablebase that maps a tablebase file.
+   *
+   * @param file The path of the tablebase file.
+   * @throws IOException If the file can't be read or is not a tablebase file of this version.
+   */
+  public Tablebase(Path file) throws IOException {
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+
+        throw new IOException(file + " is not a tablebase.");
+      }
+      if (mapped.getInt(4) != VERSION) {
+
+        throw new IOException(file + " is version " + mapped.getInt(4) + " of the tablebase, not version " + VERSION + ".");
+      }
+
+      maxEmpty = mapped.getInt(8);
+      size = mapped.getInt(12);
+      if (mapped.capacity() != HEADER_BYTES + (long) size * 10) {
+
+        throw new IOException(file + " is not the right length for " + size + " positions.");
+      }
+      buffer = mapped;
+    }
+  }
+
+  /**
+   * loadDefault maps TABLEBASE_FILE from the working directory the first time it is called.
+   *
+   * @return The tablebase, or null if there is no tablebase file or it can't be read.
+   */
+  public static synchronized Tablebase loadDefault() {
+
+    if (!defaultLoaded) {
+
+      defaultLoaded = true;
+      Path file = Paths.get(TABLEBASE_FILE);
+      if (Files.isReadable(file)) {
+
+        try {
+
+          defaultTablebase = new Tablebase(file);
+        } catch (IOException e) {
+
+          defaultTablebase = null;
+        }
+      }
+    }
+
+    return defaultTablebase;
+  }
+
+  /**
+   * getMaxEmpty retrieves the most empty spaces a position in the tablebase has.
+   *
+   * @return maxEmpty The number of empty spaces.
+   */
+  public int getMaxEmpty() {
+
+    return maxEmpty;
+  }
+
+  /**
+   * getSize retrieves how many positions are in the tablebase.
+   *
+   * @return size The number of positions.
+   */
+  public int getSize() {
+
+    return size;
+  }
+
+  /**
+   * getColumn looks up the best column of a position.
+   *
+   * @param position The position to look up.
+   * @param player The player to move (1 or 2).
+   * @return The best column, or -1 if the position is not in the tablebase.
+   */
+  public int getColumn(Bitboard position, int player) {
+
+    long key = position.getKey();
+    int index = find(position, player);
+    if (index < 0) {
+
+      return -1;
+    }
+
+    int col = buffer.get(HEADER_BYTES + size * 8 + index);
+    if (getKeyAt(index) != key) {
+
+      /* The mirror image was found, so its column is flipped back. */
+      col = Bitboard.WIDTH - 1 - col;
+    }
+
+    return col;
+  }
+
+  /**
+   * getScore looks up the score of a position for the player to move, on the Solver's scale.
+   *
+   * @param position The position to look up.
+   * @param player The player to move (1 or 2).
+   * @return The score from Solver.MIN_SCORE to Solver.MAX_SCORE, or Integer.MIN_VALUE if the position is not in the tablebase.
+   */
+  public int getScore(Bitboard position, int player) {
+
+    int index = find(position, player);
+    if (index < 0) {
+
+      return Integer.MIN_VALUE;
+    }
+
+    return buffer.get(HEADER_BYTES + size * 9 + index);
+  }
+
+  /**
+   * find looks for a position or its mirror image in the tablebase with a binary search.
+   *
+   * @param position The position to look for.
+   * @param player The player to move, the tablebase only has positions where the first player moved first.
+   * @return index The index of the position, or -1 if it is not in the tablebase.
+   */
+  private int find(Bitboard position, int player) {
+
+    int moves = position.getMoveCount();
+    if (Bitboard.WIDTH * Bitboard.HEIGHT - moves > maxEmpty || player != (moves % 2 == 0 ? 1 : 2)) {
+
+      return -1;
+    }
+
+    long key = position.getKey();
+    long target = Math.min(key, Bitboard.mirror(key));
+    int low = 0;
+    int high = size - 1;
+
+    while (low <= high) {
+
+      int mid = (low + high) >>> 1;
+      long midKey = getKeyAt(mid);
+      if (midKey < target) {
+
+        low = mid + 1;
+      } else if (midKey > target) {
+
+        high = mid - 1;
+      } else {
+
+        return mid;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * getKeyAt reads the key stored at an index.
+   *
+   * @param index The index of the position.
+   * @return The key stored at the index.
+   */
+  private long getKeyAt(int index) {
+
+    return buffer.getLong(HEADER_BYTES + index * 8);
+  }
+
+}
@@ -0,0 +1,219 @@
+package connect4;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TablebaseGenerator writes a tablebase file, read by Tablebase, with the best column and score of positions near the end of the
+ * game.
+ *
+ * <p>Every position with a few empty spaces is far too many to store, so the tablebase starts from the positions games actually
+ * reach. Games are played by two NegamaxEngines, the first few moves at random so every game is different, and the position each
+ * game reaches with maxEmpty empty spaces is kept. Every position that can follow those is then found, keeping only one of a
+ * position and its mirror image, and they are solved by retrograde analysis: the positions with one empty space are scored
+ * first, then the positions with two from them, and so on back to maxEmpty. Each position is scored from the positions after
+ * each of its columns, so nothing is searched, and the positions with the same number of empty spaces are split between several
+ * threads since none of them depend on each other.
+ *
+ * <p>Usage: java connect4.TablebaseGenerator [empty spaces] [games] [file] [threads], the default is 12 empty spaces from 1000
+ * games written to Tablebase.TABLEBASE_FILE with one thread per processor.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class TablebaseGenerator {
+
+  /**
+   * RANDOM_MOVES is how many moves at the start of each game are played at random.
+   */
+  private static final int RANDOM_MOVES = 8;
+
+  /**
+   * GAME_DEPTH is the depth the NegamaxEngines search to when playing games.
+   */
+  private static final int GAME_DEPTH = 4;
+
+  /**
+   * main method to generate a tablebase.
+   *
+   * @param args The number of empty spaces, the number of games, the file and the number of threads.
+   * @throws IOException If the file can't be written.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    int maxEmpty = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    Path file = Paths.get(args.length > 2 ? args[2] : Tablebase.TABLEBASE_FILE);
+    int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+    long start = System.currentTimeMillis();
+    List<Bitboard> roots = playGames(games, maxEmpty, new Random(1));
+    int size = generate(roots, maxEmpty, file, threads);
+    System.out.println("Wrote " + size + " positions from " + roots.size() + " games to " + file + " in "
+                       + (System.currentTimeMillis() - start) / 1000 + "s.");
+  }
+
+  /**
+   * playGames plays games between two NegamaxEngines and keeps the position each game reaches with a number of empty spaces.
+   *
+   * <p>Games that are won before then are thrown away, so there can be fewer positions than games.
+   *
+   * @param games The number of games to play.
+   * @param maxEmpty The number of empty spaces the positions are kept at.
+   * @param random The random number generator for the first moves of each game.
+   * @return roots The positions reached.
+   */
+  public static List<Bitboard> playGames(int games, int maxEmpty, Random random) {
+
+    NegamaxEngine engine = new NegamaxEngine();
+    TranspositionTable table = new TranspositionTable(1);
+    List<Bitboard> roots = new ArrayList<>();
+    int target = Bitboard.WIDTH * Bitboard.HEIGHT - maxEmpty;
+
+    for (int g = 0; g < games; g ++) {
+
+      Bitboard position = new Bitboard();
+      int player = 1;
+      boolean won = false;
+
+      while (position.getMoveCount() < target && !won) {
+
+        int col;
+        if (position.getMoveCount() < RANDOM_MOVES) {
+
+          do {
+
+            col = random.nextInt(Bitboard.WIDTH);
+          } while (!position.canPlay(col));
+        } else {
+
+          table.clear();
+          SearchLimits limits = new SearchLimits(GAME_DEPTH);
+          limits.setTable(table);
+          col = engine.search(position, player, limits).getColumn();
+        }
+        position.makeMove(col, player);
+        won = position.isWin(player);
+        player = 3 - player;
+      }
+
+      if (!won) {
+
+        roots.add(position);
+      }
+    }
+
+    return roots;
+  }
+
+  /**
+   * generate solves every position that can follow a list of positions, and writes them to a tablebase file.
+   *
+   * @param roots The positions to start from, each with at most maxEmpty empty spaces.
+   * @param maxEmpty The most empty spaces a position in the tablebase has.
+   * @param file The file to write the tablebase to.
+   * @param threads The number of threads solving positions.
+   * @return The number of positions written.
+   * @throws IOException If the file can't be written.
+   * @throws InterruptedException If the generator is interrupted while solving.
+   */
+  public static int generate(List<Bitboard> roots, int maxEmpty, Path file, int threads) throws IOException, InterruptedException {
+
+    int cells = Bitboard.WIDTH * Bitboard.HEIGHT;
+    List<Map<Long, Bitboard>> levels = new ArrayList<>();
+    for (int empty = 0; empty <= maxEmpty; empty ++) {
+
+      levels.add(new HashMap<>());
+    }
+    for (Bitboard root : roots) {
+
+      int empty = cells - root.getMoveCount();
+      if (empty > 0 && empty <= maxEmpty) {
+
+        levels.get(empty).putIfAbsent(BookGenerator.canonicalKey(root), new Bitboard(root));
+      }
+    }
+
+    /* Finds every position that can follow the roots, games that have been won or filled the board are left out. */
+    for (int empty = maxEmpty; empty > 1; empty --) {
+
+      Map<Long, Bitboard> next = levels.get(empty - 1);
+      for (Bitboard position : levels.get(empty).values()) {
+
+        int player = BookGenerator.playerToMove(position.getMoveCount());
+        for (int c = 0; c < Bitboard.WIDTH; c ++) {
+
+          if (position.canPlay(c)) {
+
+            Bitboard child = new Bitboard(position);
+            child.makeMove(c, player);
+            if (!child.isWin(player)) {
+
+              next.putIfAbsent(BookGenerator.canonicalKey(child), child);
+            }
+          }
+        }
+      }
+    }
+
+    /* Scores the positions one empty space at a time, each from the positions with one less. */
+    Map<Long, byte[]> entries = new HashMap<>();
+    for (int empty = 1; empty <= maxEmpty; empty ++) {
+
+      scoreLevel(levels.get(empty), entries, threads);
+      levels.set(empty, null);
+    }
+
+    BookGenerator.write(entries, Tablebase.MAGIC, Tablebase.VERSION, maxEmpty, file);
+    return entries.size();
+  }
+
+  /**
+   * scoreLevel scores positions with the same number of empty spaces on several threads, from the entries already found for
+   * the positions after them.
+   *
+   * @param level The positions to score, by canonical key.
+   * @param entries The entries of the tablebase, only read by the threads and added to once they have finished.
+   * @param threads The number of threads scoring positions.
+   * @throws InterruptedException If the generator is interrupted while scoring.
+   */
+  private static void scoreLevel(Map<Long, Bitboard> level, Map<Long, byte[]> entries, int threads) throws InterruptedException {
+
+    Bitboard[] positions = level.values().toArray(new Bitboard[0]);
+    byte[][] results = new byte[positions.length][];
+    AtomicInteger nextIndex = new AtomicInteger();
+    Thread[] workers = new Thread[Math.max(threads, 1)];
+
+    for (int t = 0; t < workers.length; t ++) {
+
+      workers[t] = new Thread(() -> {
+
+        int i;
+        while ((i = nextIndex.getAndIncrement()) < positions.length) {
+
+          results[i] = BookGenerator.scoreFromChildren(positions[i], entries);
+        }
+      });
+      workers[t].start();
+    }
+
+    for (Thread worker : workers) {
+
+      worker.join();
+    }
+
+    for (int i = 0; i < positions.length; i ++) {
+
+      entries.put(BookGenerator.canonicalKey(positions[i]), results[i]);
+    }
+  }
+
+}
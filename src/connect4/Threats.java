@@ -0,0 +1,198 @@
+package connect4;
+
+/**
+ * Threats finds the spaces each player would win in and the moves that win, block or keep the game going, with a few shifts of
+ * the Bitboard's tokens instead of playing every column and checking for four in a row.
+ *
+ * <p>A space a player wins in is a threat. A threat in the next space of a column can be played straight away, so the player to
+ * move wins there and the other player has to block there. A threat of the other player's directly above the next space of a
+ * column means playing that column lets the other player win on top of it. The moves that are neither are the non-losing moves,
+ * and a position with none of them is lost straight away: either the other player has two threats that can be played, or every
+ * column the player could block with is under another threat. Chaining threats the other player has to block until they run
+ * out of non-losing moves is a forced win, which forcedWin looks for.
+ *
+ * <p>Every method takes the tokens of the player to move and every token on the board, like Bitboard.getTokens and
+ * Bitboard.getMask return, so the Solver can use them on its own longs. The moves returned are the bits of the spaces the moves
+ * would be played in, columnOf turns one into a column.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class Threats {
+
+  /**
+   * winningSpaces finds every empty space a player would win by having a token in, whether or not it can be played yet.
+   *
+   * @param tokens The tokens of the player.
+   * @param mask Every token on the board.
+   * @return The empty spaces that complete four in a row for the player.
+   */
+  public static long winningSpaces(long tokens, long mask) {
+
+    int h1 = Bitboard.HEIGHT + 1;
+
+    /* Vertical, only three tokens directly below the space. */
+    long result = (tokens << 1) & (tokens << 2) & (tokens << 3);
+
+    /* Horizontal and both diagonals, the shifts for the column beside the space in each direction. */
+    for (int shift = h1 - 1; shift <= h1 + 1; shift ++) {
+
+      long pair = (tokens << shift) & (tokens << 2 * shift);
+      result |= pair & (tokens << 3 * shift);
+      result |= pair & (tokens >>> shift);
+      pair = (tokens >>> shift) & (tokens >>> 2 * shift);
+      result |= pair & (tokens << shift);
+      result |= pair & (tokens >>> 3 * shift);
+    }
+
+    return result & (Bitboard.BOARD_MASK ^ mask);
+  }
+
+  /**
+   * playable finds the space each column would be played in next.
+   *
+   * @param mask Every token on the board.
+   * @return The next space of every column that is not full.
+   */
+  public static long playable(long mask) {
+
+    return (mask + Bitboard.BOTTOM_MASK) & Bitboard.BOARD_MASK;
+  }
+
+  /**
+   * winningMoves finds the moves that win the game for the player to move straight away.
+   *
+   * @param tokens The tokens of the player to move.
+   * @param mask Every token on the board.
+   * @return The spaces the player wins by playing in.
+   */
+  public static long winningMoves(long tokens, long mask) {
+
+    return winningSpaces(tokens, mask) & playable(mask);
+  }
+
+  /**
+   * forcedBlocks finds the moves the player to move has to make to stop the other player winning with their next move.
+   *
+   * <p>More than one forced block means the other player has a double threat and the game is lost, unless the player to move
+   * can win first.
+   *
+   * @param tokens The tokens of the player to move.
+   * @param mask Every token on the board.
+   * @return The spaces the other player would win in next move.
+   */
+  public static long forcedBlocks(long tokens, long mask) {
+
+    return winningSpaces(tokens ^ mask, mask) & playable(mask);
+  }
+
+  /**
+   * nonLosingMoves finds the moves that don't let the other player win with their next move, assuming the player to move can't
+   * win straight away.
+   *
+   * @param tokens The tokens of the player to move.
+   * @param mask Every token on the board.
+   * @return The spaces that can be played without losing next move, 0 if every move loses.
+   */
+  public static long nonLosingMoves(long tokens, long mask) {
+
+    long opponentWins = winningSpaces(tokens ^ mask, mask);
+    long moves = playable(mask);
+    long forced = moves & opponentWins;
+
+    /* A threat has to be blocked, and two threats can't both be blocked. */
+    if (forced != 0) {
+
+      if ((forced & (forced - 1)) != 0) {
+
+        return 0;
+      }
+      moves = forced;
+    }
+
+    /* Playing under a space the other player wins in lets them play there next. */
+    return moves & ~(opponentWins >>> 1);
+  }
+
+  /**
+   * forcedWin looks for a win the player to move can force by threatening to win with every move, so every reply of the other
+   * player is a forced block, until the other player has no move that doesn't lose.
+   *
+   * <p>Only the player's threatening moves are tried and the other player only ever has one reply, so the search is tiny compared
+   * to searching every move. A win it finds is a real forced win, but it misses wins that need a quiet move along the way.
+   *
+   * @param tokens The tokens of the player to move.
+   * @param mask Every token on the board.
+   * @param plies The most moves, counting both players, the winning token can be played after.
+   * @return best The number of moves until the winning token of the quickest win found is played, counting both players and the
+   * winning token, or 0 if no win is found.
+   */
+  public static int forcedWin(long tokens, long mask, int plies) {
+
+    if (winningMoves(tokens, mask) != 0) {
+
+      return 1;
+    }
+    if (plies < 3) {
+
+      return 0;
+    }
+
+    int best = 0;
+    for (long moves = nonLosingMoves(tokens, mask); moves != 0; moves &= moves - 1) {
+
+      long move = moves & -moves;
+      long after = tokens | move;
+      long afterMask = mask | move;
+      if (winningMoves(after, afterMask) == 0) {
+
+        continue;
+      }
+
+      /* The move threatens to win, so the other player has to block it, or has no move left that doesn't lose. */
+      long replies = nonLosingMoves(afterMask ^ after, afterMask);
+      if (replies == 0) {
+
+        return 3;
+      }
+
+      /* Once a win is found, only quicker wins are looked for. */
+      int found = forcedWin(after, afterMask | replies, (best > 0 ? best - 2 : plies) - 2);
+      if (found > 0) {
+
+        best = found + 2;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * canWinNow checks if a player can win with their next move.
+   *
+   * @param position The position.
+   * @param player The player to move (1 or 2).
+   * @return Whether or not one of the player's moves wins.
+   */
+  public static boolean canWinNow(Bitboard position, int player) {
+
+    return winningMoves(position.getTokens(player), position.getMask()) != 0;
+  }
+
+  /**
+   * columnOf finds the column of the furthest left space in a set of moves.
+   *
+   * @param moves The spaces of the moves.
+   * @return The column of the furthest left move, or -1 if there are none.
+   */
+  public static int columnOf(long moves) {
+
+    if (moves == 0) {
+
+      return -1;
+    }
+
+    return Long.numberOfTrailingZeros(moves) / (Bitboard.HEIGHT + 1);
+  }
+
+}
@@ -0,0 +1,614 @@
+package connect4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * TranspositionTable is a fixed size cache of positions that have already been searched by the negamax algorithm.
+ *
+ * <p>The same position can be reached through many different orders of moves, so the score, the type of bound the score is,
+ * the depth it was searched to and the best column found are stored for each position. The table has a power of two number of
+ * entries so a position's key can be turned into an index with a mask. When two positions share an index, the replacement policy
+ * decides which one is kept.
+ *
+ * <p>Each entry is a key and a packed long of data, 16 bytes in total. The data packs the score in the top 32 bits, then 8 bits of
+ * depth, 4 bits of best column (plus one, so 0 means no column), 2 bits of bound type and a bit that marks the entry as used.
+ *
+ * <p>The table can be shared by threads searching at the same time without any locks. The key is stored XORed with the data, so
+ * if two threads write the same entry at once and one thread's key ends up with the other thread's data, the key no longer matches
+ * when the entry is probed and the torn entry is treated as missing.
+ *
+ * <p>The entries are kept in two long arrays on the heap, or with OFF_HEAP storage in direct buffers outside of it, so a table of
+ * several gigabytes doesn't make the heap bigger or give the garbage collector more to scan. Both keep the same two longs for each
+ * entry and behave the same. Direct buffers can only hold 2 gigabytes each, so an off-heap table is split into chunks of
+ * CHUNK_ENTRIES entries, and its memory is given back once the table is garbage collected. The JVM only allows as much direct
+ * memory as -XX:MaxDirectMemorySize, which is the maximum heap size unless it is set.
+ *
+ * <p>A table can be saved to a snapshot file and loaded again by a later run, so it starts with the positions earlier runs found.
+ * The file is memory mapped both ways. It starts with a header of 4 ints and a long: the magic number, the version, the number of
+ * entries, the number of blocks and a checksum of the header and the block checksums. After the header comes a checksum for
+ * each block of BLOCK_ENTRIES entries, then every entry as its two longs. A block whose checksum doesn't match is left out when
+ * the file is loaded, and a file whose header doesn't match isn't loaded at all.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class TranspositionTable {
+
+  /**
+   * EXACT is the bound type of a score that is the real score of the position.
+   */
+  public static final int EXACT = 0;
+
+  /**
+   * LOWER is the bound type of a score that the real score is at least (the search failed high).
+   */
+  public static final int LOWER = 1;
+
+  /**
+   * UPPER is the bound type of a score that the real score is at most (the search failed low).
+   */
+  public static final int UPPER = 2;
+
+  /**
+   * REPLACE_ALWAYS is the replacement policy that always stores the newest position.
+   */
+  public static final int REPLACE_ALWAYS = 0;
+
+  /**
+   * REPLACE_DEPTH is the replacement policy that keeps a different position that was searched deeper than the new one.
+   */
+  public static final int REPLACE_DEPTH = 1;
+
+  /**
+   * ENTRY_BYTES is the size of one entry in bytes, a long for the key and a long for the data.
+   */
+  public static final int ENTRY_BYTES = 16;
+
+  /**
+   * ON_HEAP is the storage that keeps the entries in long arrays on the Java heap.
+   */
+  public static final int ON_HEAP = 0;
+
+  /**
+   * OFF_HEAP is the storage that keeps the entries in direct buffers outside of the Java heap.
+   */
+  public static final int OFF_HEAP = 1;
+
+  /**
+   * CHUNK_SHIFT is the power of two of CHUNK_ENTRIES, used to find the chunk of an off-heap entry.
+   */
+  private static final int CHUNK_SHIFT = 26;
+
+  /**
+   * CHUNK_ENTRIES is the most entries in one direct buffer of an off-heap table, 1 gigabyte of entries.
+   */
+  private static final int CHUNK_ENTRIES = 1 << CHUNK_SHIFT;
+
+  /**
+   * TABLE_FILE is the name of the snapshot file the games save the perfect play table to and load it from in the working
+   * directory.
+   */
+  public static final String TABLE_FILE = "connect4.table";
+
+  /**
+   * MAGIC is the first int of every snapshot file, the characters "C4TT".
+   */
+  public static final int MAGIC = 0x43345454;
+
+  /**
+   * VERSION is the version of the snapshot file layout, changed whenever the layout or the packing of an entry changes.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * HEADER_BYTES is the size of the header at the start of a snapshot file.
+   */
+  public static final int HEADER_BYTES = 24;
+
+  /**
+   * BLOCK_ENTRIES is the most entries covered by one checksum of a snapshot file.
+   */
+  private static final int BLOCK_ENTRIES = 1 << 16;
+
+  /**
+   * keys stores the key of the position in each entry, XORed with the entry's data.
+   */
+  private long[] keys;
+
+  /**
+   * data stores the packed score, depth, best column and bound type of the position in each entry.
+   */
+  private long[] data;
+
+  /**
+   * chunks stores the entries of an off-heap table, the key and then the data of each entry, or null if the table is on the heap.
+   */
+  private LongBuffer[] chunks;
+
+  /**
+   * indexMask is the number of entries minus one, used to turn a key into an index.
+   */
+  private int indexMask;
+
+  /**
+   * replacementPolicy stores which policy is used when a new position is stored in a used entry.
+   */
+  private int replacementPolicy;
+
+  /**
+   * Constructor for TranspositionTable that takes the size of the table in megabytes, keeping the entries on the heap.
+   *
+   * <p>The number of entries is the largest power of two that fits in the size, with at least one entry.
+   *
+   * @param megabytes The amount of memory the table can use.
+   */
+  public TranspositionTable(int megabytes) {
+
+    this(megabytes, ON_HEAP);
+  }
+
+  /**
+   * Constructor for TranspositionTable that takes the size of the table in megabytes and where the entries are kept.
+   *
+   * <p>The number of entries is the largest power of two that fits in the size, with at least one entry.
+   *
+   * @param megabytes The amount of memory the table can use.
+   * @param storage ON_HEAP or OFF_HEAP, any other value keeps the entries on the heap.
+   */
+  public TranspositionTable(int megabytes, int storage) {
+
+    long entries = Math.max(1L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+    int size = (int) Long.highestOneBit(Math.min(entries, 1L << 30));
+
+    if (storage == OFF_HEAP) {
+
+      chunks = new LongBuffer[(size + CHUNK_ENTRIES - 1) / CHUNK_ENTRIES];
+      for (int i = 0; i < chunks.length; i ++) {
+
+        int chunkEntries = Math.min(size, CHUNK_ENTRIES);
+        chunks[i] = ByteBuffer.allocateDirect(chunkEntries * ENTRY_BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+      }
+    } else {
+
+      keys = new long[size];
+      data = new long[size];
+    }
+    indexMask = size - 1;
+    setReplacementPolicy(REPLACE_DEPTH);
+  }
+
+  /**
+   * getSize retrieves the number of entries in the table.
+   *
+   * @return The number of entries.
+   */
+  public int getSize() {
+
+    return indexMask + 1;
+  }
+
+  /**
+   * getStorage retrieves where the entries of the table are kept.
+   *
+   * @return ON_HEAP or OFF_HEAP.
+   */
+  public int getStorage() {
+
+    return chunks == null ? ON_HEAP : OFF_HEAP;
+  }
+
+  /**
+   * getReplacementPolicy retrieves which policy is used when a new position is stored in a used entry.
+   *
+   * @return replacementPolicy REPLACE_ALWAYS or REPLACE_DEPTH.
+   */
+  public int getReplacementPolicy() {
+
+    return replacementPolicy;
+  }
+
+  /**
+   * setReplacementPolicy sets which policy is used when a new position is stored in a used entry.
+   *
+   * @param replacementPolicy REPLACE_ALWAYS or REPLACE_DEPTH.
+   */
+  public void setReplacementPolicy(int replacementPolicy) {
+
+    if (replacementPolicy == REPLACE_ALWAYS || replacementPolicy == REPLACE_DEPTH) {
+
+      this.replacementPolicy = replacementPolicy;
+    }
+  }
+
+  /**
+   * clear empties every entry of the table.
+   */
+  public void clear() {
+
+    if (chunks == null) {
+
+      Arrays.fill(keys, 0L);
+      Arrays.fill(data, 0L);
+      return;
+    }
+
+    for (LongBuffer chunk : chunks) {
+
+      for (int i = 0; i < chunk.capacity(); i ++) {
+
+        chunk.put(i, 0L);
+      }
+    }
+  }
+
+  /**
+   * index turns a key into the index of its entry, mixing the bits of the key first so similar keys spread over the table.
+   *
+   * @param key The key of the position.
+   * @return The index of the entry for the position.
+   */
+  private int index(long key) {
+
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & indexMask;
+  }
+
+  /**
+   * probe looks up a position in the table.
+   *
+   * @param key The key of the position.
+   * @return The packed data of the position, or 0 if the position is not in the table.
+   */
+  public long probe(long key) {
+
+    int i = index(key);
+    long entry = dataAt(i);
+
+    if ((keyAt(i) ^ entry) == key) {
+
+      return entry;
+    } else {
+
+      return 0L;
+    }
+  }
+
+  /**
+   * store saves the result of searching a position in the table, following the replacement policy.
+   *
+   * @param key The key of the position.
+   * @param score The score the search returned.
+   * @param bound The bound type of the score (EXACT, LOWER or UPPER).
+   * @param depth The depth the position was searched to.
+   * @param bestCol The best column found, or -1 if there is none.
+   */
+  public void store(long key, int score, int bound, int depth, int bestCol) {
+
+    int i = index(key);
+    if (!replaces(i, key, depth)) {
+
+      return;
+    }
+
+    put(i, key, pack(score, bound, depth, bestCol));
+  }
+
+  /**
+   * replaces checks whether or not the replacement policy lets a position take the place of the entry at an index.
+   *
+   * @param i The index of the entry.
+   * @param key The key of the new position.
+   * @param depth The depth the new position was searched to.
+   * @return Whether or not the new position can be stored.
+   */
+  private boolean replaces(int i, long key, int depth) {
+
+    long entry = dataAt(i);
+
+    return replacementPolicy != REPLACE_DEPTH || (keyAt(i) ^ entry) == key || entry == 0L || depthOf(entry) <= depth;
+  }
+
+  /**
+   * put writes an entry into the table, wherever the entries are kept.
+   *
+   * @param i The index of the entry.
+   * @param key The key of the position.
+   * @param entry The packed data of the position.
+   */
+  private void put(int i, long key, long entry) {
+
+    if (chunks == null) {
+
+      keys[i] = key ^ entry;
+      data[i] = entry;
+    } else {
+
+      LongBuffer chunk = chunks[i >>> CHUNK_SHIFT];
+      int offset = (i & (CHUNK_ENTRIES - 1)) << 1;
+      chunk.put(offset, key ^ entry);
+      chunk.put(offset + 1, entry);
+    }
+  }
+
+  /**
+   * save writes every entry of the table to a snapshot file, replacing the file if it already exists.
+   *
+   * <p>The magic number is cleared before anything else is written and only written again at the end, so a snapshot cut short is
+   * never loaded. The table shouldn't be searched while it is saved, or the snapshot might miss the newest positions.
+   *
+   * @param file The path of the snapshot file.
+   * @throws IOException If the file can't be written.
+   */
+  public void save(Path file) throws IOException {
+
+    int size = getSize();
+    int blockEntries = Math.min(size, BLOCK_ENTRIES);
+    int blocks = size / blockEntries;
+    long entriesStart = HEADER_BYTES + (long) blocks * 8;
+    long length = entriesStart + (long) size * ENTRY_BYTES;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+      /* The file is only cut down when it is too long, so a file the same size can be written over while it is still mapped. */
+      if (channel.size() > length) {
+
+        channel.truncate(length);
+      }
+
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, entriesStart);
+      header.putInt(0, 0);
+      header.force();
+
+      /* A direct buffer can only map 2 gigabytes, so the entries are written in chunks. */
+      for (int first = 0; first < size; first += CHUNK_ENTRIES) {
+
+        int count = Math.min(size - first, CHUNK_ENTRIES);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, entriesStart + (long) first * ENTRY_BYTES,
+            (long) count * ENTRY_BYTES);
+        for (int i = 0; i < count; i ++) {
+
+          mapped.putLong(i * ENTRY_BYTES, keyAt(first + i));
+          mapped.putLong(i * ENTRY_BYTES + 8, dataAt(first + i));
+        }
+        for (int b = 0; b < count; b += blockEntries) {
+
+          header.putLong(HEADER_BYTES + (first + b) / blockEntries * 8, checksum(mapped, b * ENTRY_BYTES, blockEntries * ENTRY_BYTES));
+        }
+        mapped.force();
+      }
+
+      header.putInt(4, VERSION);
+      header.putInt(8, size);
+      header.putInt(12, blocks);
+      header.putLong(16, headerChecksum(header, blocks));
+      header.putInt(0, MAGIC);
+      header.force();
+    }
+  }
+
+  /**
+   * load reads the entries of a snapshot file into the table, following the replacement policy, and leaves out every block of
+   * entries whose checksum doesn't match.
+   *
+   * <p>The snapshot doesn't have to be the same size as the table, each entry is stored again under its own key.
+   *
+   * @param file The path of the snapshot file.
+   * @return loaded The number of entries stored from the file.
+   * @throws IOException If the file can't be read, is not a snapshot of this version or its header is damaged.
+   */
+  public int load(Path file) throws IOException {
+
+    int loaded = 0;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      long fileLength = channel.size();
+      if (fileLength < HEADER_BYTES) {
+
+        throw new IOException(file + " is not a transposition table snapshot.");
+      }
+      MappedByteBuffer start = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (start.getInt(0) != MAGIC) {
+
+        throw new IOException(file + " is not a transposition table snapshot.");
+      }
+      if (start.getInt(4) != VERSION) {
+
+        throw new IOException(file + " is version " + start.getInt(4) + " of the snapshot, not version " + VERSION + ".");
+      }
+
+      int size = start.getInt(8);
+      int blocks = start.getInt(12);
+      if (size <= 0 || blocks <= 0 || size % blocks != 0) {
+
+        throw new IOException(file + " has a damaged header.");
+      }
+      int blockEntries = size / blocks;
+      long entriesStart = HEADER_BYTES + (long) blocks * 8;
+      if (fileLength != entriesStart + (long) size * ENTRY_BYTES) {
+
+        throw new IOException(file + " is not the right length for " + size + " entries.");
+      }
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, entriesStart);
+      if (header.getLong(16) != headerChecksum(header, blocks)) {
+
+        throw new IOException(file + " has a damaged header.");
+      }
+
+      for (long first = 0; first < size; first += CHUNK_ENTRIES) {
+
+        int count = (int) Math.min(size - first, CHUNK_ENTRIES);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, entriesStart + first * ENTRY_BYTES,
+            (long) count * ENTRY_BYTES);
+        for (int b = 0; b < count; b += blockEntries) {
+
+          long expected = header.getLong(HEADER_BYTES + (int) ((first + b) / blockEntries) * 8);
+          if (checksum(mapped, b * ENTRY_BYTES, blockEntries * ENTRY_BYTES) != expected) {
+
+            continue;
+          }
+
+          for (int i = b; i < b + blockEntries; i ++) {
+
+            long entry = mapped.getLong(i * ENTRY_BYTES + 8);
+            if (entry != 0L) {
+
+              long key = mapped.getLong(i * ENTRY_BYTES) ^ entry;
+              int index = index(key);
+              if (replaces(index, key, depthOf(entry))) {
+
+                put(index, key, entry);
+                loaded ++;
+              }
+            }
+          }
+        }
+      }
+    }
+
+    return loaded;
+  }
+
+  /**
+   * checksum works out the CRC-32C of part of a buffer.
+   *
+   * @param buffer The buffer.
+   * @param offset Where the part starts.
+   * @param length The number of bytes in the part.
+   * @return The checksum.
+   */
+  private static long checksum(ByteBuffer buffer, int offset, int length) {
+
+    ByteBuffer part = buffer.duplicate();
+    part.position(offset);
+    part.limit(offset + length);
+    CRC32C crc = new CRC32C();
+    crc.update(part);
+
+    return crc.getValue();
+  }
+
+  /**
+   * headerChecksum works out the checksum of the version, number of entries, number of blocks and block checksums of a snapshot.
+   *
+   * @param header The mapped header and block checksums.
+   * @param blocks The number of blocks.
+   * @return The checksum.
+   */
+  private static long headerChecksum(ByteBuffer header, int blocks) {
+
+    CRC32C crc = new CRC32C();
+    ByteBuffer part = header.duplicate();
+    part.position(4);
+    part.limit(16);
+    crc.update(part);
+    part.limit(HEADER_BYTES + blocks * 8);
+    part.position(HEADER_BYTES);
+    crc.update(part);
+
+    return crc.getValue();
+  }
+
+  /**
+   * keyAt reads the key of an entry, XORed with the entry's data, from wherever the entries are kept.
+   *
+   * @param i The index of the entry.
+   * @return The stored key of the entry.
+   */
+  private long keyAt(int i) {
+
+    if (chunks == null) {
+
+      return keys[i];
+    }
+
+    return chunks[i >>> CHUNK_SHIFT].get((i & (CHUNK_ENTRIES - 1)) << 1);
+  }
+
+  /**
+   * dataAt reads the packed data of an entry from wherever the entries are kept.
+   *
+   * @param i The index of the entry.
+   * @return The packed data of the entry, 0 if it is unused.
+   */
+  private long dataAt(int i) {
+
+    if (chunks == null) {
+
+      return data[i];
+    }
+
+    return chunks[i >>> CHUNK_SHIFT].get(((i & (CHUNK_ENTRIES - 1)) << 1) + 1);
+  }
+
+  /**
+   * pack combines the parts of an entry into one long.
+   *
+   * @param score The score of the position.
+   * @param bound The bound type of the score.
+   * @param depth The depth the position was searched to.
+   * @param bestCol The best column found, or -1 if there is none.
+   * @return The packed data, never 0.
+   */
+  public static long pack(int score, int bound, int depth, int bestCol) {
+
+    return ((long) score << 32)
+        | ((long) (Math.min(Math.max(depth, 0), 255)) << 7)
+        | ((long) (bestCol + 1) << 3)
+        | ((long) bound << 1)
+        | 1L;
+  }
+
+  /**
+   * scoreOf retrieves the score from packed data.
+   *
+   * @param entry The packed data of a position.
+   * @return The score of the position.
+   */
+  public static int scoreOf(long entry) {
+
+    return (int) (entry >> 32);
+  }
+
+  /**
+   * depthOf retrieves the depth from packed data.
+   *
+   * @param entry The packed data of a position.
+   * @return The depth the position was searched to.
+   */
+  public static int depthOf(long entry) {
+
+    return (int) (entry >>> 7) & 0xFF;
+  }
+
+  /**
+   * bestColOf retrieves the best column from packed data.
+   *
+   * @param entry The packed data of a position.
+   * @return The best column found, or -1 if there is none.
+   */
+  public static int bestColOf(long entry) {
+
+    return (int) ((entry >>> 3) & 0xF) - 1;
+  }
+
+  /**
+   * boundOf retrieves the bound type from packed data.
+   *
+   * @param entry The packed data of a position.
+   * @return The bound type of the score (EXACT, LOWER or UPPER).
+   */
+  public static int boundOf(long entry) {
+
+    return (int) (entry >>> 1) & 0x3;
+  }
+
+}
@@ -29,7 +29,12 @@ import javafx.util.converter.NumberStringConverter;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * GUIGame is a graphical user interface that builds upon GameConfig and ComputerPlayer from our Connect4 text version.
@@ -53,6 +58,26 @@ public class GUIGame extends Application {
    */
   private ComputerPlayer ai = new ComputerPlayer();
 
+  /**
+   * searchThread runs the computer's searches one at a time off the JavaFX application thread, so the window keeps responding
+   * while the computer thinks.
+   */
+  private final ExecutorService searchThread = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "Connect 4 search");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * aiThinking stores whether or not the computer is searching for its move, the rest of the game it ponders on the user's time.
+   */
+  private boolean aiThinking = false;
+
+  /**
+   * searchCount counts the searches started, so the move of a search that was cancelled is never played.
+   */
+  private volatile int searchCount = 0;
+
   /**
    * player stores the current player while the game is ongoing.
    */
@@ -128,10 +153,48 @@ public class GUIGame extends Application {
     this.primaryStage.setTitle("Connect 4");
     this.primaryStage.setResizable(false);
 
+    /* Plays the opening from the book file and the end of the game from the tablebase file, if they are in the working
+    directory, scores positions with the line counts, which play stronger than the cell weights, finds forced wins just past
+    the depth with threat extensions, and scores positions neither player can win any more as draws. Perfect play starts from
+    the positions solved in earlier runs, kept in the table snapshot file. */
+    ai.setEvaluation(ComputerPlayer.LINE_COUNTS);
+    ai.setThreatExtensions(true);
+    ai.setDrawDetection(true);
+    ai.setOpeningBook(OpeningBook.loadDefault());
+    ai.setTablebase(Tablebase.loadDefault());
+    ai.setTableFile(Paths.get(TranspositionTable.TABLE_FILE));
+
 		this.primaryStage.setScene(startScreen());
     this.primaryStage.show();
   }
 
+  /**
+   * Overriding stop method that is called when the GUI is closed, saving the positions solved by perfect play for the next run.
+   */
+  @Override
+  public void stop() {
+
+    /* A search that is still running is stopped and left to finish first, since it may be adding to the solver's table. */
+    cancelAiTurn();
+    searchThread.shutdown();
+    try {
+
+      searchThread.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+
+      Thread.currentThread().interrupt();
+    }
+
+    /* The application is closing either way, so a snapshot that can't be saved is skipped. */
+    try {
+
+      ai.saveTables();
+    } catch (IOException e) {
+
+      System.out.println("The solved positions couldn't be saved to " + TranspositionTable.TABLE_FILE + ".");
+    }
+  }
+
   /**
    * startScreen creates the starting screen when the GUI is launched or when the user goes back to the main menu.
    *
@@ -528,8 +591,9 @@ public class GUIGame extends Application {
    */
   private void setToken(Circle token, int col, int row) {
 
-    /* Won't allow anymore tokens to be played as soon as a winner is found. */
-    if (!getGameOver()) {
+    /* Won't allow anymore tokens to be played as soon as a winner is found, or while it is the computer's turn. The computer
+    searches off the JavaFX application thread, so the user's clicks still arrive while it thinks. */
+    if (!getGameOver() && !(aiOn && getPlayer() == 2)) {
 
       /* Makes sure a user can't place a token in a full column, using the fullColumn method from gameConfig. */
       while (!(config.fullColumn(config.getBoard(), col))) {
@@ -573,37 +637,126 @@ public class GUIGame extends Application {
           /* If playing against the computer player it will make its move when called. */
           if (aiOn && getPlayer() == 2) {
 
-            Circle aiToken = token(2);
-            config.makeMove(config.getBoard(), ai.aiMove(config), 2);
+            aiTurn();
+          }
 
-            tokenRoot.getChildren().add(aiToken);
-            aiToken.setTranslateX(config.getColPlayed() * (columnWidth + 5) + (columnWidth / 4));
+        });
 
-            /* Computer player's tokens have an animation as well when it makes it's choice. */
-            TranslateTransition compAnimation = new TranslateTransition(Duration.seconds(0.5), aiToken);
-            compAnimation.setToY(config.getRowPlayed() * (columnWidth + 5) + (columnWidth / 4));
-            compAnimation.play();
+        break;
+      }
+    }
+  }
 
-            setPlayer(1);
-            setMoveCount(2);
+  /**
+   * aiTurn searches for the computer's move on searchThread, and plays it on the JavaFX application thread once it is found.
+   *
+   * <p>The search is given its own copy of the game. A search cancelled by cancelAiTurn is skipped if it hasn't started, and its
+   * move is thrown away if it has.
+   */
+  private void aiTurn() {
+
+    /* Pondering is stopped so the search starts as soon as it can, a ponder that hasn't started yet is skipped. searchCount is
+    moved on first, so a ponder that clears the stop after it is skipped as well. */
+    aiThinking = true;
+    int search = ++ searchCount;
+    ai.stopSearch();
+    GameConfig searchConfig = new GameConfig(config);
+    searchThread.execute(() -> {
+      /* The stop is cleared before searchCount is checked, a cancelAiTurn after the check stops the search again. */
+      ai.clearStop();
+      if (search != searchCount) {
+        return;
+      }
+      int col = ai.aiMove(searchConfig);
+      Platform.runLater(() -> {
+        if (search == searchCount) {
+          aiThinking = false;
+          setAiToken(col);
+        }
+      });
+    });
+  }
 
-            /* Checks to see if there is a winner after making a computer move. */
-            config.checkForWinner();
+  /**
+   * ponderTurn has the computer ponder the user's columns on searchThread while the user chooses one, so its next move is found
+   * quicker. aiTurn stops it once the user has played.
+   */
+  private void ponderTurn() {
+
+    int search = searchCount;
+    GameConfig ponderConfig = new GameConfig(config);
+    searchThread.execute(() -> {
+      /* Each ponder clears the stop of the search or ponder before it, a cancelAiTurn after the check stops it again. */
+      ai.clearStop();
+      if (search == searchCount) {
+        ai.ponder(ponderConfig);
+      }
+    });
+  }
 
-            if (config.getWinner() != 0) {
-              setGameOver(true);
-              winnerPopup(aiOn);
-              if (config.getWinner() != -1) {
-                compAnimation.onFinishedProperty().set(c -> highlightWinningConnection(config));
-              }
-            }
+  /**
+   * cancelAiTurn stops the computer's search or pondering, the move of the search is never played.
+   */
+  private void cancelAiTurn() {
 
-          }
+    searchCount ++;
+    aiThinking = false;
+    ai.stopSearch();
+  }
 
-        });
+  /**
+   * changeDifficulty changes the computer's difficulty on searchThread, once the search or pondering it is running has stopped, so
+   * the search's tables aren't started over while they are being used. If the computer is thinking its move is searched for again
+   * at the new difficulty, and if it is the user's turn pondering is started again at the new difficulty as well. While the user's
+   * token is still falling neither is started, the animation starts the computer's turn when it finishes.
+   *
+   * @param change The change to the computer's difficulty.
+   */
+  private void changeDifficulty(Runnable change) {
+
+    boolean thinking = aiThinking;
+    cancelAiTurn();
+    searchThread.execute(change);
+    if (thinking) {
+      aiTurn();
+    } else if (aiOn && !getGameOver() && getPlayer() == 1) {
+      ponderTurn();
+    }
+  }
 
-        break;
+  /**
+   * setAiToken updates tokenRoot with the computer's move, the same way setToken does for the user's.
+   *
+   * @param col The column the computer chose.
+   */
+  private void setAiToken(int col) {
+
+    Circle aiToken = token(2);
+    config.makeMove(config.getBoard(), col, 2);
+
+    tokenRoot.getChildren().add(aiToken);
+    aiToken.setTranslateX(config.getColPlayed() * (columnWidth + 5) + (columnWidth / 4));
+
+    /* Computer player's tokens have an animation as well when it makes it's choice. */
+    TranslateTransition compAnimation = new TranslateTransition(Duration.seconds(0.5), aiToken);
+    compAnimation.setToY(config.getRowPlayed() * (columnWidth + 5) + (columnWidth / 4));
+    compAnimation.play();
+
+    setPlayer(1);
+    setMoveCount(2);
+
+    /* Checks to see if there is a winner after making a computer move. */
+    config.checkForWinner();
+
+    if (config.getWinner() != 0) {
+      setGameOver(true);
+      winnerPopup(aiOn);
+      if (config.getWinner() != -1) {
+        compAnimation.onFinishedProperty().set(c -> highlightWinningConnection(config));
       }
+    } else {
+      /* The computer ponders while the user chooses their column. */
+      ponderTurn();
     }
   }
 
@@ -697,25 +850,28 @@ public class GUIGame extends Application {
     exit.setOnAction(e -> Platform.exit());
     fileMenu.getItems().add(exit);
 
-    /* Difficulty settings menu for the ComputerPlayer, choice of depths from 0 to 7. */
+    /* Difficulty settings menu for the ComputerPlayer, choice of depths from 0 to 7 or perfect play. A search that is running
+    is started again at the new difficulty. */
     Menu maxDepthMenu = new Menu("Difficulty/Depth Setting");
     MenuItem zero = new MenuItem("Zero (Easy)");
-    zero.setOnAction(e -> ai.setMaxDepth(0));
+    zero.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(0)));
     MenuItem one = new MenuItem("One");
-    one.setOnAction(e -> ai.setMaxDepth(1));
+    one.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(1)));
     MenuItem two = new MenuItem("Two");
-    two.setOnAction(e -> ai.setMaxDepth(2));
+    two.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(2)));
     MenuItem three = new MenuItem("Three (Default)");
-    three.setOnAction(e -> ai.setMaxDepth(3));
+    three.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(3)));
     MenuItem four = new MenuItem("Four");
-    four.setOnAction(e -> ai.setMaxDepth(4));
+    four.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(4)));
     MenuItem five = new MenuItem("Five");
-    five.setOnAction(e -> ai.setMaxDepth(5));
+    five.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(5)));
     MenuItem six = new MenuItem("Six");
-    six.setOnAction(e -> ai.setMaxDepth(6));
+    six.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(6)));
     MenuItem seven = new MenuItem("Seven (Difficult)");
-    seven.setOnAction(e -> ai.setMaxDepth(7));
-    maxDepthMenu.getItems().addAll(zero, one, two, three, four, five, six, seven);
+    seven.setOnAction(e -> changeDifficulty(() -> ai.setMaxDepth(7)));
+    MenuItem perfect = new MenuItem("Perfect (Solver)");
+    perfect.setOnAction(e -> changeDifficulty(() -> ai.setPerfectPlay(true)));
+    maxDepthMenu.getItems().addAll(zero, one, two, three, four, five, six, seven, perfect);
 
     /* About menu item. Gives information on connect4, negamax, and the team. */
     Menu aboutMenu = new Menu("About");
@@ -744,8 +900,12 @@ public class GUIGame extends Application {
    */
   private void newGame(boolean aiOnOrOff) {
 
+    /* The computer's search or pondering is stopped, and only forgets what it searched once it has finished. */
+    cancelAiTurn();
     config = new GameConfig();
     //ai = new ComputerPlayer(); // When commented out, keeps the last difficulty setting.
+    /* The computer keeps what it searched from one move to the next during a game, but nothing from the last game. */
+    searchThread.execute(ai::newGame);
     player = 1;
     tokenRoot = new Pane();
     p1MoveCount = new SimpleIntegerProperty(0);
@@ -0,0 +1,404 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * BitboardTest is a JUnit test class that tests the Bitboard position used to back GameConfig.
+ *
+ * <p>The Bitboard is compared against the 2D board layout used by GameConfig to make sure moves land in the
+ * same spaces, full columns are detected, and four in a row is found in every direction. The window counts and the running
+ * scores kept from them are checked against counting the tokens.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class BitboardTest {
+
+  /**
+   * Test for makeMove on an empty column. The expected result is that the token lands in the bottom row (row index 5).
+   */
+  @Test
+  public void test_Bitboard_makeMove_EmptyColumn() {
+
+    Bitboard position = new Bitboard();
+
+    assertEquals("Column index 3 is empty - testing for makeMove to return row 5.", 5, position.makeMove(3, 1));
+    assertEquals("Column index 3 has a player one token in row 5 - testing for getCell to return 1.", 1, position.getCell(5, 3));
+
+  }
+
+  /**
+   * Test for makeMove on a full column. The expected result is that no token is played and -1 is returned.
+   */
+  @Test
+  public void test_Bitboard_makeMove_FullColumn() {
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    assertEquals("Column index 3 is full - testing for canPlay to return false.", false, position.canPlay(3));
+    assertEquals("Column index 3 is full - testing for makeMove to return -1.", -1, position.makeMove(3, 1));
+    assertEquals("Column index 3 is full - testing for getMoveCount to still be 6.", 6, position.getMoveCount());
+
+  }
+
+  /**
+   * Test for undoMove after a number of moves. The expected result is that taking every move back leaves the exact same position.
+   */
+  @Test
+  public void test_Bitboard_undoMove_SamePosition() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,1,1,2,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+    long playerOne = position.getTokens(1);
+    long playerTwo = position.getTokens(2);
+
+    position.makeMove(3, 2);
+    position.makeMove(0, 1);
+    position.makeMove(3, 1);
+    position.undoMove(3);
+    position.undoMove(0);
+    position.undoMove(3);
+
+    assertEquals("Three moves were made and taken back - testing for player one's tokens to be the same.", playerOne, position.getTokens(1));
+    assertEquals("Three moves were made and taken back - testing for player two's tokens to be the same.", playerTwo, position.getTokens(2));
+
+  }
+
+  /**
+   * Test for legalMoves with one full column. The expected result is one landing space for each of the other six columns.
+   */
+  @Test
+  public void test_Bitboard_legalMoves_OneFullColumn() {
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    assertEquals("Column index 3 is full - testing for legalMoves to have 6 spaces.", 6, Long.bitCount(position.legalMoves()));
+    assertTrue("Column index 2 has one token - testing for legalMoves to contain row 4.", (position.legalMoves() & Bitboard.cellMask(4, 2)) != 0);
+
+  }
+
+  /**
+   * Test for fillBoard after building a Bitboard from a board. The expected result is the exact same board.
+   */
+  @Test
+  public void test_Bitboard_fillBoard_SameBoard() {
+
+    int[][] testBoard = {{0,0,0,2,0,0,2},
+                         {0,2,1,1,0,0,1},
+                         {0,1,2,2,1,1,2},
+                         {1,2,1,1,2,2,1},
+                         {2,2,1,2,1,2,1},
+                         {2,2,1,1,2,1,1}};
+
+    int[][] result = new int[6][7];
+    new Bitboard(testBoard).fillBoard(result);
+
+    assertArrayEquals("Board is copied into a Bitboard and back - testing for the boards to be equal.", testBoard, result);
+
+  }
+
+  /**
+   * Test for isWin with a connection in every direction. The expected result is that each connection is found for the right player.
+   */
+  @Test
+  public void test_Bitboard_isWin_AllDirections() {
+
+    int[][] rowBoard = {{0,0,0,0,0,0,0},
+                        {0,0,0,0,0,0,0},
+                        {0,0,0,0,0,0,0},
+                        {0,0,0,0,0,0,0},
+                        {0,0,0,2,2,2,2},
+                        {0,0,1,1,1,2,1}};
+
+    int[][] colBoard = {{0,0,0,0,0,0,0},
+                        {0,0,0,0,0,0,0},
+                        {0,0,0,0,0,0,1},
+                        {0,0,0,0,0,0,1},
+                        {0,0,0,0,0,0,1},
+                        {0,0,0,0,0,0,1}};
+
+    int[][] upDiagBoard = {{0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,2,1,0,0},
+                           {0,0,2,1,1,0,0},
+                           {0,2,1,1,2,0,0},
+                           {2,1,2,2,1,0,0}};
+
+    int[][] downDiagBoard = {{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,1,0,0,0,0},
+                             {0,0,2,1,0,0,0},
+                             {0,0,2,2,1,0,0},
+                             {0,0,2,1,2,1,0}};
+
+    assertTrue("Player two has four in a row - testing for isWin to return true.", new Bitboard(rowBoard).isWin(2));
+    assertFalse("Player one has three in a row - testing for isWin to return false.", new Bitboard(rowBoard).isWin(1));
+    assertTrue("Player one has four in a column - testing for isWin to return true.", new Bitboard(colBoard).isWin(1));
+    assertTrue("Player two has four in an ascending diagonal - testing for isWin to return true.", new Bitboard(upDiagBoard).isWin(2));
+    assertTrue("Player one has four in a descending diagonal - testing for isWin to return true.", new Bitboard(downDiagBoard).isWin(1));
+
+  }
+
+  /**
+   * Test for isWin with tokens split over the edge of the board. The expected result is that the sentinel bits
+   * stop a connection from wrapping around into the next column.
+   */
+  @Test
+  public void test_Bitboard_isWin_NoWrapAround() {
+
+    int[][] testBoard = {{1,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {1,1,0,0,0,0,1}};
+
+    assertFalse("Player one has tokens at the top and bottom of neighbouring columns - testing for isWin to return false.", new Bitboard(testBoard).isWin(1));
+
+  }
+
+  /**
+   * Test for getZobristKey after the same moves are made in a different order. The expected result is the same key, which is
+   * also the same as building the position from a board.
+   */
+  @Test
+  public void test_Bitboard_getZobristKey_MoveOrder() {
+
+    Bitboard first = new Bitboard();
+    first.makeMove(3, 1);
+    first.makeMove(2, 2);
+    first.makeMove(4, 1);
+
+    Bitboard second = new Bitboard();
+    second.makeMove(4, 1);
+    second.makeMove(2, 2);
+    second.makeMove(3, 1);
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,2,1,1,0,0}};
+
+    assertEquals("Same moves in a different order - testing for getZobristKey to return the same key.", first.getZobristKey(), second.getZobristKey());
+    assertEquals("Same moves as the board - testing for getZobristKey to return the same key.", first.getZobristKey(), new Bitboard(testBoard).getZobristKey());
+    assertEquals("Same tokens - testing for equals to return true.", first, second);
+
+  }
+
+  /**
+   * Test for getCanonicalKey on a position and its mirror image. The expected result is that the canonical keys are the same
+   * while the Zobrist keys are different.
+   */
+  @Test
+  public void test_Bitboard_getCanonicalKey_Mirror() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {1,1,0,1,0,0,0}};
+
+    int[][] mirrorBoard = {{0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,2,0,0,0},
+                           {0,0,0,1,0,1,1}};
+
+    Bitboard position = new Bitboard(testBoard);
+    Bitboard mirror = new Bitboard(mirrorBoard);
+
+    assertNotEquals("Board and its mirror image - testing for getZobristKey to return different keys.", position.getZobristKey(), mirror.getZobristKey());
+    assertEquals("Board and its mirror image - testing for getCanonicalKey to return the same key.", position.getCanonicalKey(), mirror.getCanonicalKey());
+    assertEquals("Board and its mirror image - testing for getMirrorKey to return the other board's key.", position.getMirrorKey(), mirror.getZobristKey());
+
+  }
+
+  /**
+   * Test for mirror on the key of a position. The expected result is the key of the position's mirror image, and mirroring twice
+   * gives back the first key.
+   */
+  @Test
+  public void test_Bitboard_mirror_Key() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,2,0,2,0,0,0},
+                         {1,1,0,1,0,0,0}};
+
+    int[][] mirrorBoard = {{0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,0,0,0,0},
+                           {0,0,0,2,0,2,0},
+                           {0,0,0,1,0,1,1}};
+
+    long key = new Bitboard(testBoard).getKey();
+
+    assertEquals("Board and its mirror image - testing for mirror to return the other board's key.", new Bitboard(mirrorBoard).getKey(), Bitboard.mirror(key));
+    assertEquals("Key mirrored twice - testing for mirror to return the first key.", key, Bitboard.mirror(Bitboard.mirror(key)));
+
+  }
+
+  /**
+   * Test for getZobristKey after moves are taken back with undoMove. The expected result is the key of the empty board, 0.
+   */
+  @Test
+  public void test_Bitboard_getZobristKey_UndoMove() {
+
+    Bitboard position = new Bitboard();
+    position.makeMove(0, 1);
+    position.makeMove(0, 2);
+    position.undoMove(0);
+    position.undoMove(0);
+
+    assertEquals("Two moves were made and taken back - testing for getZobristKey to return 0.", 0L, position.getZobristKey());
+    assertEquals("Two moves were made and taken back - testing for getMirrorKey to return 0.", 0L, position.getMirrorKey());
+
+  }
+
+  /**
+   * Test for getCellScore with one token of each player. The expected result is the value of the second player's space on the
+   * old evaluation board, 13 in the middle, minus the value of the first player's space, 3 in the corner.
+   */
+  @Test
+  public void test_Bitboard_getCellScore_EvaluationBoard() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {1,0,0,2,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    /* The second player has 7 windows through the bottom middle and 13 through the space third from the bottom, the first player
+    has 10 through the space second from the bottom and 3 through the corner. */
+    assertEquals("Tokens in the middle and the corner - testing for getCellScore to return 7.", 7, position.getCellScore());
+
+  }
+
+  /**
+   * Test for getOpenThrees and getLineScore when an open three is blocked and the block is taken back. The expected result is one
+   * open three for the first player before the block, none after it, and the same line score after the block is taken back.
+   */
+  @Test
+  public void test_Bitboard_getOpenThrees_Blocked() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {1,1,1,0,2,2,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+    int lineScore = position.getLineScore();
+
+    assertEquals("First player has 3 in a row with the fourth space empty - testing for getOpenThrees to return 1.", 1, position.getOpenThrees(1));
+    assertEquals("Second player has 2 in a row - testing for getOpenThrees to return 0.", 0, position.getOpenThrees(2));
+    assertTrue("First player has 3 in a row - testing for getLineScore to favour the first player.", lineScore < 0);
+
+    position.makeMove(3, 2);
+
+    assertEquals("Second player blocked the 3 in a row - testing for getOpenThrees to return 0.", 0, position.getOpenThrees(1));
+    assertEquals("Second player blocked the 3 in a row - testing for the second player to have 3 in a row.", 1, position.getOpenThrees(2));
+
+    position.undoMove(3);
+
+    assertEquals("Block was taken back - testing for getOpenThrees to return 1.", 1, position.getOpenThrees(1));
+    assertEquals("Block was taken back - testing for getLineScore to return the score from before.", lineScore, position.getLineScore());
+
+  }
+
+  /**
+   * Test for getWindowCount against counting the tokens in every window, after each move of a game and after the moves are
+   * taken back. The expected result is the same counts, and every count back at 0 on the empty board.
+   */
+  @Test
+  public void test_Bitboard_getWindowCount_SameAsCounting() {
+
+    Bitboard position = new Bitboard();
+    String moves = "4455332266177132";
+    int player = 1;
+
+    for (int i = 0; i < moves.length(); i ++) {
+
+      position.makeMove(moves.charAt(i) - '1', player);
+      player = 3 - player;
+
+      for (int w = 0; w < 69; w ++) {
+
+        long window = Bitboard.getWindow(w);
+        assertEquals("Move " + (i + 1) + " - testing for the first player's count in window " + w + ".", Long.bitCount(window & position.getTokens(1)), position.getWindowCount(w, 1));
+        assertEquals("Move " + (i + 1) + " - testing for the second player's count in window " + w + ".", Long.bitCount(window & position.getTokens(2)), position.getWindowCount(w, 2));
+      }
+    }
+
+    for (int i = moves.length() - 1; i >= 0; i --) {
+
+      position.undoMove(moves.charAt(i) - '1');
+    }
+
+    for (int w = 0; w < 69; w ++) {
+
+      assertEquals("Every move was taken back - testing for window " + w + " to be empty.", 0, position.getWindowCount(w, 1) + position.getWindowCount(w, 2));
+    }
+    assertEquals("Every move was taken back - testing for getCellScore to return 0.", 0, position.getCellScore());
+    assertEquals("Every move was taken back - testing for getLineScore to return 0.", 0, position.getLineScore());
+
+  }
+
+  /**
+   * Test for isDead and getLiveWindows on the Benchmark position "741226242351127231664766475363347554", before and after the
+   * first player plays in the last window the second player can still win in. The expected result is a dead position after the
+   * move, and a live one again once the move is taken back.
+   */
+  @Test
+  public void test_Bitboard_isDead_LastWindow() {
+
+    Bitboard position = Benchmark.position("741226242351127231664766475363347554").getPosition();
+
+    assertEquals("First player can't win any more - testing for getLiveWindows to return 0.", 0, position.getLiveWindows(1));
+    assertEquals("Second player can still win in 2 windows - testing for getLiveWindows to return 2.", 2, position.getLiveWindows(2));
+    assertFalse("Second player can still win - testing for isDead to return false.", position.isDead());
+
+    position.makeMove(2, 1);
+
+    assertTrue("Neither player can win any more - testing for isDead to return true.", position.isDead());
+
+    position.undoMove(2);
+
+    assertFalse("Move was taken back - testing for isDead to return false.", position.isDead());
+
+  }
+
+}
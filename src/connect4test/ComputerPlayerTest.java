@@ -1,6 +1,10 @@
 package connect4test;
 
 import connect4.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -9,7 +13,7 @@ import org.junit.Test;
  * game configurations up and makes sure the intended result is returned.
  *
  * <p>The only method that is public in ComputerPlayer that contains logic to test on is aiMove. In this JUnit
- * test suite, the opening moves that are hardcoded for the computer player are tested, various winning and
+ * test suite, the opening moves of the computer player and its opening book are tested, various winning and
  * blocking scenarios are tested, and moves where the computer evaluates the board and uses the negamax
  * algorithm are tested as well. This handy website, http://connect4.gamesolver.org/, is used to easily see
  * if the negamax algorithm returns the best possible move.
@@ -20,7 +24,7 @@ import org.junit.Test;
 public class ComputerPlayerTest {
 
   /**
-   * Empty board test, the computer is hardcoded to play in the middle column, the best possible move to
+   * Empty board test, the computer's search plays in the middle column, the best possible move to
    * open a game of Connect4 with.
    */
   @Test
@@ -43,7 +47,7 @@ public class ComputerPlayerTest {
   }
 
   /**
-   * The human has played in the middle column, the computer is hardcoded to also play in the middle column,
+   * The human has played in the middle column, the computer's search also plays in the middle column,
    * the best possible move to make when playing second in a game of Connect4.
    */
   @Test
@@ -66,15 +70,15 @@ public class ComputerPlayerTest {
   }
 
   /**
-   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the computer
-   * player is hardcoded to block potential winning plays that arise from this situation. The computer makes the
-   * best possible move by playing in column 4.
+   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the human threatens to make
+   * three in a row with both ends open. A search 4 moves deep sees the two threats this would make and blocks it.
+   * The computer makes the best possible move by playing in column 4.
    */
   @Test
   public void test_ComputerPlayer_aiMove_AINeedsToBlockBottomRow1() {
 
     GameConfig configTest = new GameConfig();
-    ComputerPlayer ai = new ComputerPlayer();
+    ComputerPlayer ai = new ComputerPlayer(4);
 
     int[][] testBoard = {{0,0,0,0,0,0,0},
                          {0,0,0,0,0,0,0},
@@ -90,15 +94,15 @@ public class ComputerPlayerTest {
   }
 
   /**
-   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the computer
-   * player is hardcoded to block potential winning plays that arise from this situation. The computer makes the
-   * best possible move by playing in column 3.
+   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the human threatens to make
+   * three in a row with both ends open. A search 4 moves deep sees the two threats this would make and blocks it.
+   * The computer makes the best possible move by playing in column 2.
    */
   @Test
   public void test_ComputerPlayer_aiMove_AINeedsToBlockBottomRow2() {
 
     GameConfig configTest = new GameConfig();
-    ComputerPlayer ai = new ComputerPlayer();
+    ComputerPlayer ai = new ComputerPlayer(4);
 
     int[][] testBoard = {{0,0,0,0,0,0,0},
                          {0,0,0,0,0,0,0},
@@ -114,15 +118,15 @@ public class ComputerPlayerTest {
   }
 
   /**
-   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the computer
-   * player is hardcoded to block potential winning plays that arise from this situation. The computer makes the
-   * best possible move by playing in column 1.
+   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the human threatens to make
+   * three in a row with both ends open. A search 4 moves deep sees the two threats this would make and blocks the end nearer the middle.
+   * The computer makes the best possible move by playing in column 4.
    */
   @Test
   public void test_ComputerPlayer_aiMove_AINeedsToBlockBottomRow3() {
 
     GameConfig configTest = new GameConfig();
-    ComputerPlayer ai = new ComputerPlayer();
+    ComputerPlayer ai = new ComputerPlayer(4);
 
     int[][] testBoard = {{0,0,0,0,0,0,0},
                          {0,0,0,0,0,0,0},
@@ -133,20 +137,20 @@ public class ComputerPlayerTest {
 
     configTest.setBoard(testBoard);
 
-    assertEquals("Board has 2 human player tokens in board - testing for aiMove to return column 1.", 1, ai.aiMove(configTest));
+    assertEquals("Board has 2 human player tokens in board - testing for aiMove to return column 4.", 4, ai.aiMove(configTest));
 
   }
 
   /**
-   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the computer
-   * player is hardcoded to block potential winning plays that arise from this situation. The computer makes the
-   * best possible move by playing in column 5.
+   * The human has played in the bottom row in a way that could trip up the negamax algorithm, the human threatens to make
+   * three in a row with both ends open. A search 4 moves deep sees the two threats this would make and blocks the end nearer the middle.
+   * The computer makes the best possible move by playing in column 2.
    */
   @Test
   public void test_ComputerPlayer_aiMove_AINeedsToBlockBottomRow4() {
 
     GameConfig configTest = new GameConfig();
-    ComputerPlayer ai = new ComputerPlayer();
+    ComputerPlayer ai = new ComputerPlayer(4);
 
     int[][] testBoard = {{0,0,0,0,0,0,0},
                          {0,0,0,0,0,0,0},
@@ -157,7 +161,7 @@ public class ComputerPlayerTest {
 
     configTest.setBoard(testBoard);
 
-    assertEquals("Board has 2 human player tokens in board - testing for aiMove to return column 5.", 5, ai.aiMove(configTest));
+    assertEquals("Board has 2 human player tokens in board - testing for aiMove to return column 2.", 2, ai.aiMove(configTest));
 
   }
 
@@ -393,9 +397,10 @@ public class ComputerPlayerTest {
   }
 
   /**
-   * When the board is configured in this fashion (exactly the same as the previous test), the negamax algorithm will choose
-   * to play again in the second from right column if the maxDepth is set to 7. This is because the evaluated score from there
-   * is the greater than other potential moves as it searches seven configurations into the future. The expected result is column index 5.
+   * When the board is configured in this fashion (exactly the same as the previous test), the negamax algorithm will still choose
+   * to play again in the middle column if the maxDepth is set to 7, as the evaluated score from there is greater than other potential
+   * moves after both players take turns for seven configurations into the future. Every column loses by the same margin with perfect
+   * play (as shown using the solver http://connect4.gamesolver.org/?pos=44444), so the expected result is column index 3.
    */
   @Test
   public void test_ComputerPlayer_aiMove_MaxDepth7Move() {
@@ -412,7 +417,7 @@ public class ComputerPlayerTest {
 
     configTest.setBoard(testBoard);
 
-    assertEquals("Board has tokens in it, ai max depth set to 7 - testing for aiMove to return column 5.", 5, ai.aiMove(configTest));
+    assertEquals("Board has tokens in it, ai max depth set to 7 - testing for aiMove to return column 3.", 3, ai.aiMove(configTest));
 
   }
 
@@ -464,5 +469,607 @@ public class ComputerPlayerTest {
 
   }
 
+  /**
+   * The board from the MaxDepth7Move test is searched at a maxDepth of 7 with and without alpha-beta pruning (and the transposition
+   * table). The expected result is that
+   * both searches return the same column, and the search with pruning visits less than a tenth of the positions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_AlphaBetaSameMove() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer pruned = new ComputerPlayer(7);
+    ComputerPlayer full = new ComputerPlayer(7);
+    full.setAlphaBeta(false);
+    full.setTableSize(0);
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    configTest.setBoard(testBoard);
+
+    assertEquals("Board has tokens in it, ai max depth set to 7 - testing for both searches to return the same column.", full.aiMove(configTest), pruned.aiMove(configTest));
+    assertTrue("Board has tokens in it, ai max depth set to 7 - testing for pruning to visit less than a tenth of the positions.", pruned.getNodeCount() * 10 < full.getNodeCount());
+
+  }
+
+  /**
+   * The board from the MaxDepth7MoveFullerBoard test is searched at a maxDepth of 7 with and without a transposition table. The expected
+   * result is that both searches return the same column, and the search with the table visits fewer positions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_TranspositionTableSameMove() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer cached = new ComputerPlayer(7);
+    ComputerPlayer uncached = new ComputerPlayer(7);
+    uncached.setTableSize(0);
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,1,2,2,1,0,0},
+                         {0,2,1,1,2,0,0},
+                         {0,2,1,2,1,2,0},
+                         {2,2,1,1,2,1,1}};
+
+    configTest.setBoard(testBoard);
+
+    assertEquals("Board has tokens in it, ai max depth set to 7 - testing for both searches to return the same column.", uncached.aiMove(configTest), cached.aiMove(configTest));
+    assertTrue("Board has tokens in it, ai max depth set to 7 - testing for the table to reduce the positions visited.", cached.getNodeCount() < uncached.getNodeCount());
+
+  }
+
+  /**
+   * The board from the MaxDepth3Move test is searched at a maxDepth of 9 with and without the move ordering heuristics. The expected
+   * result is that both searches return the same column, and the ordered search visits less than half of the positions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_MoveOrderingSameMove() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer ordered = new ComputerPlayer(9);
+    ComputerPlayer unordered = new ComputerPlayer(9);
+    unordered.getMoveOrdering().setCenterFirst(false);
+    unordered.getMoveOrdering().setTableMove(false);
+    unordered.getMoveOrdering().setKillers(false);
+    unordered.getMoveOrdering().setHistory(false);
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    configTest.setBoard(testBoard);
+
+    assertEquals("Board has tokens in it, ai max depth set to 9 - testing for both searches to return the same column.", unordered.aiMove(configTest), ordered.aiMove(configTest));
+    assertTrue("Board has tokens in it, ai max depth set to 9 - testing for ordering to halve the positions visited.", ordered.getNodeCount() * 2 < unordered.getNodeCount());
+
+  }
+
+  /**
+   * The board from the MaxDepth3Move test is searched with a node limit of 20000 and a maxDepth of 42. The expected result is that
+   * the search stops at the limit, and plays the same column as a search to the last depth it finished.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_NodeLimit() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer limited = new ComputerPlayer(42);
+    limited.setNodeLimit(20000);
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    configTest.setBoard(testBoard);
+    int col = limited.aiMove(configTest);
+    ComputerPlayer fixed = new ComputerPlayer(limited.getSearchDepth());
+
+    assertTrue("Board has tokens in it, node limit set to 20000 - testing for the search to stop at the limit.", limited.getNodeCount() <= 20000);
+    assertTrue("Board has tokens in it, node limit set to 20000 - testing for more than one depth to finish.", limited.getSearchDepth() > 1);
+    assertEquals("Board has tokens in it, node limit set to 20000 - testing for the column from the last finished depth.", fixed.aiMove(configTest), col);
+
+  }
+
+  /**
+   * A board with 3 tokens in it is searched with a time limit of 100 milliseconds and a maxDepth of 42. The expected result is
+   * that aiMove returns well before a full search could finish, with a column that can be played.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_TimeLimit() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer limited = new ComputerPlayer(42);
+    limited.setTimeLimit(100);
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,1,2,0,0}};
+
+    configTest.setBoard(testBoard);
+    long start = System.currentTimeMillis();
+    int col = limited.aiMove(configTest);
+    long time = System.currentTimeMillis() - start;
+
+    assertTrue("Board has 3 tokens in it, time limit set to 100 milliseconds - testing for aiMove to return within 2 seconds.", time < 2000);
+    assertTrue("Board has 3 tokens in it, time limit set to 100 milliseconds - testing for a column that can be played.", col >= 0 && col <= 6 && !configTest.fullColumn(col));
+    assertTrue("Board has 3 tokens in it, time limit set to 100 milliseconds - testing for a search that did not reach the end of the game.", limited.getSearchDepth() < 39);
+
+  }
+
+  /**
+   * The board from the TranspositionTableSameMove test is searched at a maxDepth of 7 with one thread, with 4 threads splitting
+   * the root, and with 4 threads using young brothers wait. The expected result is that all three searches return the same column.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_ParallelSameMove() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer sequential = new ComputerPlayer(7);
+    ComputerPlayer rootSplit = new ComputerPlayer(7);
+    rootSplit.setThreads(4);
+    ComputerPlayer youngBrothers = new ComputerPlayer(7);
+    youngBrothers.setThreads(4);
+    youngBrothers.setYoungBrothersWait(true);
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,1,2,2,1,0,0},
+                         {0,2,1,1,2,0,0},
+                         {0,2,1,2,1,2,0},
+                         {2,2,1,1,2,1,1}};
+
+    configTest.setBoard(testBoard);
+    int col = sequential.aiMove(configTest);
+
+    assertEquals("Board has tokens in it, ai max depth set to 7 with 4 threads - testing for the same column as one thread.", col, rootSplit.aiMove(configTest));
+    assertEquals("Board has tokens in it, ai max depth set to 7 with young brothers wait - testing for the same column as one thread.", col, youngBrothers.aiMove(configTest));
+
+  }
+
+  /**
+   * The board from the MaxDepth7MoveFullerBoard test is searched at a maxDepth of 7 with 4 threads using Lazy SMP. The expected
+   * result is that the helper threads don't stop the computer from finding the best move, column index 5, and that the speed of
+   * the search is counted.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_LazySmp() {
+
+    GameConfig configTest = new GameConfig();
+    ComputerPlayer ai = new ComputerPlayer(7);
+    ai.setThreads(4);
+    ai.setParallelMode(ComputerPlayer.LAZY_SMP);
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,1,2,2,1,0,0},
+                         {0,2,1,1,2,0,0},
+                         {0,2,1,2,1,2,0},
+                         {2,2,1,1,2,1,1}};
+
+    configTest.setBoard(testBoard);
+
+    assertEquals("Board has tokens in it, ai max depth set to 7 with Lazy SMP, best possible move is in column 5 - testing for aiMove to return column 5.", 5, ai.aiMove(configTest));
+    assertTrue("Board has tokens in it, ai max depth set to 7 with Lazy SMP - testing for the positions visited to be counted.", ai.getNodeCount() > 0);
+
+  }
+
+  /**
+   * Test for aiMove with perfect play on the Benchmark position "271434144165", where the computer can force a win. The expected
+   * result is the column the Solver finds, index 4, with a winning score.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_PerfectPlay() {
+
+    ComputerPlayer ai = new ComputerPlayer();
+    ai.setPerfectPlay(true);
+
+    assertEquals("Computer can force a win, ai set to perfect play - testing for aiMove to return column 4.", 4, ai.aiMove(Benchmark.position("271434144165")));
+    assertTrue("Computer can force a win, ai set to perfect play - testing for a winning score.", ai.getLastResult().getScore() > ComputerPlayer.WIN_SCORE);
+
+  }
+
+  /**
+   * Test for aiMove with perfect play and a node limit of 20000 on the Benchmark position "4", far too few to solve it. The
+   * expected result is that the solver uses up the limit, so the search the computer falls back on only finishes its first depth.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_PerfectPlaySharesNodeLimit() {
+
+    ComputerPlayer ai = new ComputerPlayer();
+    ai.setPerfectPlay(true);
+    ai.setNodeLimit(20000);
+    GameConfig configTest = Benchmark.position("4");
+    int col = ai.aiMove(configTest);
+
+    assertTrue("One token on the board, node limit set to 20000 - testing for a column that can be played.", col >= 0 && col <= 6 && !configTest.fullColumn(col));
+    assertEquals("One token on the board, node limit set to 20000 - testing for the fallback search to stop after its first depth.", 1, ai.getSearchDepth());
+
+  }
+
+  /**
+   * Test for aiMove with perfect play and a time limit of 500 milliseconds on the Benchmark position "4", far too little to solve
+   * it. The expected result is that the solver and the search the computer falls back on share the limit, so aiMove returns
+   * well before twice the limit.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_PerfectPlaySharesTimeLimit() {
+
+    ComputerPlayer ai = new ComputerPlayer();
+    ai.setPerfectPlay(true);
+    ai.setTimeLimit(500);
+    long start = System.currentTimeMillis();
+    ai.aiMove(Benchmark.position("4"));
+    long time = System.currentTimeMillis() - start;
+
+    assertTrue("One token on the board, time limit set to 500 milliseconds - testing for aiMove to return within 900 milliseconds.", time < 900);
+
+  }
+
+  /**
+   * Test for setMaxDepth after perfect play was chosen. The expected result is that perfect play is turned off.
+   */
+  @Test
+  public void test_ComputerPlayer_setMaxDepth_PerfectPlayOff() {
+
+    ComputerPlayer ai = new ComputerPlayer();
+    ai.setPerfectPlay(true);
+    ai.setMaxDepth(5);
+
+    assertFalse("ai set to perfect play then max depth 5 - testing for getPerfectPlay to return false.", ai.getPerfectPlay());
+
+  }
+
+  /**
+   * Test for aiMove with an opening book written by BookGenerator from the Benchmark position "271434144165" to 14 moves, after
+   * the user plays in column index 0. The expected result is the book's column, the same column the Solver finds.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_OpeningBook() throws Exception {
+
+    Path file = Files.createTempFile("connect4", ".book");
+    file.toFile().deleteOnExit();
+    BookGenerator.generate(Benchmark.position("271434144165").getPosition(), 14, file, 1, 4);
+    OpeningBook book = new OpeningBook(file);
+    ComputerPlayer ai = new ComputerPlayer(1);
+    ai.setOpeningBook(book);
+    GameConfig configTest = Benchmark.position("2714341441651");
+
+    SearchLimits limits = new SearchLimits(42);
+    SearchResult solved = new Solver().search(configTest.getPosition(), 2, limits);
+
+    assertEquals("Position is in the opening book - testing for aiMove to return the Solver's column.", solved.getColumn(), ai.aiMove(configTest));
+    assertNull("Position is in the opening book - testing for aiMove to play without searching.", ai.getLastResult());
+
+  }
+
+  /**
+   * Test for aiMove with a tablebase written by TablebaseGenerator from a game played to 10 empty spaces. The expected result is
+   * the tablebase's column, played without searching.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_Tablebase() throws Exception {
+
+    Path file = Files.createTempFile("connect4", ".tablebase");
+    file.toFile().deleteOnExit();
+    List<Bitboard> roots = TablebaseGenerator.playGames(10, 11, new Random(2));
+    TablebaseGenerator.generate(roots, 11, file, 1);
+    Tablebase tablebase = new Tablebase(file);
+    ComputerPlayer ai = new ComputerPlayer(1);
+    ai.setTablebase(tablebase);
+
+    /* Games stop at 11 empty spaces with the computer to move. */
+    GameConfig configTest = new GameConfig();
+    int[][] testBoard = new int[6][7];
+    roots.get(0).fillBoard(testBoard);
+    configTest.setBoard(testBoard);
+
+    assertEquals("Position is in the tablebase - testing for aiMove to return the tablebase's column.", tablebase.getColumn(roots.get(0), 2), ai.aiMove(configTest));
+    assertNull("Position is in the tablebase - testing for aiMove to play without searching.", ai.getLastResult());
+
+  }
+
+  /**
+   * Test for aiMove with threat extensions on the Benchmark position "363122131165621" at a maxDepth of 3, where the computer can
+   * force a win with threats just past the depth. The expected result is column index 1 with a winning score, where the search
+   * without threat extensions doesn't find a win.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_ThreatExtensions() {
+
+    ComputerPlayer ai = new ComputerPlayer(3);
+
+    ai.aiMove(Benchmark.position("363122131165621"));
+
+    assertTrue("Computer can force a win past max depth 3 - testing for no winning score without threat extensions.", ai.getLastResult().getScore() < ComputerPlayer.WIN_SCORE);
+
+    ai.setThreatExtensions(true);
+
+    assertEquals("Computer can force a win past max depth 3 - testing for aiMove to return column 1 with threat extensions.", 1, ai.aiMove(Benchmark.position("363122131165621")));
+    assertTrue("Computer can force a win past max depth 3 - testing for a winning score with threat extensions.", ai.getLastResult().getScore() > ComputerPlayer.WIN_SCORE / 2);
+
+  }
+
+  /**
+   * Test for aiMove with late move reductions on the Benchmark position "363122131165621" of the threat extensions test, where
+   * the computer can force a win. The expected result is column index 1 with a winning score, both with threat extensions at a
+   * maxDepth of 3 and without them at a maxDepth of 9, where the win is found by the search, the same as without reductions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_ReductionsThreatExtensions() {
+
+    ComputerPlayer ai = new ComputerPlayer(3);
+    ai.setReductions(new int[] {0, 0, 1, 1, 1, 2, 2});
+    ai.setThreatExtensions(true);
+
+    assertEquals("Computer can force a win past max depth 3 - testing for aiMove to return column 1 with reductions.", 1, ai.aiMove(Benchmark.position("363122131165621")));
+    assertTrue("Computer can force a win past max depth 3 - testing for a winning score with reductions.", ai.getLastResult().getScore() > ComputerPlayer.WIN_SCORE / 2);
+
+    ComputerPlayer full = new ComputerPlayer(9);
+    full.aiMove(Benchmark.position("363122131165621"));
+    ai.setThreatExtensions(false);
+    ai.setMaxDepth(9);
+
+    assertEquals("Computer can force a win within max depth 9 - testing for aiMove to return column 1 with reductions.", 1, ai.aiMove(Benchmark.position("363122131165621")));
+    assertEquals("Computer can force a win within max depth 9 - testing for the same winning score as without reductions.", full.getLastResult().getScore(), ai.getLastResult().getScore());
+
+  }
+
+  /**
+   * Test for aiMove with late move reductions on the Benchmark position "37774176222275763", where the computer wins with a
+   * sequence of threats on the ninth move, at a maxDepth of 9. The expected result is column index 2 with a winning score, found
+   * after visiting fewer positions than without reductions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_ReductionsThreatSequence() {
+
+    ComputerPlayer full = new ComputerPlayer(9);
+    ComputerPlayer reduced = new ComputerPlayer(9);
+    reduced.setReductions(new int[] {0, 0, 1, 1, 1, 2, 2});
+
+    full.aiMove(Benchmark.position("37774176222275763"));
+
+    assertEquals("Computer wins with threats on the ninth move - testing for aiMove to return column 2 with reductions.", 2, reduced.aiMove(Benchmark.position("37774176222275763")));
+    assertTrue("Computer wins with threats on the ninth move - testing for a winning score with reductions.", reduced.getLastResult().getScore() > ComputerPlayer.WIN_SCORE / 2);
+    assertTrue("Computer wins with threats on the ninth move - testing for fewer positions visited with reductions.", reduced.getNodeCount() < full.getNodeCount());
+
+  }
+
+  /**
+   * Test for aiMove with the transposition table kept off the heap on the Benchmark position "2461577547472663" at a maxDepth of
+   * 9. The expected result is the same column, score and number of positions visited as with the table on the heap.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_OffHeapSameMove() {
+
+    ComputerPlayer onHeap = new ComputerPlayer(9);
+    ComputerPlayer offHeap = new ComputerPlayer(9);
+    offHeap.setTableStorage(ComputerPlayer.OFF_HEAP);
+
+    assertEquals("Table is off the heap - testing for aiMove to return the same column.", onHeap.aiMove(Benchmark.position("2461577547472663")), offHeap.aiMove(Benchmark.position("2461577547472663")));
+    assertEquals("Table is off the heap - testing for the same score.", onHeap.getLastResult().getScore(), offHeap.getLastResult().getScore());
+    assertEquals("Table is off the heap - testing for the same number of positions visited.", onHeap.getNodeCount(), offHeap.getNodeCount());
+    assertEquals("Table is off the heap - testing for getTable to keep its entries off the heap.", TranspositionTable.OFF_HEAP, offHeap.getTable().getStorage());
+
+  }
+
+  /**
+   * Test for aiMove with perfect play and a table snapshot file, on the Benchmark position "14744737662324". The first
+   * ComputerPlayer solves the position and saves its table, and a second ComputerPlayer loads it. The expected result is the
+   * same column and score from the second, after visiting far fewer positions.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_TableSnapshot() throws Exception {
+
+    Path file = Files.createTempFile("connect4", ".table");
+    file.toFile().deleteOnExit();
+    Files.delete(file);
+
+    ComputerPlayer first = new ComputerPlayer();
+    first.setPerfectPlay(true);
+    first.setTableFile(file);
+    int col = first.aiMove(Benchmark.position("14744737662324"));
+    first.saveTables();
+
+    ComputerPlayer second = new ComputerPlayer();
+    second.setPerfectPlay(true);
+    second.setTableFile(file);
+
+    assertEquals("Table was saved after solving the position - testing for aiMove to return the same column.", col, second.aiMove(Benchmark.position("14744737662324")));
+    assertEquals("Table was saved after solving the position - testing for the same score.", first.getLastResult().getScore(), second.getLastResult().getScore());
+    assertTrue("Table was saved after solving the position - testing for far fewer positions visited.", second.getNodeCount() * 10 < first.getNodeCount());
+
+  }
+
+  /**
+   * Test for aiMove on the next move of a game, on the Benchmark position "246563" at a maxDepth of 9. The computer searches the
+   * position, plays its column and the user replies in column index 2. The expected result is the same column as a ComputerPlayer
+   * that only searches the second position, after visiting fewer positions, and the same positions visited once newGame is called.
+   */
+  @Test
+  public void test_ComputerPlayer_aiMove_KeepsSearchInGame() {
+
+    ComputerPlayer ai = new ComputerPlayer(9);
+    GameConfig configTest = Benchmark.position("246563");
+    configTest.makeMove(ai.aiMove(configTest), 2);
+    configTest.makeMove(2, 1);
+
+    ComputerPlayer fresh = new ComputerPlayer(9);
+    int col = fresh.aiMove(configTest);
+
+    assertEquals("Second move of the game - testing for aiMove to return the same column as a new ComputerPlayer.", col, ai.aiMove(configTest));
+    assertTrue("Second move of the game - testing for fewer positions visited than a new ComputerPlayer.", ai.getNodeCount() < fresh.getNodeCount());
+
+    ai.newGame();
+    ai.aiMove(configTest);
+
+    assertEquals("newGame was called - testing for the same positions visited as a new ComputerPlayer.", fresh.getNodeCount(), ai.getNodeCount());
+
+  }
+
+  /**
+   * The computer plays its move on the Benchmark position "246563" at a maxDepth of 9, the user replies in column index 2 and the
+   * evaluation is changed to the line counts. The expected result is the same positions visited as a new ComputerPlayer with the
+   * line counts, since the scores found with the cell weights are thrown away.
+   */
+  @Test
+  public void test_ComputerPlayer_setEvaluation_StartsSearchOver() {
+
+    ComputerPlayer ai = new ComputerPlayer(9);
+    GameConfig configTest = Benchmark.position("246563");
+    configTest.makeMove(ai.aiMove(configTest), 2);
+    configTest.makeMove(2, 1);
+    ai.setEvaluation(ComputerPlayer.LINE_COUNTS);
+
+    ComputerPlayer fresh = new ComputerPlayer(9);
+    fresh.setEvaluation(ComputerPlayer.LINE_COUNTS);
+    int col = fresh.aiMove(configTest);
+
+    assertEquals("Evaluation changed during the game - testing for aiMove to return the same column as a new ComputerPlayer.", col, ai.aiMove(configTest));
+    assertEquals("Evaluation changed during the game - testing for the same positions visited as a new ComputerPlayer.", fresh.getNodeCount(), ai.getNodeCount());
+
+  }
+
+  /**
+   * A board with 3 tokens in it is searched on another thread at a maxDepth of 42 with no time limit, and stopSearch is called
+   * until aiMove returns. The expected result is that aiMove returns well before a full search could finish, with a column that
+   * can be played.
+   */
+  @Test
+  public void test_ComputerPlayer_stopSearch_OtherThread() throws InterruptedException {
+
+    GameConfig configTest = Benchmark.position("445");
+    ComputerPlayer ai = new ComputerPlayer(42);
+    int[] col = {-1};
+    Thread search = new Thread(() -> col[0] = ai.aiMove(configTest));
+    long start = System.currentTimeMillis();
+    search.start();
+
+    /* stopSearch does nothing until the search has started, so it is called until aiMove returns. */
+    search.join(100);
+    while (search.isAlive() && System.currentTimeMillis() - start < 5000) {
+
+      ai.stopSearch();
+      search.join(50);
+    }
+
+    assertFalse("Board has 3 tokens in it, search stopped - testing for aiMove to return within 5 seconds.", search.isAlive());
+    assertTrue("Board has 3 tokens in it, search stopped - testing for a column that can be played.", col[0] >= 0 && col[0] <= 6 && !configTest.fullColumn(col[0]));
+    assertTrue("Board has 3 tokens in it, search stopped - testing for a search that did not reach the end of the game.", ai.getSearchDepth() < 39);
+
+  }
+
+  /**
+   * stopSearch is called before aiMove on a board with 3 tokens in it at a maxDepth of 42 with no time limit, then clearStop is
+   * called and aiMove is called again at a maxDepth of 5. The expected result is that the first search stops at its first depth,
+   * and the second search isn't stopped.
+   */
+  @Test
+  public void test_ComputerPlayer_stopSearch_BeforeAiMove() {
+
+    GameConfig configTest = Benchmark.position("445");
+    ComputerPlayer ai = new ComputerPlayer(42);
+    ai.stopSearch();
+    int col = ai.aiMove(configTest);
+
+    assertTrue("Board has 3 tokens in it, stopped before the search - testing for a column that can be played.", col >= 0 && col <= 6 && !configTest.fullColumn(col));
+    assertEquals("Board has 3 tokens in it, stopped before the search - testing for a search of depth 1.", 1, ai.getSearchDepth());
+
+    ai.clearStop();
+    ai.setMaxDepth(5);
+    ai.aiMove(configTest);
+
+    assertEquals("Board has 3 tokens in it, stop cleared - testing for a search of depth 5.", 5, ai.getSearchDepth());
+
+  }
+
+  /**
+   * The computer plays its move on the Benchmark position "44" at a maxDepth of 7 and ponders while the user chooses, then the user
+   * plays in column index 2. The expected result is the same column as a ComputerPlayer that didn't ponder, after visiting far
+   * fewer positions, and the positions visited by the computer's last move kept by ponder.
+   */
+  @Test
+  public void test_ComputerPlayer_ponder_ReplyFoundQuicker() {
+
+    ComputerPlayer ai = new ComputerPlayer(7);
+    ComputerPlayer unpondered = new ComputerPlayer(7);
+    GameConfig configTest = Benchmark.position("44");
+    int col = ai.aiMove(configTest);
+    long nodes = ai.getNodeCount();
+    configTest.makeMove(col, 2);
+    unpondered.aiMove(Benchmark.position("44"));
+
+    ai.ponder(configTest);
+
+    assertEquals("Computer pondered after its move - testing for getNodeCount to return the positions of its move.", nodes, ai.getNodeCount());
+
+    configTest.makeMove(2, 1);
+    int expected = unpondered.aiMove(configTest);
+
+    assertEquals("User played a pondered column - testing for aiMove to return the same column as without pondering.", expected, ai.aiMove(configTest));
+    assertTrue("User played a pondered column - testing for far fewer positions visited than without pondering.", ai.getNodeCount() * 10 < unpondered.getNodeCount());
+
+  }
+
+  /**
+   * stopSearch is called after the computer's move on the Benchmark position "44" at a maxDepth of 7, before it ponders. The
+   * expected result is that ponder searches nothing, so the computer's next move visits as many positions as without pondering.
+   */
+  @Test
+  public void test_ComputerPlayer_ponder_StoppedBeforeStart() {
+
+    ComputerPlayer ai = new ComputerPlayer(7);
+    ComputerPlayer unpondered = new ComputerPlayer(7);
+    GameConfig configTest = Benchmark.position("44");
+    configTest.makeMove(ai.aiMove(configTest), 2);
+    unpondered.aiMove(Benchmark.position("44"));
+
+    ai.stopSearch();
+    ai.ponder(configTest);
+    configTest.makeMove(2, 1);
+    unpondered.aiMove(configTest);
+    ai.clearStop();
+    ai.aiMove(configTest);
+
+    assertEquals("Pondering was stopped before it started - testing for the same positions visited as without pondering.", unpondered.getNodeCount(), ai.getNodeCount());
+
+  }
+
+  /**
+   * stopSearch is called after the computer's move on the Benchmark position "44" at a maxDepth of 7, as when the difficulty is
+   * changed, then clearStop is called and the computer ponders, then the user plays in column index 2. The expected result is
+   * that ponder searches the user's columns, so the computer's next move visits far fewer positions than without pondering.
+   */
+  @Test
+  public void test_ComputerPlayer_ponder_AfterClearStop() {
+
+    ComputerPlayer ai = new ComputerPlayer(7);
+    ComputerPlayer unpondered = new ComputerPlayer(7);
+    GameConfig configTest = Benchmark.position("44");
+    configTest.makeMove(ai.aiMove(configTest), 2);
+    unpondered.aiMove(Benchmark.position("44"));
+
+    ai.stopSearch();
+    ai.clearStop();
+    ai.ponder(configTest);
+    configTest.makeMove(2, 1);
+    unpondered.aiMove(configTest);
+    ai.aiMove(configTest);
+
+    assertTrue("Stop was cleared before pondering - testing for far fewer positions visited than without pondering.", ai.getNodeCount() * 10 < unpondered.getNodeCount());
+
+  }
 
 }
\ No newline at end of file
@@ -151,6 +151,58 @@ public class GameConfigTest {
 
   }
 
+  /**
+   * Test for the copy constructor followed by makeMove. The expected result is that the move is made in the copy only,
+   * and the original GameConfig's board is left as it was.
+   */
+  @Test
+  public void test_GameConfig_copy_IndependentBoard() {
+
+    GameConfig configTest = new GameConfig();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0}};
+
+    configTest.setBoard(testBoard);
+    GameConfig copyTest = new GameConfig(configTest);
+    copyTest.makeMove(copyTest.getBoard(), 3, 1);
+
+    assertEquals("Copy had a token played in column index 3 - testing for the copy's board to have a 1 in row 3.", 1, copyTest.getBoard()[3][3]);
+    assertEquals("Copy had a token played in column index 3 - testing for the original board to still be free in row 3.", 0, configTest.getBoard()[3][3]);
+
+  }
+
+  /**
+   * Test for getPositionKey on a copy of a GameConfig that had a move made in it. The expected result is that the copy's key
+   * changes with the move, and matches a GameConfig that was set to the same board.
+   */
+  @Test
+  public void test_GameConfig_getPositionKey_AfterMove() {
+
+    GameConfig configTest = new GameConfig();
+    GameConfig copyTest = new GameConfig(configTest);
+    copyTest.makeMove(copyTest.getBoard(), 3, 1);
+
+    GameConfig boardTest = new GameConfig();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    boardTest.setBoard(testBoard);
+
+    assertNotEquals("Copy had a token played in column index 3 - testing for the key to change.", configTest.getPositionKey(), copyTest.getPositionKey());
+    assertEquals("Copy had a token played in column index 3 - testing for the key to match the same board.", boardTest.getPositionKey(), copyTest.getPositionKey());
+
+  }
+
   /**
    * Test for getWinner that has a completely full board with no winner. The expected result once a checkForWinner method is called
    * on the GameConfig is -1, the designed indicator of a draw.
@@ -174,6 +226,23 @@ public class GameConfigTest {
 
   }
 
+  /**
+   * Test for checkForWinner after an empty board is set. The expected result is an ongoing game (0) with no winning connection
+   * positions, since there is no last move to check the connections of.
+   */
+  @Test
+  public void test_GameConfig_checkForWinner_EmptyBoardSet() {
+
+    GameConfig configTest = new GameConfig();
+    configTest.setBoard(new int[6][7]);
+    configTest.checkForWinner();
+
+    assertEquals("Empty board was set - testing for getWinner to return 0 (ongoing game).", 0, configTest.getWinner());
+    assertTrue("Empty board was set - testing for getWinRow to return no positions.", configTest.getWinRow().isEmpty());
+    assertTrue("Empty board was set - testing for getWinCol to return no positions.", configTest.getWinCol().isEmpty());
+
+  }
+
   /**
    * Test for getWinner that has an almost full board with one free space open and no winning connection. The expected result once a checkForWinner
    * method is called on the GameConfig is 0, the designed indicator of an ongoing game.
@@ -404,4 +473,63 @@ public class GameConfigTest {
 
   }
 
+  /**
+   * Test for getWinner after the winning move is made with makeMove. The expected result is that checking only the connections
+   * through the last move finds the same ascending diagonal win, with the same winning positions, as searching the whole board.
+   */
+  @Test
+  public void test_GameConfig_getWinner_LastMoveWinMatchesValidation() {
+
+    GameConfig configTest = new GameConfig();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,1,2,0,0},
+                         {0,0,1,2,2,0,0},
+                         {0,1,2,2,1,0,0}};
+
+    configTest.setBoard(testBoard);
+    configTest.checkForWinner();
+
+    GameConfig validationTest = new GameConfig(configTest);
+    validationTest.setValidationMode(true);
+
+    configTest.makeMove(configTest.getBoard(), 4, 1);
+    configTest.checkForWinner();
+    validationTest.makeMove(validationTest.getBoard(), 4, 1);
+    validationTest.checkForWinner();
+
+    assertEquals("Player one completes an ascending diagonal with the last move - testing for getWinner to return 1.", 1, configTest.getWinner());
+    assertEquals("Player one completes an ascending diagonal with the last move - testing for the same winning rows as validation mode.", validationTest.getWinRow(), configTest.getWinRow());
+    assertEquals("Player one completes an ascending diagonal with the last move - testing for the same winning columns as validation mode.", validationTest.getWinCol(), configTest.getWinCol());
+
+  }
+
+  /**
+   * Test for getWinner after the last free space is filled with makeMove. The expected result is that the move count
+   * reaches 42 and checkForWinner returns -1, the designed indicator of a draw.
+   */
+  @Test
+  public void test_GameConfig_getWinner_LastMoveDraw() {
+
+    GameConfig configTest = new GameConfig();
+
+    int[][] testBoard = {{2,1,1,2,2,1,0},
+                         {1,2,2,1,1,2,1},
+                         {2,1,1,2,2,1,2},
+                         {1,2,2,1,1,2,1},
+                         {2,1,1,2,2,1,2},
+                         {1,2,2,1,1,2,1}};
+
+    configTest.setBoard(testBoard);
+    configTest.checkForWinner();
+    configTest.makeMove(configTest.getBoard(), 6, 2);
+    configTest.checkForWinner();
+
+    assertEquals("Connect4 board was filled by the last move - testing for getMoveCount to return 42.", 42, configTest.getMoveCount());
+    assertEquals("Connect4 board was filled by the last move with no winner - testing for getWinner to return -1 (draw game).", -1, configTest.getWinner());
+
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * MoveOrderingTest is a JUnit test class that tests the order MoveOrdering puts the columns of a position in.
+ *
+ * <p>Each heuristic is tested on its own: center first, the transposition table's move, killer moves and history scores,
+ * along with full columns being left out.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class MoveOrderingTest {
+
+  /**
+   * Test for orderMoves on an empty board. The expected result is the columns ordered from the middle out.
+   */
+  @Test
+  public void test_MoveOrdering_orderMoves_CenterFirst() {
+
+    MoveOrdering orderingTest = new MoveOrdering();
+    int[] moves = new int[7];
+    int count = orderingTest.orderMoves(new Bitboard(), 0, 2, -1, moves);
+
+    assertEquals("Board is empty - testing for orderMoves to return 7 columns.", 7, count);
+    assertArrayEquals("Board is empty - testing for orderMoves to return the columns from the middle out.", new int[] {3, 2, 4, 1, 5, 0, 6}, moves);
+
+  }
+
+  /**
+   * Test for orderMoves with center first turned off and a full column. The expected result is the other columns from left to right.
+   */
+  @Test
+  public void test_MoveOrdering_orderMoves_FullColumn() {
+
+    MoveOrdering orderingTest = new MoveOrdering();
+    orderingTest.setCenterFirst(false);
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,0,1,0,0,0}};
+
+    int[] moves = new int[7];
+    int count = orderingTest.orderMoves(new Bitboard(testBoard), 0, 2, -1, moves);
+
+    assertEquals("Column index 3 is full - testing for orderMoves to return 6 columns.", 6, count);
+    assertArrayEquals("Column index 3 is full - testing for orderMoves to return the other columns from left to right.", new int[] {0, 1, 2, 4, 5, 6}, Arrays.copyOf(moves, count));
+
+  }
+
+  /**
+   * Test for orderMoves with a table move and a killer move. The expected result is the table move first, then the killer move,
+   * then the rest of the columns from the middle out.
+   */
+  @Test
+  public void test_MoveOrdering_orderMoves_TableMoveThenKiller() {
+
+    MoveOrdering orderingTest = new MoveOrdering();
+    orderingTest.setHistory(false);
+    Bitboard position = new Bitboard();
+    orderingTest.cutoff(position, 2, 1, 5, 3);
+
+    int[] moves = new int[7];
+    orderingTest.orderMoves(position, 2, 1, 0, moves);
+
+    assertArrayEquals("Table move is column 0 and killer move is column 5 - testing for them to be searched first.", new int[] {0, 5, 3, 2, 4, 1, 6}, moves);
+
+  }
+
+  /**
+   * Test for orderMoves with a history score at a different ply. The expected result is that the column with the history score
+   * goes first even though it is not a killer move at this ply.
+   */
+  @Test
+  public void test_MoveOrdering_orderMoves_History() {
+
+    MoveOrdering orderingTest = new MoveOrdering();
+    Bitboard position = new Bitboard();
+    orderingTest.cutoff(position, 4, 2, 6, 5);
+
+    int[] moves = new int[7];
+    orderingTest.orderMoves(position, 1, 2, -1, moves);
+
+    assertEquals("Column index 6 caused a cutoff for the computer at ply 4 - testing for it to be searched first at ply 1.", 6, moves[0]);
+
+  }
+
+  /**
+   * Test for age between a cutoff in column index 6 at depth 5 and a cutoff in column index 0 at depth 4, with killers turned
+   * off. The expected result is column index 0 first, since the older history score was halved. Once killers are turned on, the
+   * killer move found at ply 2 is still searched first at ply 2.
+   */
+  @Test
+  public void test_MoveOrdering_age_NewerHistoryFirst() {
+
+    MoveOrdering orderingTest = new MoveOrdering();
+    orderingTest.setKillers(false);
+    Bitboard position = new Bitboard();
+    orderingTest.cutoff(position, 2, 1, 6, 5);
+    orderingTest.age();
+    orderingTest.cutoff(position, 4, 1, 0, 4);
+
+    int[] moves = new int[7];
+    orderingTest.orderMoves(position, 1, 1, -1, moves);
+
+    assertEquals("Column index 6 caused an older cutoff at depth 5, column index 0 a newer one at depth 4 - testing for column 0 first.", 0, moves[0]);
+
+    orderingTest.setKillers(true);
+    orderingTest.orderMoves(position, 2, 1, -1, moves);
+
+    assertEquals("Column index 6 was a killer move at ply 2 before age - testing for it to be searched first at ply 2.", 6, moves[0]);
+
+  }
+
+  /**
+   * Test for copyTables from a MoveOrdering with a killer move into one with killers turned off. The expected result is that the
+   * copy keeps its own heuristics, so the killer move is not searched first, and that it is once killers are turned on.
+   */
+  @Test
+  public void test_MoveOrdering_copyTables_KeepsHeuristics() {
+
+    MoveOrdering source = new MoveOrdering();
+    source.cutoff(new Bitboard(), 0, 1, 0, 1);
+    MoveOrdering orderingTest = new MoveOrdering();
+    orderingTest.setKillers(false);
+    orderingTest.setHistory(false);
+    orderingTest.copyTables(source);
+
+    int[] moves = new int[7];
+    orderingTest.orderMoves(new Bitboard(), 0, 1, -1, moves);
+
+    assertEquals("Killers are off in the copy - testing for the middle column first.", 3, moves[0]);
+
+    orderingTest.setKillers(true);
+    orderingTest.orderMoves(new Bitboard(), 0, 1, -1, moves);
+
+    assertEquals("Killers are turned on in the copy - testing for the copied killer move first.", 0, moves[0]);
+
+  }
+
+}
@@ -0,0 +1,345 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * NegamaxEngineTest is a JUnit test class that tests the search of the NegamaxEngine through the SearchEngine interface.
+ *
+ * <p>The engine is tested for searching for either player, leaving the position it is given unchanged, choosing the same column
+ * as a ComputerPlayer, giving the same results when one engine is searching on several threads at the same time, scoring
+ * positions with the line counts, and scoring positions neither player can win as draws.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class NegamaxEngineTest {
+
+  /**
+   * Test for search for the user (player 1) when the user can win this move. The expected result is the winning column, index 2,
+   * with a winning score.
+   */
+  @Test
+  public void test_NegamaxEngine_search_PlayerOneWin() {
+
+    SearchEngine engineTest = new NegamaxEngine();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,1,0,0,0,0},
+                         {0,0,1,2,0,0,0},
+                         {0,2,1,2,0,0,0}};
+
+    SearchResult result = engineTest.search(new Bitboard(testBoard), 1, new SearchLimits(3));
+
+    assertEquals("User can win in column index 2 - testing for search to return column 2.", 2, result.getColumn());
+    assertTrue("User can win in column index 2 - testing for search to return a winning score.", result.getScore() > NegamaxEngine.WIN_SCORE);
+
+  }
+
+  /**
+   * Test for search leaving the position it was given unchanged. The expected result is a position equal to a copy made before
+   * the search.
+   */
+  @Test
+  public void test_NegamaxEngine_search_PositionUnchanged() {
+
+    SearchEngine engineTest = new NegamaxEngine();
+    Bitboard position = Benchmark.position("347464176146").getPosition();
+    Bitboard copy = new Bitboard(position);
+
+    engineTest.search(position, 2, new SearchLimits(6));
+
+    assertEquals("Position was searched to a depth of 6 - testing for the position to be unchanged.", copy, position);
+
+  }
+
+  /**
+   * Test for search on the board from ComputerPlayerTest's MaxDepth7MoveFullerBoard test. The expected result is the same column
+   * the ComputerPlayer chooses, index 5, searched to a depth of 7.
+   */
+  @Test
+  public void test_NegamaxEngine_search_SameAsComputerPlayer() {
+
+    SearchEngine engineTest = new NegamaxEngine();
+    GameConfig configTest = new GameConfig();
+
+    int[][] testBoard = {{0,0,0,2,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,1,2,2,1,0,0},
+                         {0,2,1,1,2,0,0},
+                         {0,2,1,2,1,2,0},
+                         {2,2,1,1,2,1,1}};
+
+    configTest.setBoard(testBoard);
+    SearchLimits limits = new SearchLimits(7);
+    limits.setTable(new TranspositionTable(1));
+    SearchResult result = engineTest.search(configTest.getPosition(), 2, limits);
+
+    assertEquals("Board has tokens in it, searched to a depth of 7 - testing for search to return column 5.", new ComputerPlayer(7).aiMove(configTest), result.getColumn());
+    assertEquals("Board has tokens in it, searched to a depth of 7 - testing for getDepth to return 7.", 7, result.getDepth());
+
+  }
+
+  /**
+   * Test for search called by 4 threads at the same time on one engine, each thread with its own transposition table. The expected
+   * result is that every thread gets the same columns and scores as searching the same positions one at a time.
+   */
+  @Test
+  public void test_NegamaxEngine_search_ConcurrentCalls() throws InterruptedException {
+
+    NegamaxEngine engineTest = new NegamaxEngine();
+    String[] suite = Benchmark.SUITE;
+    int[] expectedCols = new int[suite.length];
+    int[] expectedScores = new int[suite.length];
+
+    for (int i = 0; i < suite.length; i ++) {
+
+      SearchLimits limits = new SearchLimits(7);
+      limits.setTable(new TranspositionTable(1));
+      SearchResult result = engineTest.search(Benchmark.position(suite[i]).getPosition(), 2, limits);
+      expectedCols[i] = result.getColumn();
+      expectedScores[i] = result.getScore();
+    }
+
+    int[][] cols = new int[4][suite.length];
+    int[][] scores = new int[4][suite.length];
+    Thread[] threads = new Thread[4];
+
+    for (int t = 0; t < threads.length; t ++) {
+
+      int thread = t;
+      threads[t] = new Thread(() -> {
+
+        TranspositionTable table = new TranspositionTable(1);
+        for (int i = 0; i < suite.length; i ++) {
+
+          /* Each thread starts at a different position so the searches overlap. */
+          int p = (i + thread * 3) % suite.length;
+          table.clear();
+          SearchLimits limits = new SearchLimits(7);
+          limits.setTable(table);
+          SearchResult result = engineTest.search(Benchmark.position(suite[p]).getPosition(), 2, limits);
+          cols[thread][p] = result.getColumn();
+          scores[thread][p] = result.getScore();
+        }
+      });
+      threads[t].start();
+    }
+
+    for (Thread thread : threads) {
+
+      thread.join();
+    }
+
+    for (int t = 0; t < threads.length; t ++) {
+
+      assertArrayEquals("One engine searched by 4 threads at once - testing for the same columns as one thread.", expectedCols, cols[t]);
+      assertArrayEquals("One engine searched by 4 threads at once - testing for the same scores as one thread.", expectedScores, scores[t]);
+    }
+
+  }
+
+  /**
+   * Test for search with the LINE_COUNTS evaluation to a depth of 1, where the computer has two tokens in the bottom row. The
+   * expected result is column index 4, making 3 in a row, where CELL_WEIGHTS plays on top of the middle column instead.
+   */
+  @Test
+  public void test_NegamaxEngine_search_LineCountsOpenThree() {
+
+    NegamaxEngine engineTest = new NegamaxEngine();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,1,2,2,0,0,0}};
+
+    assertEquals("Cell weights searched to a depth of 1 - testing for search to return column 3.", 3, engineTest.search(new Bitboard(testBoard), 2, new SearchLimits(1)).getColumn());
+
+    engineTest.setEvaluation(NegamaxEngine.LINE_COUNTS);
+
+    assertEquals("Line counts searched to a depth of 1 - testing for search to return column 4.", 4, engineTest.search(new Bitboard(testBoard), 2, new SearchLimits(1)).getColumn());
+
+  }
+
+  /**
+   * Test for search with draw detection on the Benchmark position "7412262423511272316647664753633475543", which neither player
+   * can win any more. The expected result is a draw, 0, found after visiting fewer positions than without draw detection.
+   */
+  @Test
+  public void test_NegamaxEngine_search_DrawDetection() {
+
+    NegamaxEngine engineTest = new NegamaxEngine();
+    Bitboard position = Benchmark.position("7412262423511272316647664753633475543").getPosition();
+    long nodes = engineTest.search(position, 2, new SearchLimits(5)).getNodeCount();
+
+    engineTest.setDrawDetection(true);
+    SearchResult result = engineTest.search(position, 2, new SearchLimits(5));
+
+    assertEquals("Neither player can win, draw detection on - testing for search to return a score of 0.", 0, result.getScore());
+    assertTrue("Neither player can win, draw detection on - testing for fewer positions visited.", result.getNodeCount() < nodes);
+
+  }
+
+  /**
+   * Test for search with the ASPIRATION and MTDF drivers on every Benchmark position, to a depth of 7. The expected result is the
+   * same score as the full window searching every depth, since the drivers only change the windows each depth is searched with.
+   */
+  @Test
+  public void test_NegamaxEngine_search_DriversSameScore() {
+
+    for (String moves : Benchmark.SUITE) {
+
+      Bitboard position = Benchmark.position(moves).getPosition();
+      SearchLimits limits = new SearchLimits(7);
+      limits.setNodeLimit(Long.MAX_VALUE);
+      int score = new NegamaxEngine().search(position, 2, limits).getScore();
+
+      for (int driver : new int[] {NegamaxEngine.ASPIRATION, NegamaxEngine.MTDF}) {
+
+        NegamaxEngine engineTest = new NegamaxEngine();
+        engineTest.setDriver(driver);
+
+        assertEquals("Position " + moves + ", driver " + driver + " - testing for search to return the full window's score.", score, engineTest.search(position, 2, new SearchLimits(7)).getScore());
+      }
+    }
+
+  }
+
+  /**
+   * Test for setReductions with a schedule of the wrong length and one with a negative reduction. The expected result is that
+   * neither is kept, and a valid schedule is.
+   */
+  @Test
+  public void test_NegamaxEngine_setReductions_Invalid() {
+
+    NegamaxEngine engineTest = new NegamaxEngine();
+    int[] schedule = {0, 0, 1, 1, 1, 2, 2};
+
+    engineTest.setReductions(new int[] {0, 1, 2});
+    engineTest.setReductions(new int[] {0, 0, 1, 1, 1, 2, -1});
+
+    assertArrayEquals("Invalid schedules - testing for getReductions to return no reductions.", new int[7], engineTest.getReductions());
+
+    engineTest.setReductions(schedule);
+    schedule[6] = 3;
+
+    assertArrayEquals("Valid schedule - testing for getReductions to return a copy of it.", new int[] {0, 0, 1, 1, 1, 2, 2}, engineTest.getReductions());
+
+  }
+
+  /**
+   * Test for search with 2 threads and young brothers wait over the Benchmark suite to a depth of 11, with and without late move
+   * reductions. The expected result is that the columns split between the threads are reduced too, so the search with reductions
+   * visits less than half as many positions.
+   */
+  @Test
+  public void test_NegamaxEngine_search_ReductionsYoungBrothersWait() {
+
+    long[] nodes = new long[2];
+    for (int r = 0; r < 2; r ++) {
+
+      NegamaxEngine engineTest = new NegamaxEngine();
+      engineTest.setThreads(2);
+      engineTest.setYoungBrothersWait(true);
+      if (r == 1) {
+
+        engineTest.setReductions(new int[] {0, 0, 1, 1, 1, 2, 2});
+      }
+      for (String moves : Benchmark.SUITE) {
+
+        nodes[r] += engineTest.search(Benchmark.position(moves).getPosition(), 2, new SearchLimits(11)).getNodeCount();
+      }
+    }
+
+    assertTrue("Young brothers wait with reductions - testing for less than half the positions visited without them.", nodes[1] * 2 < nodes[0]);
+
+  }
+
+  /**
+   * Test for search to a depth of 7 on the boards of the ComputerPlayer tests where the computer wins straight away, in a row,
+   * column, both diagonals and instead of blocking, with no reductions, the usual schedule and a column reduced by 7 moves. The
+   * expected result is the winning column with a winning score for every schedule, after visiting fewer positions the more the
+   * columns are reduced.
+   */
+  @Test
+  public void test_NegamaxEngine_search_ReductionsWinStraightAway() {
+
+    int[][][] testBoards = {{{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,1,1,0,0},
+                             {0,0,2,2,2,1,0}},
+                            {{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,2,0,0,0},
+                             {0,0,1,2,0,0,0},
+                             {0,1,1,2,0,0,0}},
+                            {{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,2,1,0,0},
+                             {0,0,2,1,1,0,0},
+                             {0,2,1,1,2,0,0}},
+                            {{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,2,0,0},
+                             {0,0,0,2,1,0,0},
+                             {0,0,2,1,1,0,0},
+                             {0,0,1,1,2,0,0}},
+                            {{0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,0,0,0,0,0,0},
+                             {0,1,0,0,0,0,0},
+                             {0,1,0,0,0,0,0},
+                             {0,1,2,2,2,0,0}}};
+    int[] winningCols = {1, 3, 4, 1, 5};
+    int[][] schedules = {{0, 0, 0, 0, 0, 0, 0}, {0, 0, 1, 1, 1, 2, 2}, {7, 7, 7, 7, 7, 7, 7}};
+
+    for (int i = 0; i < testBoards.length; i ++) {
+
+      long nodes = 0;
+      for (int[] schedule : schedules) {
+
+        NegamaxEngine engineTest = new NegamaxEngine();
+        engineTest.setReductions(schedule);
+        SearchResult result = engineTest.search(new Bitboard(testBoards[i]), 2, new SearchLimits(7));
+        String board = "Board " + i + " has 3 computer tokens in a line, reductions of up to " + schedule[6];
+
+        assertEquals(board + " - testing for search to return column " + winningCols[i] + ".", winningCols[i], result.getColumn());
+        assertTrue(board + " - testing for search to return a winning score.", result.getScore() > NegamaxEngine.WIN_SCORE / 2);
+        if (schedule[6] > 0) {
+
+          assertTrue(board + " - testing for fewer positions visited than with smaller reductions.", result.getNodeCount() < nodes);
+        }
+        nodes = result.getNodeCount();
+      }
+    }
+
+  }
+
+  /**
+   * Test for search on an empty board to a depth of 42 with limits that were stopped before the search started. The expected
+   * result is that only the first depth finishes, with the middle column.
+   */
+  @Test
+  public void test_NegamaxEngine_search_Stopped() {
+
+    SearchEngine engineTest = new NegamaxEngine();
+    SearchLimits limits = new SearchLimits(42);
+    limits.stop();
+
+    SearchResult result = engineTest.search(new Bitboard(), 2, limits);
+
+    assertEquals("Empty board, search stopped - testing for only the first depth to finish.", 1, result.getDepth());
+    assertEquals("Empty board, search stopped - testing for search to return column 3.", 3, result.getColumn());
+
+  }
+
+}
@@ -0,0 +1,138 @@
+package connect4test;
+
+import connect4.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * OpeningBookTest is a JUnit test class that tests books written by BookGenerator and read by OpeningBook.
+ *
+ * <p>The tests share one small book written from a Benchmark position that is quick to solve, since a book from an empty board
+ * takes far too long to generate in a test. The book is tested for agreeing with the Solver, finding mirror images, leaving out
+ * positions past its last move and refusing files that are not books.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class OpeningBookTest {
+
+  /**
+   * book stores the book written by the first test that needs it, so it is only generated once.
+   */
+  private static OpeningBook book;
+
+  /**
+   * writeBook writes a book from the Benchmark position "271434144165" to 14 moves into a temporary file, the first time it is
+   * called.
+   *
+   * @return The book read from the file.
+   * @throws Exception If the book can't be written or read.
+   */
+  private static synchronized OpeningBook writeBook() throws Exception {
+
+    if (book == null) {
+
+      Path file = Files.createTempFile("connect4", ".book");
+      file.toFile().deleteOnExit();
+      BookGenerator.generate(Benchmark.position("271434144165").getPosition(), 14, file, 2, 4);
+      book = new OpeningBook(file);
+    }
+
+    return book;
+  }
+
+  /**
+   * Test for getScore and getColumn on every position one move after the book's first position. The expected result is the
+   * same score the Solver finds, and the book's column keeping that score.
+   */
+  @Test
+  public void test_OpeningBook_getScore_SameAsSolver() throws Exception {
+
+    OpeningBook bookTest = writeBook();
+    Solver solver = new Solver();
+
+    for (int c = 1; c <= 7; c ++) {
+
+      if (Benchmark.position("271434144165").fullColumn(c - 1)) {
+
+        continue;
+      }
+      Bitboard position = Benchmark.position("271434144165" + c).getPosition();
+      if (position.isWin(1)) {
+
+        continue;
+      }
+      int score = solver.solve(position, 2, new TranspositionTable(4));
+
+      assertEquals("Position is in the book - testing for getScore to return the Solver's score.", score, bookTest.getScore(position, 2));
+
+      int col = bookTest.getColumn(position, 2);
+      position.makeMove(col, 2);
+      if (!position.isWin(2)) {
+
+        assertEquals("Position is in the book - testing for the book's column to keep the score.", -score, solver.solve(position, 1, new TranspositionTable(4)));
+      }
+    }
+
+  }
+
+  /**
+   * Test for getColumn on the mirror image of a position in the book. The expected result is the mirror image of the position's
+   * column.
+   */
+  @Test
+  public void test_OpeningBook_getColumn_Mirror() throws Exception {
+
+    OpeningBook bookTest = writeBook();
+    Bitboard position = Benchmark.position("2714341441653").getPosition();
+
+    int[][] mirrorBoard = new int[6][7];
+    position.fillBoard(mirrorBoard);
+    for (int[] row : mirrorBoard) {
+
+      for (int c = 0; c < 3; c ++) {
+
+        int swap = row[c];
+        row[c] = row[6 - c];
+        row[6 - c] = swap;
+      }
+    }
+
+    assertEquals("Mirror image of a position in the book - testing for getColumn to return the mirrored column.", 6 - bookTest.getColumn(position, 2), bookTest.getColumn(new Bitboard(mirrorBoard), 2));
+    assertEquals("Mirror image of a position in the book - testing for getScore to return the same score.", bookTest.getScore(position, 2), bookTest.getScore(new Bitboard(mirrorBoard), 2));
+
+  }
+
+  /**
+   * Test for getColumn on positions the book does not have, one past its last move and one from a different game. The expected
+   * result is -1 for both.
+   */
+  @Test
+  public void test_OpeningBook_getColumn_NotInBook() throws Exception {
+
+    OpeningBook bookTest = writeBook();
+
+    assertEquals("Book goes to 14 moves - testing for getPlies to return 14.", 14, bookTest.getPlies());
+    assertEquals("Position is 15 moves in - testing for getColumn to return -1.", -1, bookTest.getColumn(Benchmark.position("271434144165333").getPosition(), 2));
+    assertEquals("Position is from a different game - testing for getColumn to return -1.", -1, bookTest.getColumn(Benchmark.position("1").getPosition(), 2));
+
+  }
+
+  /**
+   * Test for the constructor on a file that is not a book. The expected result is an IOException.
+   */
+  @Test(expected = IOException.class)
+  public void test_OpeningBook_OpeningBook_NotABook() throws Exception {
+
+    Path file = Files.createTempFile("connect4", ".book");
+    file.toFile().deleteOnExit();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+    new OpeningBook(file);
+
+  }
+
+}
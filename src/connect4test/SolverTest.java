@@ -0,0 +1,139 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * SolverTest is a JUnit test class that tests the perfect play of the Solver.
+ *
+ * <p>The solver is tested for winning straight away, scoring a lost position, agreeing with itself when the best column is
+ * played, stopping at a node limit, and working out how long a game lasts from a score.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class SolverTest {
+
+  /**
+   * Test for search when the computer (player 2) can win this move. The expected result is the winning column, index 3, with the
+   * highest score for 7 moves played, winning with the 4th token.
+   */
+  @Test
+  public void test_Solver_search_WinNow() {
+
+    SearchEngine solverTest = new Solver();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,1,2,0,0,0},
+                         {0,1,1,2,0,0,1}};
+
+    SearchResult result = solverTest.search(new Bitboard(testBoard), 2, new SearchLimits(1));
+
+    assertEquals("Computer can win in column index 3 - testing for search to return column 3.", 3, result.getColumn());
+    assertEquals("Computer can win with its 4th token - testing for search to return the highest score.", Solver.toEngineScore(Solver.MAX_SCORE), result.getScore());
+
+  }
+
+  /**
+   * Test for search when the user (player 1) has two ways to win next move. The expected result is a loss to the user's 4th
+   * token, the lowest score.
+   */
+  @Test
+  public void test_Solver_search_DoubleThreat() {
+
+    SearchEngine solverTest = new Solver();
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,2,2,0,0,0},
+                         {0,0,1,1,1,0,0}};
+
+    SearchResult result = solverTest.search(new Bitboard(testBoard), 2, new SearchLimits(1));
+
+    assertEquals("User can win in column index 1 or 5 - testing for search to return the lowest score.", Solver.toEngineScore(Solver.MIN_SCORE), result.getScore());
+    assertTrue("User can win in column index 1 or 5 - testing for search to still return a column.", result.getColumn() >= 0);
+
+  }
+
+  /**
+   * Test for search on positions from the Benchmark suite. The expected result is the same score as solve, and the opponent's
+   * score after the column is played is the negation of it.
+   */
+  @Test
+  public void test_Solver_search_BestColumnKeepsScore() {
+
+    Solver solverTest = new Solver();
+    String[] suite = {"55655554", "271434144165", "2461577547472663"};
+
+    for (String moves : suite) {
+
+      Bitboard position = Benchmark.position(moves).getPosition();
+      SearchLimits limits = new SearchLimits(42);
+      limits.setTable(new TranspositionTable(4));
+      SearchResult result = solverTest.search(position, 2, limits);
+      int score = solverTest.solve(position, 2, null);
+
+      assertEquals("Position " + moves + " was solved - testing for search and solve to give the same score.", Solver.toEngineScore(score), result.getScore());
+
+      position.makeMove(result.getColumn(), 2);
+      if (!position.isWin(2)) {
+
+        assertEquals("Position " + moves + " was solved - testing for the best column to keep the score.", -score, solverTest.solve(position, 1, null));
+      }
+    }
+
+  }
+
+  /**
+   * Test for search on an empty board with a node limit of 10000, far too few to solve it. The expected result is no column (-1).
+   */
+  @Test
+  public void test_Solver_search_NodeLimit() {
+
+    SearchEngine solverTest = new Solver();
+    SearchLimits limits = new SearchLimits(42);
+    limits.setNodeLimit(10000);
+
+    SearchResult result = solverTest.search(new Bitboard(), 1, limits);
+
+    assertEquals("Empty board, node limit set to 10000 - testing for search to return column -1.", -1, result.getColumn());
+
+  }
+
+  /**
+   * Test for movesToEnd on an empty board. The expected result is 41 moves for a win with the last token and 42 moves for a loss
+   * to the last token.
+   */
+  @Test
+  public void test_Solver_movesToEnd_EmptyBoard() {
+
+    assertEquals("Empty board, win with the 21st token - testing for movesToEnd to return 41.", 41, Solver.movesToEnd(1, 0));
+    assertEquals("Empty board, loss to the 21st token - testing for movesToEnd to return 42.", 42, Solver.movesToEnd(-1, 0));
+    assertEquals("Empty board, win with the 4th token - testing for movesToEnd to return 7.", 7, Solver.movesToEnd(Solver.MAX_SCORE, 0));
+
+  }
+
+  /**
+   * Test for search on an empty board with limits that were stopped before the search started. The expected result is no column
+   * (-1), the search stops the first time it checks its limits.
+   */
+  @Test
+  public void test_Solver_search_Stopped() {
+
+    SearchEngine solverTest = new Solver();
+    SearchLimits limits = new SearchLimits(42);
+    limits.stop();
+
+    SearchResult result = solverTest.search(new Bitboard(), 1, limits);
+
+    assertEquals("Empty board, search stopped - testing for search to return column -1.", -1, result.getColumn());
+
+  }
+
+}
@@ -0,0 +1,138 @@
+package connect4test;
+
+import connect4.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * TablebaseTest is a JUnit test class that tests tablebases written by TablebaseGenerator and read by Tablebase.
+ *
+ * <p>The tests share one small tablebase of positions with at most 10 empty spaces, from 20 games played by TablebaseGenerator.
+ * The tablebase is tested for agreeing with the Solver, finding mirror images, leaving out positions with too many empty spaces
+ * and refusing files that are not tablebases.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class TablebaseTest {
+
+  /**
+   * roots stores the positions the shared tablebase was generated from.
+   */
+  private static List<Bitboard> roots;
+
+  /**
+   * tablebase stores the tablebase written by the first test that needs it, so it is only generated once.
+   */
+  private static Tablebase tablebase;
+
+  /**
+   * writeTablebase plays 20 games and writes a tablebase of positions with at most 10 empty spaces into a temporary file, the
+   * first time it is called.
+   *
+   * @return The tablebase read from the file.
+   * @throws Exception If the tablebase can't be written or read.
+   */
+  private static synchronized Tablebase writeTablebase() throws Exception {
+
+    if (tablebase == null) {
+
+      Path file = Files.createTempFile("connect4", ".tablebase");
+      file.toFile().deleteOnExit();
+      roots = TablebaseGenerator.playGames(20, 10, new Random(1));
+      TablebaseGenerator.generate(roots, 10, file, 2);
+      tablebase = new Tablebase(file);
+    }
+
+    return tablebase;
+  }
+
+  /**
+   * Test for getScore and getColumn on the positions the tablebase was generated from. The expected result is the same score the
+   * Solver finds, and the tablebase's column keeping that score.
+   */
+  @Test
+  public void test_Tablebase_getScore_SameAsSolver() throws Exception {
+
+    Tablebase tablebaseTest = writeTablebase();
+    Solver solver = new Solver();
+
+    assertFalse("20 games were played - testing for at least one to reach 10 empty spaces.", roots.isEmpty());
+
+    for (Bitboard root : roots) {
+
+      Bitboard position = new Bitboard(root);
+      int player = position.getMoveCount() % 2 == 0 ? 1 : 2;
+      int score = solver.solve(position, player, null);
+
+      assertEquals("Position is in the tablebase - testing for getScore to return the Solver's score.", score, tablebaseTest.getScore(position, player));
+
+      position.makeMove(tablebaseTest.getColumn(position, player), player);
+      if (!position.isWin(player) && position.getMoveCount() < 42) {
+
+        assertEquals("Position is in the tablebase - testing for the tablebase's column to keep the score.", -score, solver.solve(position, 3 - player, null));
+      }
+    }
+
+  }
+
+  /**
+   * Test for getColumn on the mirror image of a position in the tablebase. The expected result is the mirror image of the
+   * position's column.
+   */
+  @Test
+  public void test_Tablebase_getColumn_Mirror() throws Exception {
+
+    Tablebase tablebaseTest = writeTablebase();
+    Bitboard position = roots.get(0);
+    int player = position.getMoveCount() % 2 == 0 ? 1 : 2;
+
+    int[][] mirrorBoard = new int[6][7];
+    position.fillBoard(mirrorBoard);
+    for (int[] row : mirrorBoard) {
+
+      for (int c = 0; c < 3; c ++) {
+
+        int swap = row[c];
+        row[c] = row[6 - c];
+        row[6 - c] = swap;
+      }
+    }
+
+    assertEquals("Mirror image of a position in the tablebase - testing for getColumn to return the mirrored column.", 6 - tablebaseTest.getColumn(position, player), tablebaseTest.getColumn(new Bitboard(mirrorBoard), player));
+
+  }
+
+  /**
+   * Test for getColumn on a position with more empty spaces than the tablebase has. The expected result is -1.
+   */
+  @Test
+  public void test_Tablebase_getColumn_TooManyEmpty() throws Exception {
+
+    Tablebase tablebaseTest = writeTablebase();
+
+    assertEquals("Tablebase has positions with up to 10 empty spaces - testing for getMaxEmpty to return 10.", 10, tablebaseTest.getMaxEmpty());
+    assertEquals("Position has 30 empty spaces - testing for getColumn to return -1.", -1, tablebaseTest.getColumn(Benchmark.position("347464176146").getPosition(), 1));
+
+  }
+
+  /**
+   * Test for the constructor on an opening book file. The expected result is an IOException, since the magic number is different.
+   */
+  @Test(expected = IOException.class)
+  public void test_Tablebase_Tablebase_NotATablebase() throws Exception {
+
+    Path file = Files.createTempFile("connect4", ".book");
+    file.toFile().deleteOnExit();
+    BookGenerator.generate(Benchmark.position("2461577547472663").getPosition(), 16, file, 1, 1);
+
+    new Tablebase(file);
+
+  }
+
+}
@@ -0,0 +1,176 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * ThreatsTest is a JUnit test class that tests the threat analysis of Threats.
+ *
+ * <p>Threats is tested for finding winning moves in every direction, forced blocks, moves under a space the other player wins in,
+ * double threats that can't be blocked, wins forced by threats, and the column of a move.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class ThreatsTest {
+
+  /**
+   * Test for winningMoves and canWinNow on a board where the computer can win across in column index 3 and up in column index 0.
+   * The expected result is exactly those two spaces, and no winning move for the user.
+   */
+  @Test
+  public void test_Threats_winningMoves_TwoDirections() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {2,0,0,0,0,0,0},
+                         {2,0,1,0,1,0,0},
+                         {2,1,2,0,2,2,1}};
+
+    Bitboard position = new Bitboard(testBoard);
+    long wins = Threats.winningMoves(position.getTokens(2), position.getMask());
+
+    assertEquals("Computer wins across and up - testing for winningMoves to return two spaces.", Bitboard.cellMask(5, 3) | Bitboard.cellMask(2, 0), wins);
+    assertTrue("Computer wins across and up - testing for canWinNow to return true.", Threats.canWinNow(position, 2));
+    assertFalse("User has no 3 in a row - testing for canWinNow to return false.", Threats.canWinNow(position, 1));
+
+  }
+
+  /**
+   * Test for winningSpaces on a diagonal the user can't play in yet. The expected result is the space in the diagonal, which is
+   * not a winning move since the space below it is empty.
+   */
+  @Test
+  public void test_Threats_winningSpaces_NotPlayableYet() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,1,0,0,0},
+                         {0,0,1,2,0,0,0},
+                         {0,1,2,2,0,0,0},
+                         {1,2,2,1,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    assertEquals("User has 3 in a diagonal - testing for winningSpaces to return the fourth space.", Bitboard.cellMask(1, 4), Threats.winningSpaces(position.getTokens(1), position.getMask()));
+    assertEquals("Fourth space can't be played yet - testing for winningMoves to return 0.", 0L, Threats.winningMoves(position.getTokens(1), position.getMask()));
+
+  }
+
+  /**
+   * Test for forcedBlocks and nonLosingMoves when the user threatens to win in column index 1. The expected result is that the
+   * only non-losing move is the block.
+   */
+  @Test
+  public void test_Threats_nonLosingMoves_ForcedBlock() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,2,0,0,0},
+                         {0,0,1,1,1,2,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+    long tokens = position.getTokens(2);
+    long mask = position.getMask();
+
+    assertEquals("User has 3 in a row - testing for forcedBlocks to return column 1.", 1, Threats.columnOf(Threats.forcedBlocks(tokens, mask)));
+    assertEquals("User has 3 in a row - testing for nonLosingMoves to return only the block.", Threats.forcedBlocks(tokens, mask), Threats.nonLosingMoves(tokens, mask));
+
+  }
+
+  /**
+   * Test for nonLosingMoves when the user would win on top of the next space of column index 0 and 4. The expected result is
+   * every column but 0 and 4.
+   */
+  @Test
+  public void test_Threats_nonLosingMoves_UnderThreat() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,1,1,1,0,0,0},
+                         {0,1,2,1,0,0,0},
+                         {2,2,1,2,2,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+    long nonLosing = Threats.nonLosingMoves(position.getTokens(2), position.getMask());
+
+    assertEquals("User has no threat that can be played - testing for forcedBlocks to return 0.", 0L, Threats.forcedBlocks(position.getTokens(2), position.getMask()));
+    for (int c = 0; c < 7; c ++) {
+
+      assertEquals("User wins on top of column index 0 and 4 - testing for column " + c + ".", c != 0 && c != 4, (nonLosing & Bitboard.columnMask(c)) != 0);
+    }
+
+  }
+
+  /**
+   * Test for nonLosingMoves when the user has two threats in the bottom row that can both be played. The expected result is 0,
+   * there is no move that doesn't lose.
+   */
+  @Test
+  public void test_Threats_nonLosingMoves_DoubleThreat() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,2,2,0,0,0},
+                         {0,1,1,1,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    assertEquals("User has 3 in a row open at both ends - testing for forcedBlocks to return two spaces.", 2, Long.bitCount(Threats.forcedBlocks(position.getTokens(2), position.getMask())));
+    assertEquals("User has 3 in a row open at both ends - testing for nonLosingMoves to return 0.", 0L, Threats.nonLosingMoves(position.getTokens(2), position.getMask()));
+
+  }
+
+  /**
+   * Test for forcedWin when the computer can make 3 in a row with both ends open. The expected result is a win on the third move.
+   */
+  @Test
+  public void test_Threats_forcedWin_OpenThree() {
+
+    int[][] testBoard = {{0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,0,0,0,0,0},
+                         {0,0,1,1,0,0,0},
+                         {0,0,2,2,0,0,0}};
+
+    Bitboard position = new Bitboard(testBoard);
+
+    assertEquals("Computer can make 3 in a row open at both ends - testing for forcedWin to return 3.", 3, Threats.forcedWin(position.getTokens(2), position.getMask(), 9));
+    assertEquals("Empty board - testing for forcedWin to return 0.", 0, Threats.forcedWin(0L, 0L, 9));
+
+  }
+
+  /**
+   * Test for forcedWin on the Benchmark position "37774176222275763", where the computer wins with a sequence of threats on the
+   * ninth move. The expected result is 9, and 0 when only 7 moves can be looked at.
+   */
+  @Test
+  public void test_Threats_forcedWin_ThreatSequence() {
+
+    Bitboard position = Benchmark.position("37774176222275763").getPosition();
+
+    assertEquals("Computer wins with threats on the ninth move - testing for forcedWin to return 9.", 9, Threats.forcedWin(position.getTokens(2), position.getMask(), 9));
+    assertEquals("Computer wins with threats on the ninth move - testing for forcedWin to return 0 with 7 moves.", 0, Threats.forcedWin(position.getTokens(2), position.getMask(), 7));
+
+  }
+
+  /**
+   * Test for columnOf with several moves and with none. The expected result is the furthest left column, and -1 for none.
+   */
+  @Test
+  public void test_Threats_columnOf_FurthestLeft() {
+
+    assertEquals("Moves in column index 2 and 5 - testing for columnOf to return 2.", 2, Threats.columnOf(Bitboard.cellMask(3, 5) | Bitboard.cellMask(0, 2)));
+    assertEquals("No moves - testing for columnOf to return -1.", -1, Threats.columnOf(0L));
+
+  }
+
+}
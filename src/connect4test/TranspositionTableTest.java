@@ -0,0 +1,245 @@
+package connect4test;
+
+import connect4.*;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * TranspositionTableTest is a JUnit test class that tests the TranspositionTable used by the ComputerPlayer's search.
+ *
+ * <p>The table is tested for its size in entries, storing and finding positions, packing every part of an entry, and
+ * both replacement policies, on the heap and off it, and for saving and loading snapshot files.
+ *
+ * @author T02-1 - Matthew Cox
+ * @version 1.0
+ */
+public class TranspositionTableTest {
+
+  /**
+   * Test for getSize with a 1 megabyte table. The expected result is 65536 entries, since each entry uses 16 bytes.
+   */
+  @Test
+  public void test_TranspositionTable_getSize_OneMegabyte() {
+
+    TranspositionTable tableTest = new TranspositionTable(1);
+
+    assertEquals("Table is 1 megabyte - testing for getSize to return 65536.", 65536, tableTest.getSize());
+
+  }
+
+  /**
+   * Test for probe after storing a position. The expected result is that every part of the entry is found again,
+   * including a negative score.
+   */
+  @Test
+  public void test_TranspositionTable_probe_StoredPosition() {
+
+    TranspositionTable tableTest = new TranspositionTable(1);
+    tableTest.store(12345L, -100007, TranspositionTable.UPPER, 9, 6);
+    long entry = tableTest.probe(12345L);
+
+    assertEquals("Position was stored with a score of -100007 - testing for scoreOf to return -100007.", -100007, TranspositionTable.scoreOf(entry));
+    assertEquals("Position was stored as an upper bound - testing for boundOf to return UPPER.", TranspositionTable.UPPER, TranspositionTable.boundOf(entry));
+    assertEquals("Position was stored with a depth of 9 - testing for depthOf to return 9.", 9, TranspositionTable.depthOf(entry));
+    assertEquals("Position was stored with a best column of 6 - testing for bestColOf to return 6.", 6, TranspositionTable.bestColOf(entry));
+
+  }
+
+  /**
+   * Test for probe on a position that was never stored. The expected result is 0, the indicator of a missing position.
+   */
+  @Test
+  public void test_TranspositionTable_probe_MissingPosition() {
+
+    TranspositionTable tableTest = new TranspositionTable(1);
+    tableTest.store(12345L, 10, TranspositionTable.EXACT, 3, 2);
+
+    assertEquals("Position was never stored - testing for probe to return 0.", 0L, tableTest.probe(54321L));
+
+  }
+
+  /**
+   * Test for store with the depth replacement policy on a table with one entry. The expected result is that a position
+   * searched deeper is kept when a shallower position is stored after it.
+   */
+  @Test
+  public void test_TranspositionTable_store_ReplaceDepth() {
+
+    TranspositionTable tableTest = new TranspositionTable(0);
+    tableTest.setReplacementPolicy(TranspositionTable.REPLACE_DEPTH);
+    tableTest.store(1L, 10, TranspositionTable.EXACT, 6, 3);
+    tableTest.store(2L, 20, TranspositionTable.EXACT, 2, 4);
+
+    assertEquals("Table has 1 entry and the deeper position was stored first - testing for it to still be found.", 10, TranspositionTable.scoreOf(tableTest.probe(1L)));
+    assertEquals("Table has 1 entry and the deeper position was stored first - testing for the shallower position to be missing.", 0L, tableTest.probe(2L));
+
+  }
+
+  /**
+   * Test for store with the always replace policy on a table with one entry. The expected result is that the newest
+   * position is kept even though it was searched less deep.
+   */
+  @Test
+  public void test_TranspositionTable_store_ReplaceAlways() {
+
+    TranspositionTable tableTest = new TranspositionTable(0);
+    tableTest.setReplacementPolicy(TranspositionTable.REPLACE_ALWAYS);
+    tableTest.store(1L, 10, TranspositionTable.EXACT, 6, 3);
+    tableTest.store(2L, 20, TranspositionTable.EXACT, 2, 4);
+
+    assertEquals("Table has 1 entry and always replaces - testing for the newest position to be found.", 20, TranspositionTable.scoreOf(tableTest.probe(2L)));
+    assertEquals("Table has 1 entry and always replaces - testing for the older position to be missing.", 0L, tableTest.probe(1L));
+
+  }
+
+  /**
+   * Test for probe while 4 threads store positions in a table with one entry at the same time. Each position is stored with a
+   * score and best column worked out from its key. The expected result is that every position found has its own score and best
+   * column, never part of another position's entry.
+   */
+  @Test
+  public void test_TranspositionTable_probe_SharedBetweenThreads() throws InterruptedException {
+
+    TranspositionTable tableTest = new TranspositionTable(0);
+    tableTest.setReplacementPolicy(TranspositionTable.REPLACE_ALWAYS);
+    AtomicInteger found = new AtomicInteger();
+    AtomicInteger torn = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+
+    for (int t = 0; t < threads.length; t ++) {
+
+      long offset = t * 1000000L;
+      threads[t] = new Thread(() -> {
+
+        for (long key = offset + 1; key <= offset + 200000; key ++) {
+
+          tableTest.store(key, (int) (key % 1000), TranspositionTable.EXACT, (int) (key % 40), (int) (key % 7));
+          long entry = tableTest.probe(key);
+          if (entry != 0) {
+
+            found.incrementAndGet();
+            if (TranspositionTable.scoreOf(entry) != key % 1000 || TranspositionTable.bestColOf(entry) != key % 7) {
+
+              torn.incrementAndGet();
+            }
+          }
+        }
+      });
+      threads[t].start();
+    }
+
+    for (Thread thread : threads) {
+
+      thread.join();
+    }
+
+    assertTrue("Table is shared by 4 threads - testing for positions to be found after they are stored.", found.get() > 0);
+    assertEquals("Table is shared by 4 threads - testing for no position to be found with part of another position's entry.", 0, torn.get());
+
+  }
+
+  /**
+   * Test for probe and clear on a 1 megabyte table kept off the heap. The expected result is the same number of entries as on the
+   * heap, every part of a stored entry found again, and the position missing after the table is cleared.
+   */
+  @Test
+  public void test_TranspositionTable_probe_OffHeap() {
+
+    TranspositionTable tableTest = new TranspositionTable(1, TranspositionTable.OFF_HEAP);
+    tableTest.store(12345L, -100007, TranspositionTable.UPPER, 9, 6);
+    long entry = tableTest.probe(12345L);
+
+    assertEquals("Table is off the heap - testing for getStorage to return OFF_HEAP.", TranspositionTable.OFF_HEAP, tableTest.getStorage());
+    assertEquals("Table is 1 megabyte off the heap - testing for getSize to return 65536.", 65536, tableTest.getSize());
+    assertEquals("Position was stored off the heap - testing for the same entry as on the heap.", TranspositionTable.pack(-100007, TranspositionTable.UPPER, 9, 6), entry);
+    assertEquals("Position was never stored - testing for probe to return 0.", 0L, tableTest.probe(54321L));
+
+    tableTest.clear();
+
+    assertEquals("Table was cleared - testing for probe to return 0.", 0L, tableTest.probe(12345L));
+
+  }
+
+  /**
+   * Test for load after saving 1000 positions from a 1 megabyte table, into a 2 megabyte table kept off the heap. The expected
+   * result is that every position is loaded with the same entry, even though the tables are different sizes.
+   */
+  @Test
+  public void test_TranspositionTable_load_SavedTable() throws IOException {
+
+    Path file = Files.createTempFile("connect4", ".table");
+    file.toFile().deleteOnExit();
+    TranspositionTable saved = new TranspositionTable(1);
+    for (long key = 1; key <= 1000; key ++) {
+
+      saved.store(key * 7919, (int) key, TranspositionTable.LOWER, 12, (int) (key % 7));
+    }
+    saved.save(file);
+
+    TranspositionTable tableTest = new TranspositionTable(2, TranspositionTable.OFF_HEAP);
+
+    assertEquals("Snapshot has 1000 positions - testing for load to return 1000.", 1000, tableTest.load(file));
+    for (long key = 1; key <= 1000; key ++) {
+
+      assertEquals("Position " + key + " was saved - testing for the same entry after loading it.", saved.probe(key * 7919), tableTest.probe(key * 7919));
+    }
+
+  }
+
+  /**
+   * Test for load on a snapshot with one byte of its entries changed. The expected result is that the block with the changed
+   * byte is left out and every other block is loaded.
+   */
+  @Test
+  public void test_TranspositionTable_load_DamagedBlock() throws IOException {
+
+    Path file = Files.createTempFile("connect4", ".table");
+    file.toFile().deleteOnExit();
+    TranspositionTable saved = new TranspositionTable(2);
+    for (long key = 1; key <= 1000; key ++) {
+
+      saved.store(key, (int) key, TranspositionTable.EXACT, 5, 3);
+    }
+    saved.save(file);
+
+    /* 2 megabytes is 2 blocks, the byte changed is in the first entry of the second block. */
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+
+      channel.write(ByteBuffer.wrap(new byte[] {1}), TranspositionTable.HEADER_BYTES + 16 + 65536L * 16);
+    }
+
+    TranspositionTable tableTest = new TranspositionTable(2);
+    int loaded = tableTest.load(file);
+
+    assertTrue("Second block of the snapshot was changed - testing for some positions to be loaded.", loaded > 0);
+    assertTrue("Second block of the snapshot was changed - testing for some positions to be left out.", loaded < 1000);
+
+  }
+
+  /**
+   * Test for load on a snapshot with a different version. The expected result is an IOException.
+   */
+  @Test(expected = IOException.class)
+  public void test_TranspositionTable_load_WrongVersion() throws IOException {
+
+    Path file = Files.createTempFile("connect4", ".table");
+    file.toFile().deleteOnExit();
+    new TranspositionTable(1).save(file);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+
+      channel.write(ByteBuffer.allocate(4).putInt(0, TranspositionTable.VERSION + 1), 4);
+    }
+
+    new TranspositionTable(1).load(file);
+
+  }
+
+}
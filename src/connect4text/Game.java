@@ -1,6 +1,8 @@
 package connect4text;
 
 import connect4.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -41,6 +43,11 @@ public class Game {
 
   }
 
+  /**
+   * PERFECT is the difficulty choice for a computer that plays perfectly, one above the deepest search depth.
+   */
+  private static final int PERFECT = 8;
+
   /**
    * config stores an instance of GameConfig to manage the ongoing Connect4 game.
    */
@@ -119,9 +126,29 @@ public class Game {
    */
   private void pvai(int depth) {
 
-    /* Sets the computer's searching depth. */
+    /* Sets the computer's searching depth, or perfect play for the hardest choice. The opening is played from the book file and
+    the end of the game from the tablebase file, if they are in the working directory. Positions are scored with the line counts,
+    which play stronger than the cell weights, threat extensions find forced wins just past the depth, and positions neither
+    player can win any more are scored as draws. Perfect play starts from the positions solved in earlier games, kept in the
+    table snapshot file. */
     ai.setMaxDepth(depth);
-    System.out.println("\nMaximum search depth was set to " + depth + ". Good luck!");
+    ai.setEvaluation(ComputerPlayer.LINE_COUNTS);
+    ai.setThreatExtensions(true);
+    ai.setDrawDetection(true);
+    ai.setOpeningBook(OpeningBook.loadDefault());
+    ai.setTablebase(Tablebase.loadDefault());
+    ai.setTableFile(Paths.get(TranspositionTable.TABLE_FILE));
+
+    /* The computer keeps what it searched from one move to the next during this game, starting with nothing. */
+    ai.newGame();
+    if (depth == PERFECT) {
+
+      ai.setPerfectPlay(true);
+      System.out.println("\nThe computer will play perfectly. Good luck!");
+    } else {
+
+      System.out.println("\nMaximum search depth was set to " + depth + ". Good luck!");
+    }
 
     /* Draws the empty board before the first player's turn. */
     config.draw();
@@ -129,8 +156,10 @@ public class Game {
     /* Loops until the game has a winner or it ends in a draw. */
     while (true) {
 
-      /* First player's turn. */
+      /* First player's turn, the computer ponders the user's columns while the user chooses one. */
+      Thread ponderThread = startPondering();
       humanTurn(1);
+      stopPondering(ponderThread);
 
       /* Checks to see if the move the first player just made won them the game. */
       config.checkForWinner();
@@ -172,6 +201,15 @@ public class Game {
         break;
       }
     }
+
+    /* Keeps the positions solved this game for the next one, the game is over either way if the snapshot can't be saved. */
+    try {
+
+      ai.saveTables();
+    } catch (IOException e) {
+
+      System.out.println("\nThe solved positions couldn't be saved to " + TranspositionTable.TABLE_FILE + ".");
+    }
   }
 
   /**
@@ -212,10 +250,46 @@ public class Game {
 
     System.out.println("\nIt's the computer's turn to play!");
 
+    /* The pondering stopped by stopPondering has finished, so the computer's move can be searched. */
+    ai.clearStop();
+
     /* Updates the board with the move of the computer player. */
     config.makeMove(config.getBoard(), ai.aiMove(config), 2);
   }
 
+  /**
+   * startPondering has the computer ponder the user's columns on a thread of its own while the user chooses one, so its next
+   * move is found quicker.
+   *
+   * @return ponderThread The thread the computer ponders on.
+   */
+  private Thread startPondering() {
+
+    GameConfig ponderConfig = new GameConfig(config);
+    Thread ponderThread = new Thread(() -> ai.ponder(ponderConfig), "Connect 4 ponder");
+    ponderThread.setDaemon(true);
+    ponderThread.start();
+    return ponderThread;
+  }
+
+  /**
+   * stopPondering stops the computer pondering once the user has played, and waits for it to finish so the computer's move can
+   * be searched.
+   *
+   * @param ponderThread The thread the computer ponders on.
+   */
+  private void stopPondering(Thread ponderThread) {
+
+    ai.stopSearch();
+    try {
+
+      ponderThread.join();
+    } catch (InterruptedException e) {
+
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * getGameType is a method that takes in Scanner input from the user to choose a player vs. player
    * or player vs. computer game.
@@ -242,12 +316,12 @@ public class Game {
    * getDepth is a method that takes in Scanner input from the user to choose the maxDepth for the AI
    * after they chose to play against the computer.
    *
-   * @param in The user's choice for maxDepth (between 0-7).
+   * @param in The user's choice for maxDepth (between 0-7), or PERFECT for perfect play.
    * @return depth The depth the user chose for the AI.
    */
   private static int getDepth(Scanner in) {
 
-    System.out.print("\nChoose a maximum search depth between 0 (easy) to 7 (difficult) for the AI: ");
+    System.out.print("\nChoose a maximum search depth between 0 (easy) to 7 (difficult) for the AI, or " + PERFECT + " for perfect play: ");
 
     /** Loops until a useable depth value is selected and returned. */
     while (true) {
@@ -255,17 +329,17 @@ public class Game {
       if (!in.hasNextInt()) {
         /* Tells the user they need to type a number. */
         System.out.println("\nThat wasn't even a number!");
-        System.out.print("\nPlease enter a maximum search depth between 0 and 7: ");
+        System.out.print("\nPlease enter a maximum search depth between 0 and 7, or " + PERFECT + ": ");
       } else {
 
         int depth = in.nextInt();
-        /* Validates the depth is between 0 and 7. */
-        if (depth >= 0 && depth <= 7) {
+        /* Validates the depth is between 0 and 7, or perfect play. */
+        if (depth >= 0 && depth <= 7 || depth == PERFECT) {
           return depth;
         }
         /* Tells the user that wasn't in the right range. */
         System.out.println("\nYour choice was not in the accepted range!");
-        System.out.print("\nPlease enter a maximum search depth between 0 and 7: ");
+        System.out.print("\nPlease enter a maximum search depth between 0 and 7, or " + PERFECT + ": ");
       }
 
       in.nextLine();